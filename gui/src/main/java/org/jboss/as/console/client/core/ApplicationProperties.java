@@ -28,6 +28,7 @@ public interface ApplicationProperties {
     String STANDALONE = "standalone_usage";
     String DOMAIN_API = "domain-api";
     String DEPLOYMENT_API = "add-content";
+    String PUSH_API = "push-api";
 
     void setProperty(String key, String value);
 
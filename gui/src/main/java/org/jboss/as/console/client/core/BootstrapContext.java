@@ -54,6 +54,10 @@ public class BootstrapContext implements ApplicationProperties {
         String deploymentApi = GWT.isScript() ? getBaseUrl()+"management/add-content" : "http://127.0.0.1:8888/app/upload";
         setProperty(DEPLOYMENT_API, deploymentApi);
 
+        // only available if the console is served by the proxy web application
+        String pushApi = GWT.isScript() ? GWT.getHostPageBaseURL()+"app/push" : "http://127.0.0.1:8888/app/push";
+        setProperty(PUSH_API, pushApi);
+
         //Log.info("Domain API Endpoint: " + domainApi);
     }
 
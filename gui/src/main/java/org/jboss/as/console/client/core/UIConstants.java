@@ -258,4 +258,12 @@ public interface UIConstants extends Constants {
     String common_label_serverGroupConfigurations();
 
     String common_label_host();
+
+    String common_error_endpointNotResponding();
+
+    String common_label_endpointAvailable();
+
+    String common_error_requestSuspended();
+
+    String common_error_authenticationRequired();
 }
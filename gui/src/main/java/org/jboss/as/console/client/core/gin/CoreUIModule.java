@@ -88,6 +88,7 @@ import org.jboss.as.console.client.shared.dispatch.InvocationMetrics;
 import org.jboss.as.console.client.shared.dispatch.impl.DMRHandler;
 import org.jboss.as.console.client.shared.dispatch.impl.DispatchAsyncImpl;
 import org.jboss.as.console.client.shared.dispatch.impl.HandlerRegistry;
+import org.jboss.as.console.client.shared.dispatch.impl.PushChannel;
 import org.jboss.as.console.client.shared.expr.DefaultExpressionResolver;
 import org.jboss.as.console.client.shared.expr.ExpressionResolver;
 import org.jboss.as.console.client.shared.general.InterfacePresenter;
@@ -218,6 +219,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bind(HandlerMapping.class).to(HandlerRegistry.class).in(Singleton.class);
         bind(DMRHandler.class).in(Singleton.class);
         bind(InvocationMetrics.class).in(Singleton.class);
+        bind(PushChannel.class).in(Singleton.class);
 
         // ----------------------------------------------------------------------
 
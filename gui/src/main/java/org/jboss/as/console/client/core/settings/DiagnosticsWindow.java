@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.core.settings;
+
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.i18n.client.NumberFormat;
+import com.google.gwt.user.cellview.client.TextColumn;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.TextArea;
+import com.google.gwt.user.client.ui.VerticalPanel;
+import com.google.gwt.user.client.ui.Widget;
+import com.google.gwt.view.client.ListDataProvider;
+import org.jboss.as.console.client.Console;
+import org.jboss.as.console.client.shared.dispatch.InvocationMetrics;
+import org.jboss.ballroom.client.widgets.tables.DefaultCellTable;
+import org.jboss.ballroom.client.widgets.tools.ToolButton;
+import org.jboss.ballroom.client.widgets.tools.ToolStrip;
+import org.jboss.ballroom.client.widgets.window.DefaultWindow;
+import org.jboss.ballroom.client.widgets.window.DialogueOptions;
+import org.jboss.ballroom.client.widgets.window.WindowContentBuilder;
+
+/**
+ * Shows the {@link InvocationMetrics} of the management operations executed so far.
+ */
+public class DiagnosticsWindow {
+
+    private static final NumberFormat MILLIS = NumberFormat.getFormat("0");
+    private static final NumberFormat KILOBYTES = NumberFormat.getFormat("0.0");
+
+    private final InvocationMetrics metrics;
+    private DefaultWindow window;
+    private ListDataProvider<InvocationMetrics.Stats> dataProvider;
+    private TextArea export;
+
+    public DiagnosticsWindow(InvocationMetrics metrics) {
+        this.metrics = metrics;
+
+        window = new DefaultWindow("Diagnostics");
+        window.setWidth(800);
+        window.setHeight(480);
+        window.setGlassEnabled(true);
+
+        VerticalPanel panel = new VerticalPanel();
+        panel.setStyleName("default-window-content");
+
+        ToolStrip toolStrip = new ToolStrip();
+        toolStrip.addToolButton(new ToolButton(Console.CONSTANTS.common_label_refresh(), new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                refresh();
+            }
+        }));
+        toolStrip.addToolButton(new ToolButton("Reset", new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                DiagnosticsWindow.this.metrics.reset();
+                refresh();
+            }
+        }));
+        toolStrip.addToolButton(new ToolButton("Export", new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                export.setText(DiagnosticsWindow.this.metrics.toJSON());
+                export.setVisible(true);
+                export.selectAll();
+            }
+        }));
+
+        panel.add(toolStrip);
+
+        if(!metrics.isEnabled())
+            panel.add(new HTML("Invocation tracking is disabled."));
+
+        panel.add(createTable());
+
+        export = new TextArea();
+        export.setVisibleLines(8);
+        export.setWidth("95%");
+        export.setReadOnly(true);
+        export.setVisible(false);
+        panel.add(export);
+
+        ClickHandler closeHandler = new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                window.hide();
+            }
+        };
+
+        DialogueOptions options = new DialogueOptions("Close", closeHandler, "Cancel", closeHandler);
+        Widget content = new WindowContentBuilder(new ScrollPanel(panel), options.showCancel(false)).build();
+        window.setWidget(content);
+    }
+
+    private Widget createTable() {
+        DefaultCellTable<InvocationMetrics.Stats> table = new DefaultCellTable<InvocationMetrics.Stats>(10);
+        dataProvider = new ListDataProvider<InvocationMetrics.Stats>();
+        dataProvider.addDataDisplay(table);
+
+        table.addColumn(new TextColumn<InvocationMetrics.Stats>() {
+            @Override
+            public String getValue(InvocationMetrics.Stats stats) {
+                return stats.getKey();
+            }
+        }, "Operation");
+
+        table.addColumn(new TextColumn<InvocationMetrics.Stats>() {
+            @Override
+            public String getValue(InvocationMetrics.Stats stats) {
+                return stats.getInvocations() + " / " + stats.getFailures();
+            }
+        }, "Calls / Failed");
+
+        table.addColumn(new TextColumn<InvocationMetrics.Stats>() {
+            @Override
+            public String getValue(InvocationMetrics.Stats stats) {
+                return MILLIS.format(stats.getLatency().getPercentile(50)) + " / "
+                        + MILLIS.format(stats.getLatency().getPercentile(95)) + " / "
+                        + MILLIS.format(stats.getLatency().getPercentile(99));
+            }
+        }, "p50 / p95 / p99 (ms)");
+
+        table.addColumn(new TextColumn<InvocationMetrics.Stats>() {
+            @Override
+            public String getValue(InvocationMetrics.Stats stats) {
+                return KILOBYTES.format(stats.getRequestBytes() / 1024d) + " / "
+                        + KILOBYTES.format(stats.getResponseBytes() / 1024d);
+            }
+        }, "Sent / Received (kB)");
+
+        table.addColumn(new TextColumn<InvocationMetrics.Stats>() {
+            @Override
+            public String getValue(InvocationMetrics.Stats stats) {
+                return MILLIS.format(stats.getDecodeTime());
+            }
+        }, "Decode (ms)");
+
+        return table;
+    }
+
+    private void refresh() {
+        dataProvider.setList(metrics.getStats());
+    }
+
+    public void show() {
+        refresh();
+        window.center();
+    }
+}
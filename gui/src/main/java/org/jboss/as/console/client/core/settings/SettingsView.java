@@ -159,7 +159,18 @@ public class SettingsView extends PopupViewImpl implements SettingsPresenterWidg
 
         options.getElement().setAttribute("style", "padding:10px");
 
+        HTML diagnostics = new HTML("<a href='javascript:void(0)'>Diagnostics</a>");
+        diagnostics.getElement().setAttribute("style", "margin:15px");
+        diagnostics.addClickHandler(new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                presenter.hideView();
+                new DiagnosticsWindow(Console.MODULES.getInvocationMetrics()).show();
+            }
+        });
+
         content.addSouth(options, 50);
+        content.addSouth(diagnostics, 30);
         content.add(formWidget);
     }
 
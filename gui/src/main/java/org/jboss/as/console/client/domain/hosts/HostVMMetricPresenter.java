@@ -1,7 +1,7 @@
 package org.jboss.as.console.client.domain.hosts;
 
-import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.shared.EventBus;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import com.gwtplatform.mvp.client.Presenter;
 import com.gwtplatform.mvp.client.annotations.NameToken;
@@ -18,6 +18,8 @@ import org.jboss.as.console.client.domain.model.SimpleCallback;
 import org.jboss.as.console.client.domain.runtime.DomainRuntimePresenter;
 import org.jboss.as.console.client.shared.BeanFactory;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
+import org.jboss.as.console.client.shared.dispatch.RequestScope;
+import org.jboss.as.console.client.shared.dispatch.impl.PushChannel;
 import org.jboss.as.console.client.shared.jvm.LoadMetricsCmd;
 import org.jboss.as.console.client.shared.jvm.model.CompositeVMMetric;
 import org.jboss.as.console.client.shared.runtime.Metric;
@@ -42,10 +44,11 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
 
 
     private boolean keepPolling = true;
-    private Scheduler.RepeatingCommand pollCmd = null;
-    private static final int POLL_INTERVAL = 5000;
+    private PushChannel pushChannel;
+    private PushChannel.Subscription subscription = null;
     private HostInformationStore hostInfoStore;
     private String serverSelection = null;
+    private final RequestScope requests = new RequestScope();
 
     @ProxyCodeSplit
     @NameToken(NameTokens.HostVMMetricPresenter)
@@ -60,7 +63,8 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
             EventBus eventBus, MyView view, MyProxy proxy,
             PlaceManager placeManager, CurrentHostSelection hostSelection,
             DispatchAsync dispatcher, BeanFactory factory,
-            ApplicationMetaData metaData, HostInformationStore hostInfoStore) {
+            ApplicationMetaData metaData, HostInformationStore hostInfoStore,
+            PushChannel pushChannel) {
         super(eventBus, view, proxy);
 
         this.hostSelection = hostSelection;
@@ -68,6 +72,7 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
         this.factory = factory;
         this.metaData = metaData;
         this.hostInfoStore = hostInfoStore;
+        this.pushChannel = pushChannel;
     }
 
     @Override
@@ -79,7 +84,12 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
     @Override
     protected void onReset() {
 
-        loadServer();
+        requests.run(new Command() {
+            @Override
+            public void execute() {
+                loadServer();
+            }
+        });
     }
 
     private void loadServer() {
@@ -97,6 +107,8 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
     @Override
     protected void onHide() {
         super.onHide();
+        requests.cancel();
+        unsubscribe();
         getView().recycle();
     }
 
@@ -124,9 +136,12 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
         RevealContentEvent.fire(getEventBus(), DomainRuntimePresenter.TYPE_MainContent, this);
     }
 
-    public void loadVMStatus(final String serverName) {
-        createLoadMetricCmd(serverName).execute(new SimpleCallback<CompositeVMMetric>() {
+    private void subscribe() {
+
+        if(subscription!=null || serverSelection==null || shouldPause())
+            return;
 
+        subscription = createLoadMetricCmd(serverSelection).subscribe(pushChannel, new SimpleCallback<CompositeVMMetric>() {
 
             @Override
             public void onFailure(Throwable caught) {
@@ -160,29 +175,18 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
                 );
             }
         });
-    }
-
-    private void beginPolling() {
-        pollCmd = new Scheduler.RepeatingCommand() {
-            @Override
-            public boolean execute() {
-
-                final boolean keepPooling = isVisible() && !shouldPause();
-
-                if (keepPooling)
-                    loadVMStatus(serverSelection);
-                else
-                    Console.warning("Stop polling for VM metrics.");
-
-                return keepPooling;
-            }
-        };
-
-        Scheduler.get().scheduleFixedDelay(pollCmd, POLL_INTERVAL);
 
         Console.info("Begin polling for virtual machine metrics");
     }
 
+    private void unsubscribe() {
+        if(subscription!=null)
+        {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+
     private boolean shouldPause() {
         return !keepPolling;
     }
@@ -190,10 +194,15 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
     public void keepPolling(boolean b) {
         this.keepPolling = b;
 
-        if(keepPolling && pollCmd==null)
-            beginPolling();
-        else if(!keepPolling && pollCmd!=null)
-            pollCmd=null;
+        if(keepPolling)
+        {
+            subscribe();
+        }
+        else if(subscription!=null)
+        {
+            unsubscribe();
+            Console.warning("Stop polling for VM metrics.");
+        }
     }
 
     public void onServerSelection(String serverName) {
@@ -201,7 +210,7 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
         this.serverSelection = serverName;
 
         getView().reset();
-        loadVMStatus(serverName);
-        beginPolling();
+        unsubscribe();
+        subscribe();
     }
 }
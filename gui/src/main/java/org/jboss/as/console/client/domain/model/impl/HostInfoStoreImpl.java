@@ -90,7 +90,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 List<ModelNode> payload = response.get("result").asList();
 
                 List<Host> records = new LinkedList<Host>();
@@ -128,7 +128,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                // only a few attributes per server-config are bound, skip decoding the rest
+                ModelNode response = result.get(true);
                 List<ModelNode> payload = response.get("result").asList();
 
                 List<Server> records = new LinkedList<Server>();
@@ -164,7 +165,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 List<ModelNode> payload = response.get("result").asList();
 
                 List<String> records = new ArrayList<String>(payload.size());
@@ -213,7 +214,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
                         @Override
                         public void onSuccess(DMRResponse result) {
 
-                            ModelNode statusResponse = ModelNode.fromBase64(result.getResponseText());
+                            ModelNode statusResponse = result.get();
                             ModelNode payload = statusResponse.get("result");
 
                             ServerInstance instance = factory.serverInstance().as();
@@ -246,7 +247,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
         dispatcher.execute(new DMRAction(operation), new AsyncCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 if(response.get("outcome").asString().equals("success"))
                 {
                     callback.onSuccess(Boolean.TRUE);
@@ -276,7 +277,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
         dispatcher.execute(new DMRAction(operation), new AsyncCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 if(response.get("outcome").asString().equals("success"))
                 {
                     callback.onSuccess(Boolean.TRUE);
@@ -327,7 +328,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 String outcome = response.get("outcome").asString();
 
                 Boolean wasSuccessful = outcome.equals("success") ? Boolean.TRUE : Boolean.FALSE;
@@ -355,7 +356,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 callback.onSuccess(response.get(OUTCOME).asString().equals(SUCCESS));
             }
         });
@@ -378,7 +379,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 String outcome = response.get("outcome").asString();
 
                 Boolean wasSuccessful = outcome.equals("success") ? Boolean.TRUE : Boolean.FALSE;
@@ -399,7 +400,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
 
                 List<Property> jvms = result.get(RESULT).asPropertyList();
                 if(!jvms.isEmpty())
@@ -433,7 +434,7 @@ public class HostInfoStoreImpl implements HostInformationStore {
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 List<Property> properties = result.get(RESULT).asPropertyList();
                 List<PropertyRecord> records = new ArrayList<PropertyRecord>(properties.size());
 
@@ -19,46 +19,275 @@
 
 package org.jboss.as.console.client.shared.dispatch;
 
+import com.google.gwt.core.client.Duration;
 import org.jboss.dmr.client.ModelDescriptionConstants;
 import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+import org.jboss.dmr.client.Property;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
+ * Records latency, payload sizes, decode time and failures of management operations,
+ * grouped by operation name and address.<p/>
+ *
+ * Resource names are replaced with wildcards, so that the number of keys doesn't
+ * grow with the number of resources (i.e. one entry for all data sources).
+ * Subsystem names are kept.
+ *
  * @author Heiko Braun
  * @date 3/22/11
  */
 public class InvocationMetrics {
 
-    private Map<String, Double> numInvocations = new HashMap<String, Double>();
+    private static final Invocation UNTRACKED = new Invocation(null);
 
-    public void addInvocation(ModelNode operation)
+    private Map<String, Stats> stats = new HashMap<String, Stats>();
+    private boolean enabled = true;
+
+    /**
+     * Start tracking an operation.
+     *
+     * @return the handle used to report the outcome. If tracking is disabled it doesn't record anything.
+     */
+    public Invocation begin(ModelNode operation)
     {
+        if(!enabled)
+            return UNTRACKED;
 
         String key = deriveKey(operation);
 
-        Double value = numInvocations.get(key);
+        Stats value = stats.get(key);
         if(null==value)
-            numInvocations.put(key, 1.0);
-        else
         {
-            numInvocations.put(key, ++value);
+            value = new Stats(key);
+            stats.put(key, value);
         }
+
+        value.invocations++;
+        return new Invocation(value);
+    }
+
+    public void addInvocation(ModelNode operation)
+    {
+        begin(operation);
     }
 
     private String deriveKey(ModelNode operation) {
-        String key = operation.get(ModelDescriptionConstants.OP_ADDR) + "::" +
-                operation.get(ModelDescriptionConstants.OP);
+        String address = operation.hasDefined(ModelDescriptionConstants.OP_ADDR) ?
+                normalize(operation.get(ModelDescriptionConstants.OP_ADDR)) : "/";
+        String name = operation.hasDefined(ModelDescriptionConstants.OP) ?
+                operation.get(ModelDescriptionConstants.OP).asString() : "undefined";
+        String key = address + "::" + name;
 
-        String childType = operation.get(ModelDescriptionConstants.CHILD_TYPE) == null ?
-                "" : " (child-type="+operation.get(ModelDescriptionConstants.CHILD_TYPE).asString() +")";
-        key+=childType;
+        if(operation.hasDefined(ModelDescriptionConstants.CHILD_TYPE))
+            key += " (child-type="+operation.get(ModelDescriptionConstants.CHILD_TYPE).asString() +")";
 
         return key;
     }
 
+    /**
+     * @return the address with wildcards for resource names, i.e. <code>/subsystem=datasources/data-source=*</code>
+     */
+    static String normalize(ModelNode address) {
+        if(address.getType() != ModelType.LIST)
+            return address.asString();
+
+        StringBuilder sb = new StringBuilder();
+        for(ModelNode segment : address.asList())
+        {
+            for(Property tuple : segment.asPropertyList())
+            {
+                sb.append('/').append(tuple.getName()).append('=');
+                sb.append(ModelDescriptionConstants.SUBSYSTEM.equals(tuple.getName()) ?
+                        tuple.getValue().asString() : "*");
+            }
+        }
+        return sb.length()==0 ? "/" : sb.toString();
+    }
+
     public Map<String, Double> getNumInvocations() {
+        Map<String, Double> numInvocations = new HashMap<String, Double>();
+        for(Stats value : stats.values())
+            numInvocations.put(value.getKey(), (double) value.getInvocations());
         return numInvocations;
     }
+
+    /**
+     * @return the statistics of all operations, ordered by the total time spent on them
+     */
+    public List<Stats> getStats() {
+        List<Stats> result = new ArrayList<Stats>(stats.values());
+        Collections.sort(result, new Comparator<Stats>() {
+            @Override
+            public int compare(Stats o1, Stats o2) {
+                return Double.compare(
+                        o2.getLatency().getTotal() + o2.getDecodeTime(),
+                        o1.getLatency().getTotal() + o1.getDecodeTime()
+                );
+            }
+        });
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * @return all statistics as a JSON array, i.e. to be attached to bug reports
+     */
+    public String toJSON() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for(Stats value : getStats())
+        {
+            if(!first) sb.append(",");
+            first = false;
+
+            LatencyHistogram latency = value.getLatency();
+            sb.append("\n{");
+            sb.append("\"operation\":").append(quote(value.getKey()));
+            sb.append(",\"invocations\":").append(value.getInvocations());
+            sb.append(",\"failures\":").append(value.getFailures());
+            sb.append(",\"requestBytes\":").append(value.getRequestBytes());
+            sb.append(",\"responseBytes\":").append(value.getResponseBytes());
+            sb.append(",\"decodeMillis\":").append(value.getDecodeTime());
+            sb.append(",\"latency\":{");
+            sb.append("\"samples\":").append(latency.getSamples());
+            sb.append(",\"mean\":").append(latency.getMean());
+            sb.append(",\"min\":").append(latency.getMin());
+            sb.append(",\"max\":").append(latency.getMax());
+            sb.append(",\"p50\":").append(latency.getPercentile(50));
+            sb.append(",\"p95\":").append(latency.getPercentile(95));
+            sb.append(",\"p99\":").append(latency.getPercentile(99));
+            sb.append("}}");
+        }
+        sb.append("\n]");
+        return sb.toString();
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for(int i=0; i<s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if(c=='"' || c=='\\')
+                sb.append('\\').append(c);
+            else if(c=='\n')
+                sb.append("\\n");
+            else if(c=='\t')
+                sb.append("\\t");
+            else if(c < 0x20)
+                sb.append(' ');
+            else
+                sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Accumulated values of one kind of operation.
+     */
+    public static class Stats {
+        private final String key;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long invocations;
+        private long failures;
+        private long requestBytes;
+        private long responseBytes;
+        private double decodeTime;
+
+        Stats(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        /**
+         * @return the milliseconds spent decoding responses
+         */
+        public double getDecodeTime() {
+            return decodeTime;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * A single operation in flight.
+     */
+    public static class Invocation {
+        private final Stats stats;
+        private final double start;
+
+        Invocation(Stats stats) {
+            this.stats = stats;
+            this.start = stats!=null ? Duration.currentTimeMillis() : 0;
+        }
+
+        public void sent(int bytes) {
+            if(stats!=null)
+                stats.requestBytes += bytes;
+        }
+
+        public void succeeded(int responseBytes) {
+            if(stats!=null)
+            {
+                stats.latency.record(Duration.currentTimeMillis() - start);
+                stats.responseBytes += responseBytes;
+            }
+        }
+
+        public void failed() {
+            if(stats!=null)
+            {
+                stats.latency.record(Duration.currentTimeMillis() - start);
+                stats.failures++;
+            }
+        }
+
+        public void decoded(double millis) {
+            if(stats!=null)
+                stats.decodeTime += millis;
+        }
+
+        public boolean isTracked() {
+            return stats!=null;
+        }
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch;
+
+/**
+ * Latency distribution with fixed, roughly exponential bucket boundaries.<p/>
+ *
+ * Recording is constant time and memory regardless of the number of samples.
+ * Percentiles are reported as the upper bound of the bucket they fall into.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Upper bucket boundaries in milliseconds. Samples above the last one are counted separately.
+     */
+    private static final double[] BOUNDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000
+    };
+
+    private final long[] counts = new long[BOUNDS.length + 1];
+    private long samples = 0;
+    private double sum = 0;
+    private double min = Double.MAX_VALUE;
+    private double max = 0;
+
+    public void record(double millis) {
+        int i = 0;
+        while(i < BOUNDS.length && millis > BOUNDS[i])
+            i++;
+
+        counts[i]++;
+        samples++;
+        sum += millis;
+        min = Math.min(min, millis);
+        max = Math.max(max, millis);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the given percentile,
+     * but never more than the largest sample
+     */
+    public double getPercentile(double percentile) {
+        if(samples==0)
+            return 0;
+
+        long rank = (long) Math.ceil(samples * percentile / 100d);
+        rank = Math.max(1, Math.min(samples, rank));
+
+        long seen = 0;
+        for(int i=0; i<BOUNDS.length; i++)
+        {
+            seen += counts[i];
+            if(seen >= rank)
+                return Math.min(BOUNDS[i], max);
+        }
+        return max;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getMean() {
+        return samples==0 ? 0 : sum / samples;
+    }
+
+    public double getMin() {
+        return samples==0 ? 0 : min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getTotal() {
+        return sum;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch;
+
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Ties requests to the lifecycle of a presenter.<p/>
+ *
+ * Requests dispatched while a scope is active, including those issued by stores on
+ * behalf of the presenter, belong to that scope. Callbacks of these requests run within
+ * the scope again, so follow-up requests are tracked as well. When the presenter is hidden,
+ * {@link #cancel()} aborts the outstanding reads and drops their results undecoded.
+ * Changes are never aborted and their callbacks are still invoked.
+ *
+ * <pre>
+ *  protected void onReset() {
+ *      requests.run(new Command() {
+ *          public void execute() { loadServers(); }
+ *      });
+ *  }
+ *
+ *  protected void onHide() {
+ *      requests.cancel();
+ *  }
+ * </pre>
+ */
+public class RequestScope {
+
+    private static RequestScope active = null;
+
+    private final List<DispatchRequest> pending = new ArrayList<DispatchRequest>();
+    private int generation = 0;
+
+    /**
+     * @return the scope new requests belong to, or null
+     */
+    public static RequestScope getActive() {
+        return active;
+    }
+
+    /**
+     * Execute the command with this scope being active.
+     */
+    public void run(Command command) {
+        RequestScope previous = active;
+        active = this;
+        try {
+            command.execute();
+        } finally {
+            active = previous;
+        }
+    }
+
+    /**
+     * Abort the outstanding reads of this scope. The scope can be used again afterwards.
+     */
+    public void cancel() {
+        generation++;
+
+        List<DispatchRequest> requests = new ArrayList<DispatchRequest>(pending);
+        pending.clear();
+        for(DispatchRequest request : requests)
+        {
+            if(request.isPending())
+                request.cancel();
+        }
+    }
+
+    /**
+     * @return the number of outstanding requests that would be cancelled
+     */
+    public int size() {
+        prune();
+        return pending.size();
+    }
+
+    /**
+     * Track a request for {@link #cancel()}
+     */
+    public void add(DispatchRequest request) {
+        if(null==request) return;
+        prune();
+        pending.add(request);
+    }
+
+    private void prune() {
+        Iterator<DispatchRequest> iterator = pending.iterator();
+        while(iterator.hasNext())
+        {
+            if(!iterator.next().isPending())
+                iterator.remove();
+        }
+    }
+
+    /**
+     * @param callback the callback of a request dispatched within this scope
+     * @param cancellable whether the outcome is dropped once the scope has been cancelled
+     * @return a callback that is invoked within this scope
+     */
+    public <T> AsyncCallback<T> wrap(final AsyncCallback<T> callback, final boolean cancellable) {
+        final int issued = generation;
+        return new AsyncCallback<T>() {
+            @Override
+            public void onFailure(final Throwable caught) {
+                if(cancellable && issued!=generation)
+                    return;
+
+                run(new Command() {
+                    @Override
+                    public void execute() {
+                        callback.onFailure(caught);
+                    }
+                });
+            }
+
+            @Override
+            public void onSuccess(final T result) {
+                if(cancellable && issued!=generation)
+                    return;
+
+                run(new Command() {
+                    @Override
+                    public void execute() {
+                        callback.onSuccess(result);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * An <code>XMLHttpRequest</code> that posts raw DMR bytes and receives
+ * the response as an <code>ArrayBuffer</code>.<p/>
+ *
+ * GWT's <code>RequestBuilder</code> only deals with text, which forces
+ * a Base64 round trip on every management operation.
+ */
+final class BinaryRequest extends JavaScriptObject {
+
+    interface Callback {
+        void onResponseReceived(BinaryRequest request);
+    }
+
+    protected BinaryRequest() {
+    }
+
+    /**
+     * @return true if the browser supports typed arrays and binary XHR responses
+     */
+    static native boolean isSupported() /*-{
+        return typeof $wnd.ArrayBuffer != 'undefined'
+                && typeof $wnd.Uint8Array != 'undefined'
+                && 'responseType' in new $wnd.XMLHttpRequest();
+    }-*/;
+
+    static native BinaryRequest send(String url, String contentType, byte[] payload, Callback callback) /*-{
+        var xhr = new $wnd.XMLHttpRequest();
+        xhr.open('POST', url, true);
+        xhr.responseType = 'arraybuffer';
+        xhr.setRequestHeader('Content-Type', contentType);
+        xhr.setRequestHeader('Accept', contentType);
+        xhr.onreadystatechange = $entry(function() {
+            if (xhr.readyState == 4) {
+                xhr.onreadystatechange = function() {};
+                callback.@org.jboss.as.console.client.shared.dispatch.impl.BinaryRequest.Callback::onResponseReceived(Lorg/jboss/as/console/client/shared/dispatch/impl/BinaryRequest;)(xhr);
+            }
+        });
+
+        var body = new $wnd.Uint8Array(payload.length);
+        for (var i = 0; i < payload.length; i++) {
+            body[i] = payload[i];
+        }
+        xhr.send(body);
+        return xhr;
+    }-*/;
+
+    native int getStatus() /*-{
+        return this.status;
+    }-*/;
+
+    native String getStatusText() /*-{
+        return this.statusText;
+    }-*/;
+
+    native String getResponseHeader(String name) /*-{
+        return this.getResponseHeader(name);
+    }-*/;
+
+    native boolean isPending() /*-{
+        return this.readyState > 0 && this.readyState < 4;
+    }-*/;
+
+    native void abort() /*-{
+        this.onreadystatechange = function() {};
+        this.abort();
+    }-*/;
+
+    /**
+     * @return the response body. Values are sign extended to match Java's <code>byte</code> semantics.
+     */
+    byte[] getResponseBytes() {
+        byte[] bytes = new byte[getResponseLength()];
+        copyResponse(bytes);
+        return bytes;
+    }
+
+    private native int getResponseLength() /*-{
+        return this.response ? this.response.byteLength : 0;
+    }-*/;
+
+    private native void copyResponse(byte[] target) /*-{
+        var source = new $wnd.Uint8Array(this.response);
+        for (var i = 0; i < source.length; i++) {
+            target[i] = (source[i] << 24) >> 24;
+        }
+    }-*/;
+}
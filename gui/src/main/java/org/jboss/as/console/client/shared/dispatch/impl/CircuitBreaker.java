@@ -0,0 +1,182 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.core.UIConstants;
+import org.jboss.as.console.client.core.message.Message;
+import org.jboss.as.console.client.core.message.MessageCenter;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+
+/**
+ * Suspends background requests while the management endpoint keeps failing.<p/>
+ *
+ * After a number of consecutive transport failures (timeouts, network errors, unavailable
+ * service) the breaker opens: background requests fail immediately with a {@link SuspendedException},
+ * so pollers stop hammering the endpoint. Other requests still pass. Once the open period
+ * has passed, a single request probes the endpoint and closes the breaker on success.<p/>
+ *
+ * The callback of a suspended request is still invoked, so that handlers further up
+ * (i.e. the {@link RequestCoalescer}) can release it. Pollers may simply ignore the failure.
+ * Suspensions are not transport failures: the {@link RequestRetrier} doesn't retry them.
+ */
+public class CircuitBreaker implements ActionHandler<DMRAction, DMRResponse> {
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final int OPEN_PERIOD = 30000;
+
+    private static final DispatchRequest SUSPENDED = new DispatchRequest() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isPending() {
+            return false;
+        }
+    };
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * The failure of a request that was suspended while the breaker is open
+     */
+    public static class SuspendedException extends Exception {
+        public SuspendedException(String message) {
+            super(message);
+        }
+    }
+
+    private final ActionHandler<DMRAction, DMRResponse> handler;
+    private final MessageCenter messageCenter;
+    private final UIConstants constants;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private double openedAt = 0;
+    private boolean probing = false;
+
+    CircuitBreaker(ActionHandler<DMRAction, DMRResponse> handler, MessageCenter messageCenter, UIConstants constants) {
+        this.handler = handler;
+        this.messageCenter = messageCenter;
+        this.constants = constants;
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, final AsyncCallback<DMRResponse> callback) {
+
+        if(State.OPEN == state && Duration.currentTimeMillis() - openedAt >= OPEN_PERIOD)
+            state = State.HALF_OPEN;
+
+        boolean background = DMRAction.Priority.BACKGROUND == action.getPriority();
+        if(State.OPEN == state && background)
+            return suspend(callback);
+
+        boolean probe = false;
+        if(State.HALF_OPEN == state)
+        {
+            if(probing && background)
+                return suspend(callback);
+            probing = true;
+            probe = true;
+        }
+
+        final DispatchRequest request = handler.execute(action, new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onSuccess(DMRResponse result) {
+                succeeded();
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                if(DMRHandler.isTransportFailure(caught))
+                    failed();
+                else
+                    succeeded(); // the endpoint did respond
+                callback.onFailure(caught);
+            }
+        });
+
+        if(!probe)
+            return request;
+
+        // a cancelled probe never completes: let the next request probe instead
+        return new DispatchRequest() {
+            @Override
+            public void cancel() {
+                if(request.isPending())
+                    probing = false;
+                request.cancel();
+            }
+
+            @Override
+            public boolean isPending() {
+                return request.isPending();
+            }
+        };
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    private DispatchRequest suspend(AsyncCallback<DMRResponse> callback) {
+        callback.onFailure(new SuspendedException(constants.common_error_requestSuspended()));
+        return SUSPENDED;
+    }
+
+    private void succeeded() {
+        failures = 0;
+        probing = false;
+
+        if(state != State.CLOSED)
+        {
+            state = State.CLOSED;
+            messageCenter.notify(
+                    new Message(constants.common_label_endpointAvailable(), Message.Severity.Info)
+            );
+        }
+    }
+
+    private void failed() {
+        failures++;
+        probing = false;
+
+        if(State.HALF_OPEN == state || (State.CLOSED == state && failures >= FAILURE_THRESHOLD))
+        {
+            boolean wasClosed = State.CLOSED == state;
+            state = State.OPEN;
+            openedAt = Duration.currentTimeMillis();
+
+            if(wasClosed)
+                messageCenter.notify(
+                        new Message(constants.common_error_endpointNotResponding(), Message.Severity.Warning)
+                );
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -29,12 +29,30 @@ import org.jboss.dmr.client.ModelNode;
  */
 public class DMRAction implements Action<DMRResponse> {
 
+    /**
+     * Scheduling priority, higher priorities are sent first.
+     */
+    public enum Priority {
+        /** user initiated changes */
+        INTERACTIVE,
+        /** loading data for the current screen */
+        NAVIGATION,
+        /** periodic polling, superseded by newer polls of the same operation */
+        BACKGROUND
+    }
+
     private ModelNode operation;
+    private Priority priority;
 
     public DMRAction(ModelNode operation) {
         this.operation = operation;
     }
 
+    public DMRAction(ModelNode operation, Priority priority) {
+        this.operation = operation;
+        this.priority = priority;
+    }
+
     @Override
     public ActionType getType() {
         return ActionType.DMR;
@@ -54,6 +72,18 @@ public class DMRAction implements Action<DMRResponse> {
     {
         return this.operation;
     }
+
+    /**
+     * @return the explicit priority or, by default, {@link Priority#NAVIGATION} for reads
+     * and {@link Priority#INTERACTIVE} for anything else
+     */
+    public Priority getPriority()
+    {
+        if(priority!=null)
+            return priority;
+
+        return RequestBatcher.isReadOnly(operation) ? Priority.NAVIGATION : Priority.INTERACTIVE;
+    }
 }
 
 
@@ -20,10 +20,12 @@
 package org.jboss.as.console.client.shared.dispatch.impl;
 
 import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.http.client.Request;
 import com.google.gwt.http.client.RequestBuilder;
 import com.google.gwt.http.client.RequestCallback;
 import com.google.gwt.http.client.RequestException;
+import com.google.gwt.http.client.RequestTimeoutException;
 import com.google.gwt.http.client.Response;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
@@ -32,9 +34,24 @@ import org.jboss.as.console.client.core.UIConstants;
 import org.jboss.as.console.client.shared.dispatch.ActionHandler;
 import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
 import org.jboss.as.console.client.shared.dispatch.InvocationMetrics;
+import org.jboss.dmr.client.DataOutput;
 import org.jboss.dmr.client.ModelNode;
 
 /**
+ * Executes management operations against the domain API.<p/>
+ *
+ * Operations are exchanged as Base64 encoded DMR by default. When the endpoint
+ * advertises support for raw DMR bytes (<code>Accept-Post: application/dmr-binary</code>)
+ * and the browser supports binary XHR, subsequent operations skip the Base64 step.
+ * The handler falls back to Base64 if the endpoint rejects a binary request.<p/>
+ *
+ * Requests time out after {@link #READ_TIMEOUT} or, for changes, {@link #CHANGE_TIMEOUT}.
+ * Timeouts, network errors and an unavailable service are reported as {@link RequestException}
+ * (see {@link #isTransportFailure(Throwable)}).<p/>
+ *
+ * The callback is invoked exactly once for every request that isn't cancelled.
+ * Handlers further up (i.e. the {@link RequestCoalescer}) rely on it.
+ *
  * @author Heiko Braun
  * @date 3/17/11
  */
@@ -42,11 +59,20 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
 
     private static final String HEADER_CONTENT_TYPE = "Content-Type";
     private static final String HEADER_ACCEPT = "Accept";
+    private static final String HEADER_ACCEPT_POST = "Accept-Post";
     private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final String DMR_BINARY = "application/dmr-binary";
+
+    static final int READ_TIMEOUT = 30000;
+    static final int CHANGE_TIMEOUT = 120000;
 
     private final RequestBuilder requestBuilder;
+    private final String domainApi;
 
-    private boolean trackInvocations = false; //!GWT.isScript(); TODO
+    // reused across requests, operations are encoded one at a time
+    private final DataOutput encoder = new DataOutput();
+
+    private boolean binaryTransport = false;
     private InvocationMetrics metrics;
     private UIConstants constants;
 
@@ -55,10 +81,11 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
 
         this.metrics = metrics;
         this.constants = constants;
+        this.domainApi = bootstrap.getProperty(BootstrapContext.DOMAIN_API);
 
         requestBuilder = new RequestBuilder(
                 RequestBuilder.POST,
-                bootstrap.getProperty(BootstrapContext.DOMAIN_API)
+                domainApi
         );
 
         requestBuilder.setHeader(HEADER_ACCEPT, DMR_ENCODED);
@@ -73,59 +100,48 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
 
         final ModelNode operation = action.getOperation();
 
-        if(trackInvocations)
-        {
-            metrics.addInvocation(operation);
-        }
+        final InvocationMetrics.Invocation invocation = metrics.begin(operation);
+        final AsyncCallback<DMRResponse> callback = invocation.isTracked() ?
+                new TrackingCallback(invocation, resultCallback) : resultCallback;
+
+        int timeout = DMRAction.Priority.INTERACTIVE == action.getPriority() ? CHANGE_TIMEOUT : READ_TIMEOUT;
+
+        if(binaryTransport)
+            return executeBinaryRequest(callback, operation, invocation, timeout);
 
-        Request requestHandle = executeRequest(resultCallback, operation);
+        Request requestHandle = executeRequest(callback, operation, invocation, timeout);
 
         return new DispatchRequestHandle(requestHandle);
     }
 
-    private Request executeRequest(final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation) {
+    private Request executeRequest(
+            final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation,
+            final InvocationMetrics.Invocation invocation, final int timeout) {
         Request requestHandle = null;
         try {
-            requestHandle = requestBuilder.sendRequest(operation.toBase64String(), new RequestCallback() {
+            String payload = operation.toBase64String(encoder);
+            invocation.sent(payload.length());
+            requestBuilder.setTimeoutMillis(timeout);
+            requestHandle = requestBuilder.sendRequest(payload, new RequestCallback() {
                 @Override
                 public void onResponseReceived(Request request, Response response) {
 
-                    int statusCode = response.getStatusCode();
-                    if(200== statusCode)
+                    if(!binaryTransport && supportsBinary(response.getHeader(HEADER_ACCEPT_POST)))
                     {
-                        resultCallback.onSuccess(
-                                new DMRResponse(
-                                        response.getText(),
-                                        response.getHeader(HEADER_CONTENT_TYPE)
-                                )
-                        );
+                        Log.info("Switching to binary DMR transport");
+                        binaryTransport = true;
                     }
-                    else if(401 == statusCode || 0 == statusCode)
-                    {
-                        Log.error("Authentication required. Could not execute "+operation.toString());
-                    }
-                    else
-                    {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append(constants.common_error_unexpectedHttpResponse()).append(": ").append(statusCode);
-                        sb.append("\n\n");
-                        sb.append("Request\n");
-                        sb.append(operation.toString());
-
-                        sb.append("\n\nResponse\n\n");
-                        sb.append(response.getStatusText()).append("\n");
-
-                        String payload = response.getText().equals("") ? constants.common_error_detailsMissing() :
-                                ModelNode.fromBase64(response.getText()).toString();
 
-                        sb.append(payload);
-                        resultCallback.onFailure( new Exception(sb.toString()));
-                    }
+                    handleResponse(
+                            operation, resultCallback,
+                            response.getStatusCode(), response.getStatusText(),
+                            new DMRResponse(response.getText(), response.getHeader(HEADER_CONTENT_TYPE))
+                    );
                 }
 
                 @Override
                 public void onError(Request request, Throwable e) {
-                    resultCallback.onFailure(e);
+                    resultCallback.onFailure(e instanceof RequestException ? e : new RequestException(e.getMessage()));
                 }
             });
         } catch (RequestException e) {
@@ -134,11 +150,154 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         return requestHandle;
     }
 
+    private DispatchRequest executeBinaryRequest(
+            final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation,
+            final InvocationMetrics.Invocation invocation, final int timeout) {
+
+        byte[] payload = operation.toBytes();
+        invocation.sent(payload.length);
+
+        final BinaryRequestHandle handle = new BinaryRequestHandle();
+        final BinaryRequest request = BinaryRequest.send(
+                domainApi, DMR_BINARY, payload,
+                new BinaryRequest.Callback() {
+                    @Override
+                    public void onResponseReceived(BinaryRequest request) {
+
+                        int statusCode = request.getStatus();
+                        if(415 == statusCode)
+                        {
+                            // endpoint no longer accepts raw DMR, fallback to Base64
+                            Log.warn("Binary DMR transport rejected, falling back to Base64");
+                            binaryTransport = false;
+                            handle.fallback = executeRequest(resultCallback, operation, invocation, timeout);
+                            return;
+                        }
+
+                        String contentType = request.getResponseHeader(HEADER_CONTENT_TYPE);
+                        byte[] payload = request.getResponseBytes();
+
+                        // errors may still be reported in the text encoding
+                        DMRResponse dmrResponse = contentType!=null && contentType.startsWith(DMR_BINARY) ?
+                                new DMRResponse(payload, contentType) :
+                                new DMRResponse(asText(payload), contentType);
+
+                        handleResponse(operation, resultCallback, statusCode, request.getStatusText(), dmrResponse);
+                    }
+                }
+        );
+
+        Scheduler.get().scheduleFixedDelay(new Scheduler.RepeatingCommand() {
+            @Override
+            public boolean execute() {
+                if(request.isPending())
+                {
+                    request.abort();
+                    resultCallback.onFailure(new RequestTimeoutException(null, timeout));
+                }
+                return false;
+            }
+        }, timeout);
+
+        handle.request = request;
+        return handle;
+    }
+
+    /**
+     * @return true if the operation didn't reach the endpoint or the endpoint didn't respond
+     * in time. The outcome of the operation is unknown in this case.
+     */
+    static boolean isTransportFailure(Throwable caught) {
+        return caught instanceof RequestException;
+    }
+
+    private void handleResponse(
+            ModelNode operation, AsyncCallback<DMRResponse> resultCallback,
+            int statusCode, String statusText, DMRResponse dmrResponse) {
+
+        if(200== statusCode)
+        {
+            resultCallback.onSuccess(dmrResponse);
+        }
+        else if(0 == statusCode)
+        {
+            // the request didn't complete, i.e. the connection was dropped
+            resultCallback.onFailure(
+                    new RequestException(constants.common_error_unexpectedHttpResponse() + ": " + statusCode)
+            );
+        }
+        else if(401 == statusCode)
+        {
+            Log.error("Authentication required. Could not execute "+operation.toString());
+            resultCallback.onFailure(new Exception(constants.common_error_authenticationRequired()));
+        }
+        else
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(constants.common_error_unexpectedHttpResponse()).append(": ").append(statusCode);
+            sb.append("\n\n");
+            sb.append("Request\n");
+            sb.append(operation.toString());
+
+            sb.append("\n\nResponse\n\n");
+            sb.append(statusText).append("\n");
+
+            String payload = dmrResponse.isEmpty() ? constants.common_error_detailsMissing() :
+                    dmrResponse.get().toString();
+
+            sb.append(payload);
+
+            // the endpoint is overloaded or restarting
+            boolean unavailable = 502 == statusCode || 503 == statusCode || 504 == statusCode;
+            resultCallback.onFailure(
+                    unavailable ? new RequestException(sb.toString()) : new Exception(sb.toString())
+            );
+        }
+    }
+
+    private static boolean supportsBinary(String acceptPost) {
+        return acceptPost!=null && acceptPost.indexOf(DMR_BINARY)!=-1 && BinaryRequest.isSupported();
+    }
+
+    private static String asText(byte[] payload) {
+        StringBuilder sb = new StringBuilder(payload.length);
+        for(byte b : payload)
+            sb.append((char) (b & 0xFF));
+        return sb.toString();
+    }
+
     @Override
     public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
         throw new RuntimeException("Not implemented yet.");
     }
 
+    /**
+     * Reports the outcome of an operation to the {@link InvocationMetrics}
+     */
+    class TrackingCallback implements AsyncCallback<DMRResponse>
+    {
+        private final InvocationMetrics.Invocation invocation;
+        private final AsyncCallback<DMRResponse> delegate;
+
+        TrackingCallback(InvocationMetrics.Invocation invocation, AsyncCallback<DMRResponse> delegate) {
+            this.invocation = invocation;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            invocation.succeeded(result.size());
+            result.setInvocation(invocation);
+            delegate.onSuccess(result);
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            invocation.failed();
+            delegate.onFailure(caught);
+        }
+    }
+
     class DispatchRequestHandle implements DispatchRequest
     {
         private Request delegate;
@@ -158,4 +317,28 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         }
     }
 
+    /**
+     * Tracks the binary request and, if the endpoint rejected it, the Base64 request sent instead
+     */
+    class BinaryRequestHandle implements DispatchRequest
+    {
+        private BinaryRequest request;
+        private Request fallback;
+
+        @Override
+        public void cancel() {
+            if(fallback!=null)
+                fallback.cancel();
+            else if(request!=null)
+                request.abort();
+        }
+
+        @Override
+        public boolean isPending() {
+            if(fallback!=null)
+                return fallback.isPending();
+            return request!=null ? request.isPending() : false;
+        }
+    }
+
 }
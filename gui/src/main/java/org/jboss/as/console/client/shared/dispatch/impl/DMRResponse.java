@@ -20,22 +20,101 @@
 package org.jboss.as.console.client.shared.dispatch.impl;
 
 
+import com.google.gwt.core.client.Duration;
+import org.jboss.as.console.client.shared.dispatch.InvocationMetrics;
 import org.jboss.as.console.client.shared.dispatch.Result;
+import org.jboss.dmr.client.Base64;
+import org.jboss.dmr.client.ModelNode;
 
 /**
+ * The outcome of a management operation. Depending on the negotiated transport
+ * the payload is either Base64 encoded text or raw DMR bytes. Responses split
+ * from a composite operation carry the already decoded model.
+ *
  * @author Heiko Braun
  * @date 3/17/11
  */
-public class DMRResponse<ModelNode> implements Result {
+public class DMRResponse implements Result {
     private String responseText;
+    private byte[] responseBytes;
     private String contentType;
+    private ModelNode model;
+    private InvocationMetrics.Invocation invocation;
 
     public DMRResponse(String responseText, String contentType) {
         this.responseText = responseText;
         this.contentType = contentType;
     }
 
+    public DMRResponse(ModelNode model) {
+        this.model = model;
+        this.contentType = "application/dmr-encoded";
+    }
+
+    public DMRResponse(byte[] responseBytes, String contentType) {
+        this.responseBytes = responseBytes;
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the Base64 encoded payload. Binary payloads are encoded on demand.
+     */
     public String getResponseText() {
+        if(null==responseText && responseBytes!=null)
+            responseText = Base64.encodeBytes(responseBytes);
+        else if(null==responseText && model!=null)
+            responseText = model.toBase64String();
         return responseText;
     }
+
+    /**
+     * @return the size of the payload as received
+     */
+    int size() {
+        if(responseBytes!=null)
+            return responseBytes.length;
+        return responseText!=null ? responseText.length() : 0;
+    }
+
+    /**
+     * @param invocation receives the time spent decoding this response
+     */
+    void setInvocation(InvocationMetrics.Invocation invocation) {
+        this.invocation = invocation;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isEmpty() {
+        if(model!=null)
+            return false;
+        return responseBytes!=null ? responseBytes.length==0 : responseText==null || responseText.equals("");
+    }
+
+    /**
+     * @return the decoded response
+     */
+    public ModelNode get() {
+        return get(false);
+    }
+
+    /**
+     * @param lazy defer decoding of nested values until they are accessed
+     * @return the decoded response
+     * @see ModelNode#fromBase64(String, boolean)
+     */
+    public ModelNode get(boolean lazy) {
+        if(model!=null)
+            return model.clone();
+
+        double start = invocation!=null ? Duration.currentTimeMillis() : 0;
+        ModelNode response = null==responseBytes ?
+                ModelNode.fromBase64(responseText, lazy) : ModelNode.fromBytes(responseBytes, lazy);
+
+        if(invocation!=null)
+            invocation.decoded(Duration.currentTimeMillis() - start);
+        return response;
+    }
 }
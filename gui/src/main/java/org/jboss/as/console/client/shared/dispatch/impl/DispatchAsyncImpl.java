@@ -21,24 +21,46 @@ package org.jboss.as.console.client.shared.dispatch.impl;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
+import org.jboss.as.console.client.core.UIConstants;
+import org.jboss.as.console.client.core.message.MessageCenter;
 import org.jboss.as.console.client.shared.dispatch.Action;
 import org.jboss.as.console.client.shared.dispatch.ActionHandler;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
 import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
 import org.jboss.as.console.client.shared.dispatch.HandlerMapping;
+import org.jboss.as.console.client.shared.dispatch.RequestScope;
 import org.jboss.as.console.client.shared.dispatch.Result;
+import org.jboss.dmr.client.ModelNode;
 
 /**
+ * Dispatches actions to their handlers. Configuration reads are served from
+ * the {@link ResponseCache} and any other operation evicts the cached entries it affects.
+ * Read-only DMR operations are attached to identical operations already in flight (see {@link RequestCoalescer})
+ * and operations issued within the same event loop tick are batched into a single
+ * composite operation (see {@link RequestBatcher}). All DMR operations pass the
+ * {@link RequestScheduler}, which limits the number of concurrent requests.
+ * Reads issued within a {@link RequestScope} can be cancelled along with it.
+ * Reads failing on the transport level are retried (see {@link RequestRetrier}) and
+ * background requests are suspended while the endpoint keeps failing (see {@link CircuitBreaker}).
+ *
  * @author Heiko Braun
  * @date 3/17/11
  */
 public class DispatchAsyncImpl implements DispatchAsync {
 
     HandlerMapping registry;
+    private RequestScheduler scheduler;
+    private CircuitBreaker circuitBreaker;
+    private ActionHandler<DMRAction, DMRResponse> reads;
+    private ResponseCache cache;
 
     @Inject
-    public DispatchAsyncImpl(HandlerMapping registry) {
+    public DispatchAsyncImpl(HandlerMapping registry, DMRHandler dmrHandler, MessageCenter messageCenter, UIConstants constants) {
         this.registry = registry;
+        this.circuitBreaker = new CircuitBreaker(dmrHandler, messageCenter, constants);
+        this.scheduler = new RequestScheduler(circuitBreaker);
+        this.reads = new RequestCoalescer(new RequestBatcher(new RequestRetrier(scheduler)));
+        this.cache = new ResponseCache(reads);
     }
 
     @Override
@@ -46,11 +68,55 @@ public class DispatchAsyncImpl implements DispatchAsync {
 
         ActionHandler<A,R> handler = registry.resolve(action);
         if(null==handler)
+        {
             callback.onFailure(new IllegalStateException("No handler for type "+action.getType()));
+            return null;
+        }
+
+        if(action instanceof DMRAction)
+        {
+            DMRAction dmrAction = (DMRAction) action;
+            AsyncCallback<DMRResponse> dmrCallback = (AsyncCallback<DMRResponse>) callback;
+
+            RequestScope scope = RequestScope.getActive();
+            if(null==scope)
+                return dispatch(dmrAction, dmrCallback);
+
+            // only reads are safe to abort
+            boolean cancellable = RequestBatcher.isIdempotent(dmrAction.getOperation());
+            DispatchRequest request = dispatch(dmrAction, scope.wrap(dmrCallback, cancellable));
+            if(cancellable)
+                scope.add(request);
+            return request;
+        }
 
         return handler.execute(action, callback);
     }
 
+    private DispatchRequest dispatch(DMRAction action, AsyncCallback<DMRResponse> callback) {
+        ModelNode operation = action.getOperation();
+
+        if(ResponseCache.isCacheable(operation))
+            return cache.execute(action, callback);
+        if(RequestBatcher.isBatchable(operation))
+            return reads.execute(action, callback);
+
+        cache.invalidate(operation);
+        return scheduler.execute(action, callback);
+    }
+
+    public ResponseCache getResponseCache() {
+        return cache;
+    }
+
+    public RequestScheduler getRequestScheduler() {
+        return scheduler;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
     @Override
     public <A extends Action<R>, R extends Result> DispatchRequest undo(A action, R result, AsyncCallback<Void> callback) {
         return null;
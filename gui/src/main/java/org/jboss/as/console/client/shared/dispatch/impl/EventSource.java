@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * A browser <code>EventSource</code>, used to receive server-sent events.
+ */
+final class EventSource extends JavaScriptObject {
+
+    interface Listener {
+        void onOpen();
+        void onMessage(String data);
+
+        /**
+         * @param data the payload of an event of type <code>failure</code>
+         */
+        void onFailure(String data);
+
+        /**
+         * @param closed true if the browser gave up on the connection,
+         * false if it's going to reconnect by itself
+         */
+        void onError(boolean closed);
+    }
+
+    protected EventSource() {
+    }
+
+    static native boolean isSupported() /*-{
+        return typeof $wnd.EventSource != 'undefined';
+    }-*/;
+
+    static native EventSource open(String url, Listener listener) /*-{
+        var source = new $wnd.EventSource(url);
+        source.onopen = $entry(function() {
+            listener.@org.jboss.as.console.client.shared.dispatch.impl.EventSource.Listener::onOpen()();
+        });
+        source.onmessage = $entry(function(event) {
+            listener.@org.jboss.as.console.client.shared.dispatch.impl.EventSource.Listener::onMessage(Ljava/lang/String;)(event.data);
+        });
+        source.addEventListener('failure', $entry(function(event) {
+            listener.@org.jboss.as.console.client.shared.dispatch.impl.EventSource.Listener::onFailure(Ljava/lang/String;)(event.data);
+        }), false);
+        source.onerror = $entry(function() {
+            listener.@org.jboss.as.console.client.shared.dispatch.impl.EventSource.Listener::onError(Z)(source.readyState == 2);
+        });
+        return source;
+    }-*/;
+
+    native void close() /*-{
+        this.onopen = this.onmessage = this.onerror = null;
+        this.close();
+    }-*/;
+}
@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.http.client.URL;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import org.jboss.as.console.client.core.BootstrapContext;
+import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
+import org.jboss.dmr.client.ModelDiff;
+import org.jboss.dmr.client.ModelNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.OP;
+
+/**
+ * Notifies listeners when the result of a read-only operation changes.<p/>
+ *
+ * All subscriptions share a single server-sent event stream, opened against the push endpoint
+ * of the proxy web application. The proxy polls each operation once for all clients and
+ * only sends responses that did change. When the endpoint isn't available (i.e. when the console
+ * is served by the application server itself), the operations are polled through the dispatcher instead.
+ * An operation the proxy fails to poll is read through the dispatcher as well, which reports the error.<p/>
+ *
+ * Listeners receive the full response, along with the differences to the previous one.
+ */
+public class PushChannel {
+
+    public interface Listener {
+        void onChange(ModelNode response, ModelDiff changes);
+    }
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final int POLL_INTERVAL = 5000;
+
+    private final DispatchAsync dispatcher;
+    private final String pushApi;
+
+    private final Map<String, Topic> topics = new LinkedHashMap<String, Topic>();
+    private EventSource source;
+    private boolean fallback;
+    private boolean connectPending;
+    private Scheduler.RepeatingCommand pollCmd;
+
+    @Inject
+    public PushChannel(DispatchAsync dispatcher, BootstrapContext bootstrap) {
+        this.dispatcher = dispatcher;
+        this.pushApi = bootstrap.getProperty(BootstrapContext.PUSH_API);
+        this.fallback = !EventSource.isSupported();
+    }
+
+    /**
+     * Subscribe to the results of a read-only operation.
+     * If the operation is already being watched, the listener receives the current result right away.
+     */
+    public Subscription subscribe(ModelNode operation, final Listener listener) {
+
+        final Topic topic = getOrCreateTopic(operation);
+        topic.listeners.add(listener);
+
+        if(topic.last!=null)
+            listener.onChange(topic.last, ModelDiff.compute(new ModelNode(), topic.last));
+
+        return new Subscription() {
+            @Override
+            public void cancel() {
+                topic.listeners.remove(listener);
+                if(topic.listeners.isEmpty() && topics.get(topic.key)==topic)
+                {
+                    topics.remove(topic.key);
+                    scheduleConnect();
+                }
+            }
+        };
+    }
+
+    private Topic getOrCreateTopic(ModelNode operation) {
+        String key = operation.toBase64String();
+        Topic topic = topics.get(key);
+        if(null==topic)
+        {
+            topic = new Topic(key, operation);
+            topics.put(key, topic);
+            scheduleConnect();
+        }
+        return topic;
+    }
+
+    /**
+     * Subscriptions change in bursts when a presenter is revealed or hidden.
+     * Re-open the stream once for all of them.
+     */
+    private void scheduleConnect() {
+        if(connectPending)
+            return;
+
+        connectPending = true;
+        Scheduler.get().scheduleFinally(new Scheduler.ScheduledCommand() {
+            @Override
+            public void execute() {
+                connectPending = false;
+                connect();
+            }
+        });
+    }
+
+    private void connect() {
+
+        if(source!=null)
+        {
+            source.close();
+            source = null;
+        }
+
+        final List<Topic> streamed = new ArrayList<Topic>(topics.values());
+        if(streamed.isEmpty())
+        {
+            pollCmd = null;
+            return;
+        }
+
+        if(fallback)
+        {
+            poll();
+            beginPolling();
+            return;
+        }
+
+        StringBuilder url = new StringBuilder(pushApi);
+        char separator = '?';
+        for(Topic topic : streamed)
+        {
+            url.append(separator).append("op=").append(URL.encodeQueryString(topic.key));
+            separator = '&';
+        }
+
+        source = EventSource.open(url.toString(), new EventSource.Listener() {
+
+            private boolean opened = false;
+
+            @Override
+            public void onOpen() {
+                opened = true;
+            }
+
+            @Override
+            public void onMessage(String data) {
+                int separator = data.indexOf(':');
+                int index = Integer.parseInt(data.substring(0, separator));
+                if(index < streamed.size())
+                    streamed.get(index).update(ModelNode.fromBase64(data.substring(separator + 1)));
+            }
+
+            @Override
+            public void onFailure(String data) {
+                int separator = data.indexOf(':');
+                int index = Integer.parseInt(data.substring(0, separator));
+                if(index < streamed.size())
+                {
+                    Topic topic = streamed.get(index);
+                    Log.warn("Push channel failed to poll " + topic.operation.get(OP).asString()
+                            + ": " + data.substring(separator + 1));
+                    poll(topic);
+                }
+            }
+
+            @Override
+            public void onError(boolean closed) {
+                if(!opened)
+                {
+                    Log.info("Push channel not available, falling back to polling");
+                    fallback = true;
+                    connect();
+                }
+                else if(closed)
+                {
+                    scheduleConnect();
+                }
+            }
+        });
+    }
+
+    private void beginPolling() {
+        if(pollCmd!=null)
+            return;
+
+        pollCmd = new Scheduler.RepeatingCommand() {
+            @Override
+            public boolean execute() {
+                if(this!=pollCmd)
+                    return false;
+
+                poll();
+                return true;
+            }
+        };
+
+        Scheduler.get().scheduleFixedDelay(pollCmd, POLL_INTERVAL);
+    }
+
+    private void poll() {
+        for(Topic topic : topics.values())
+            poll(topic);
+    }
+
+    private void poll(final Topic topic) {
+        dispatcher.execute(new DMRAction(topic.operation, DMRAction.Priority.BACKGROUND), new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                Log.error("Failed to poll " + topic.operation.get(OP).asString(), caught);
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                topic.update(result.get());
+            }
+        });
+    }
+
+    private final class Topic {
+        final String key;
+        final ModelNode operation;
+        final List<Listener> listeners = new ArrayList<Listener>();
+        ModelNode last;
+
+        Topic(String key, ModelNode operation) {
+            this.key = key;
+            this.operation = operation;
+        }
+
+        void update(ModelNode response) {
+
+            // cancelled while the response was on its way
+            if(topics.get(key)!=this)
+                return;
+
+            ModelDiff changes = ModelDiff.compute(last!=null ? last : new ModelNode(), response);
+            if(last!=null && changes.isEmpty())
+                return;
+
+            last = response;
+            for(Listener listener : new ArrayList<Listener>(listeners))
+                listener.onChange(response, changes);
+        }
+    }
+}
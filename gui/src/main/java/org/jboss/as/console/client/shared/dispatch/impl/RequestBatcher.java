@@ -0,0 +1,270 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.dmr.client.ModelNode;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Collects read-only operations issued within the same event loop tick
+ * and executes them as a single composite operation.<p/>
+ *
+ * Each step result is handed to the callback of the originating action, including the
+ * result of a failed step. Only actions without a result of their own (i.e. the composite was
+ * rejected as a whole, or the step was rolled back because another one failed) are executed one by one.
+ */
+class RequestBatcher implements ActionHandler<DMRAction, DMRResponse> {
+
+    private static final Set<String> READ_ONLY = new HashSet<String>();
+
+    static {
+        READ_ONLY.add(READ_RESOURCE_OPERATION);
+        READ_ONLY.add(READ_ATTRIBUTE_OPERATION);
+        READ_ONLY.add(READ_CHILDREN_NAMES_OPERATION);
+        READ_ONLY.add(READ_CHILDREN_TYPES_OPERATION);
+        READ_ONLY.add(READ_CHILDREN_RESOURCES_OPERATION);
+        READ_ONLY.add(READ_RESOURCE_DESCRIPTION_OPERATION);
+        READ_ONLY.add(READ_OPERATION_NAMES_OPERATION);
+        READ_ONLY.add(READ_OPERATION_DESCRIPTION_OPERATION);
+        READ_ONLY.add(READ_RESOURCE_METRICS);
+    }
+
+    private final ActionHandler<DMRAction, DMRResponse> handler;
+    private List<BatchedRequest> pending = new ArrayList<BatchedRequest>();
+
+    private final Scheduler.ScheduledCommand flushCmd = new Scheduler.ScheduledCommand() {
+        @Override
+        public void execute() {
+            flush();
+        }
+    };
+
+    RequestBatcher(ActionHandler<DMRAction, DMRResponse> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Only plain read operations are batched. Operations carrying their own
+     * headers would change semantics within a composite.
+     */
+    static boolean isBatchable(ModelNode operation) {
+        return isReadOnly(operation) && !operation.has("operation-headers");
+    }
+
+    static boolean isReadOnly(ModelNode operation) {
+        return operation.hasDefined(OP) && READ_ONLY.contains(operation.get(OP).asString());
+    }
+
+    /**
+     * @return true for read-only operations and composites made of read-only steps
+     */
+    static boolean isIdempotent(ModelNode operation) {
+        if(isReadOnly(operation))
+            return true;
+
+        if(!operation.hasDefined(OP) || !COMPOSITE.equals(operation.get(OP).asString()) || !operation.hasDefined(STEPS))
+            return false;
+
+        for(ModelNode step : operation.get(STEPS).asList())
+        {
+            if(!isIdempotent(step))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+        BatchedRequest request = new BatchedRequest(action, callback);
+        pending.add(request);
+        if(pending.size()==1)
+            Scheduler.get().scheduleFinally(flushCmd);
+        return request;
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    private void flush() {
+        List<BatchedRequest> batch = new ArrayList<BatchedRequest>(pending.size());
+        for(BatchedRequest request : pending)
+        {
+            if(!request.cancelled)
+                batch.add(request);
+        }
+        pending = new ArrayList<BatchedRequest>();
+
+        if(batch.isEmpty())
+            return;
+
+        if(batch.size()==1)
+        {
+            batch.get(0).executeSingle();
+            return;
+        }
+
+        executeComposite(batch);
+    }
+
+    private void executeComposite(final List<BatchedRequest> batch) {
+
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+
+        // the composite is scheduled like its most urgent step
+        DMRAction.Priority priority = DMRAction.Priority.BACKGROUND;
+        List<ModelNode> steps = new ArrayList<ModelNode>(batch.size());
+        for(BatchedRequest request : batch)
+        {
+            steps.add(request.action.getOperation());
+            if(request.action.getPriority().compareTo(priority) < 0)
+                priority = request.action.getPriority();
+        }
+
+        composite.get(STEPS).set(steps);
+
+        handler.execute(new DMRAction(composite, priority), new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onSuccess(DMRResponse result) {
+                ModelNode response = result.get(true);
+                ModelNode stepResults = response.hasDefined(RESULT) ? response.get(RESULT) : new ModelNode();
+
+                for(int i=0; i<batch.size(); i++)
+                {
+                    BatchedRequest request = batch.get(i);
+                    String step = "step-" + (i + 1);
+
+                    if(isExecuted(stepResults, step))
+                        request.succeed(new DMRResponse(stepResults.get(step)));
+                    else
+                        request.executeSingle();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                // executing the operations one by one would only add to the load of an unresponsive endpoint
+                if(DMRHandler.isTransportFailure(caught) || caught instanceof CircuitBreaker.SuspendedException)
+                {
+                    for(BatchedRequest request : batch)
+                        request.fail(caught);
+                    return;
+                }
+
+                Log.debug("Batch of " + batch.size() + " failed, executing operations individually");
+                for(BatchedRequest request : batch)
+                    request.executeSingle();
+            }
+        });
+    }
+
+    /**
+     * A step that has only been rolled back because another step failed
+     * doesn't carry a failure description of its own and needs to be executed again.
+     *
+     * @return true if the step has a result of its own, successful or not
+     */
+    private static boolean isExecuted(ModelNode stepResults, String step) {
+        if(!stepResults.hasDefined(step) || !stepResults.get(step).hasDefined(OUTCOME))
+            return false;
+
+        ModelNode stepResult = stepResults.get(step);
+        String outcome = stepResult.get(OUTCOME).asString();
+        return SUCCESS.equals(outcome)
+                || (FAILED.equals(outcome) && stepResult.hasDefined(FAILURE_DESCRIPTION));
+    }
+
+    class BatchedRequest implements DispatchRequest {
+
+        private final DMRAction action;
+        private final AsyncCallback<DMRResponse> callback;
+        private DispatchRequest delegate;
+        private boolean cancelled = false;
+        private boolean done = false;
+
+        BatchedRequest(DMRAction action, AsyncCallback<DMRResponse> callback) {
+            this.action = action;
+            this.callback = callback;
+        }
+
+        void executeSingle() {
+            if(cancelled) return;
+
+            delegate = handler.execute(action, new AsyncCallback<DMRResponse>() {
+                @Override
+                public void onFailure(Throwable caught) {
+                    fail(caught);
+                }
+
+                @Override
+                public void onSuccess(DMRResponse result) {
+                    succeed(result);
+                }
+            });
+        }
+
+        void succeed(DMRResponse response) {
+            if(cancelled || done) return;
+            done = true;
+            try {
+                callback.onSuccess(response);
+            } catch (Throwable e) {
+                // don't prevent delivery to the other steps of a batch
+                Log.error("Failed to process response", e);
+            }
+        }
+
+        void fail(Throwable caught) {
+            if(cancelled || done) return;
+            done = true;
+            try {
+                callback.onFailure(caught);
+            } catch (Throwable e) {
+                Log.error("Failed to process failure", e);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if(delegate!=null)
+                delegate.cancel();
+        }
+
+        @Override
+        public boolean isPending() {
+            return !cancelled && !done;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.http.client.RequestTimeoutException;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.dmr.client.ModelNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attaches read operations to an identical operation that is already in flight,
+ * instead of sending a duplicate. All callers receive the same response.<p/>
+ *
+ * A request never joins an operation of lower priority: it would inherit its scheduling,
+ * i.e. a navigation read joining a background poll could be superseded or suspended.
+ * Instead it starts a new request, which later requests of the same operation join.<p/>
+ *
+ * Entries are released when the delegate invokes the callback, which handlers further
+ * down guarantee for every request that isn't cancelled. As a safety net, an entry whose
+ * request is no longer pending or exceeded {@link #MAX_AGE} is evicted when an identical
+ * operation is dispatched: its subscribers fail and the operation is sent again.
+ */
+class RequestCoalescer implements ActionHandler<DMRAction, DMRResponse> {
+
+    /**
+     * Exceeds the timeouts and backoff delays of all attempts of a request
+     */
+    static final int MAX_AGE = RequestRetrier.MAX_ATTEMPTS * (DMRHandler.CHANGE_TIMEOUT + RequestRetrier.MAX_DELAY);
+
+    private final ActionHandler<DMRAction, DMRResponse> delegate;
+    private final Map<ModelNode, InFlight> inFlight = new HashMap<ModelNode, InFlight>();
+
+    RequestCoalescer(ActionHandler<DMRAction, DMRResponse> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+
+        // protected keys memoize their hash code
+        ModelNode key = action.getOperation().clone();
+        key.protect();
+
+        InFlight pending = inFlight.get(key);
+        if(pending!=null && pending.isStale())
+        {
+            pending.evict();
+            pending = null;
+        }
+
+        // the earlier request keeps serving its own subscribers
+        if(pending!=null && action.getPriority().compareTo(pending.priority) < 0)
+            pending = null;
+
+        if(null==pending)
+        {
+            pending = new InFlight(key, action.getPriority());
+            inFlight.put(key, pending);
+            Subscriber subscriber = pending.subscribe(callback);
+            pending.start(action);
+            return subscriber;
+        }
+
+        return pending.subscribe(callback);
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    /**
+     * @return the number of distinct operations in flight
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+    class InFlight implements AsyncCallback<DMRResponse> {
+
+        private final ModelNode key;
+        private final DMRAction.Priority priority;
+        private final List<Subscriber> subscribers = new ArrayList<Subscriber>(2);
+        private DispatchRequest request;
+        private boolean completed = false;
+        private final double startedAt = Duration.currentTimeMillis();
+
+        InFlight(ModelNode key, DMRAction.Priority priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+
+        void start(DMRAction action) {
+            request = delegate.execute(action, this);
+        }
+
+        Subscriber subscribe(AsyncCallback<DMRResponse> callback) {
+            Subscriber subscriber = new Subscriber(this, callback);
+            subscribers.add(subscriber);
+            return subscriber;
+        }
+
+        void unsubscribe(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+            if(subscribers.isEmpty() && !completed)
+            {
+                complete();
+                if(request!=null)
+                    request.cancel();
+            }
+        }
+
+        private List<Subscriber> complete() {
+            completed = true;
+            if(inFlight.get(key)==this)
+                inFlight.remove(key);
+            return new ArrayList<Subscriber>(subscribers);
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            for(Subscriber subscriber : complete())
+                subscriber.succeed(result);
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            for(Subscriber subscriber : complete())
+                subscriber.fail(caught);
+        }
+
+        boolean isPending() {
+            return !completed && (null==request || request.isPending());
+        }
+
+        /**
+         * @return true if the callback is unlikely to be invoked anymore
+         */
+        boolean isStale() {
+            return !isPending() || Duration.currentTimeMillis() - startedAt > MAX_AGE;
+        }
+
+        void evict() {
+            List<Subscriber> stale = complete();
+            if(request!=null)
+                request.cancel();
+            for(Subscriber subscriber : stale)
+                subscriber.fail(new RequestTimeoutException(null, MAX_AGE));
+        }
+    }
+
+    class Subscriber implements DispatchRequest {
+
+        private final InFlight inFlight;
+        private final AsyncCallback<DMRResponse> callback;
+        private boolean active = true;
+
+        Subscriber(InFlight inFlight, AsyncCallback<DMRResponse> callback) {
+            this.inFlight = inFlight;
+            this.callback = callback;
+        }
+
+        void succeed(DMRResponse result) {
+            if(!active) return;
+            active = false;
+            callback.onSuccess(result);
+        }
+
+        void fail(Throwable caught) {
+            if(!active) return;
+            active = false;
+            callback.onFailure(caught);
+        }
+
+        @Override
+        public void cancel() {
+            if(!active) return;
+            active = false;
+            inFlight.unsubscribe(this);
+        }
+
+        @Override
+        public boolean isPending() {
+            return active && inFlight.isPending();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+
+/**
+ * Retries read-only operations that failed on the transport level (see
+ * {@link DMRHandler#isTransportFailure(Throwable)}).<p/>
+ *
+ * The delay grows exponentially with each attempt. A random part is added, so
+ * that requests which failed together don't hit the endpoint at the same time again.
+ * Operations that change the model are never retried.
+ */
+class RequestRetrier implements ActionHandler<DMRAction, DMRResponse> {
+
+    static final int MAX_ATTEMPTS = 3;
+    private static final int BASE_DELAY = 500;
+    static final int MAX_DELAY = 8000;
+
+    private final ActionHandler<DMRAction, DMRResponse> delegate;
+
+    RequestRetrier(ActionHandler<DMRAction, DMRResponse> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+        RetriedRequest request = new RetriedRequest(action, callback);
+        request.attempt();
+        return request;
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    /**
+     * @return the delay before the given retry: at least half of the exponential backoff, at most all of it
+     */
+    static int backoff(int retry) {
+        int ceiling = Math.min(MAX_DELAY, BASE_DELAY << Math.min(retry - 1, 16));
+        return ceiling / 2 + (int) (Math.random() * (ceiling / 2));
+    }
+
+    class RetriedRequest implements DispatchRequest, AsyncCallback<DMRResponse> {
+
+        private final DMRAction action;
+        private final AsyncCallback<DMRResponse> callback;
+        private DispatchRequest current;
+        private int attempts = 0;
+        private boolean cancelled = false;
+        private boolean done = false;
+
+        RetriedRequest(DMRAction action, AsyncCallback<DMRResponse> callback) {
+            this.action = action;
+            this.callback = callback;
+        }
+
+        void attempt() {
+            if(cancelled) return;
+            attempts++;
+            current = delegate.execute(action, this);
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            if(cancelled || done) return;
+            done = true;
+            callback.onSuccess(result);
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            if(cancelled || done) return;
+
+            boolean retry = attempts < MAX_ATTEMPTS
+                    && DMRHandler.isTransportFailure(caught)
+                    && RequestBatcher.isIdempotent(action.getOperation());
+
+            if(!retry)
+            {
+                done = true;
+                callback.onFailure(caught);
+                return;
+            }
+
+            int delay = backoff(attempts);
+            Log.debug("Retry " + attempts + " in " + delay + "ms: " + caught.getMessage());
+
+            current = null;
+            Scheduler.get().scheduleFixedDelay(new Scheduler.RepeatingCommand() {
+                @Override
+                public boolean execute() {
+                    attempt();
+                    return false;
+                }
+            }, delay);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if(current!=null)
+                current.cancel();
+        }
+
+        @Override
+        public boolean isPending() {
+            return !cancelled && !done;
+        }
+    }
+}
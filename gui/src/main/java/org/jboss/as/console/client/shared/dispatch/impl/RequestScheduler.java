@@ -0,0 +1,276 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Limits the number of requests in flight and sends queued requests by priority.<p/>
+ *
+ * Browsers cap the number of concurrent connections per origin, so without a limit
+ * background polling competes with user initiated requests. A queued background request
+ * is superseded when an identical one is queued after it: its callback is invoked with the
+ * outcome of the later request.
+ */
+public class RequestScheduler implements ActionHandler<DMRAction, DMRResponse> {
+
+    private static final int DEFAULT_MAX_CONCURRENT = 4;
+
+    /**
+     * Requests that never report back (i.e. aborted by the browser) are detected at this interval
+     */
+    private static final int REAP_INTERVAL = 1000;
+
+    private final ActionHandler<DMRAction, DMRResponse> delegate;
+
+    private final List<LinkedList<ScheduledRequest>> queues = new ArrayList<LinkedList<ScheduledRequest>>();
+    private final List<ScheduledRequest> inFlight = new ArrayList<ScheduledRequest>();
+
+    private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+    private boolean reaping = false;
+
+    RequestScheduler(ActionHandler<DMRAction, DMRResponse> delegate) {
+        this.delegate = delegate;
+        for(int i=0; i<DMRAction.Priority.values().length; i++)
+            queues.add(new LinkedList<ScheduledRequest>());
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+
+        ScheduledRequest request = new ScheduledRequest(action, callback);
+        LinkedList<ScheduledRequest> queue = queues.get(action.getPriority().ordinal());
+
+        if(DMRAction.Priority.BACKGROUND == action.getPriority())
+            supersede(queue, request);
+
+        queue.add(request);
+        drain();
+        return request;
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    private static void supersede(LinkedList<ScheduledRequest> queue, ScheduledRequest request) {
+        Iterator<ScheduledRequest> iterator = queue.iterator();
+        while(iterator.hasNext())
+        {
+            ScheduledRequest queued = iterator.next();
+            if(queued.action.getOperation().equals(request.action.getOperation()))
+            {
+                iterator.remove();
+                queued.state = State.SUPERSEDED;
+                request.followers.add(queued);
+                request.followers.addAll(queued.followers);
+                queued.followers.clear();
+            }
+        }
+    }
+
+    private void drain() {
+        reap();
+
+        while(inFlight.size() < maxConcurrent)
+        {
+            ScheduledRequest next = poll();
+            if(null==next) break;
+
+            inFlight.add(next);
+            next.send();
+        }
+
+        if(!reaping && !isIdle())
+        {
+            reaping = true;
+            Scheduler.get().scheduleFixedDelay(new Scheduler.RepeatingCommand() {
+                @Override
+                public boolean execute() {
+                    drain();
+                    reaping = !isIdle();
+                    return reaping;
+                }
+            }, REAP_INTERVAL);
+        }
+    }
+
+    private boolean isIdle() {
+        if(!inFlight.isEmpty())
+            return false;
+        for(LinkedList<ScheduledRequest> queue : queues)
+            if(!queue.isEmpty()) return false;
+        return true;
+    }
+
+    private ScheduledRequest poll() {
+        for(LinkedList<ScheduledRequest> queue : queues)
+        {
+            if(!queue.isEmpty())
+                return queue.removeFirst();
+        }
+        return null;
+    }
+
+    /**
+     * Release the slots of requests that finished without invoking their callback
+     */
+    private void reap() {
+        Iterator<ScheduledRequest> iterator = inFlight.iterator();
+        while(iterator.hasNext())
+        {
+            ScheduledRequest request = iterator.next();
+            if(request.state != State.SENT || (request.delegate!=null && !request.delegate.isPending()))
+            {
+                iterator.remove();
+                if(request.state == State.SENT)
+                    request.state = State.DONE;
+            }
+        }
+    }
+
+    private void release(ScheduledRequest request) {
+        inFlight.remove(request);
+        drain();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @param maxConcurrent the maximum number of requests in flight
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        if(maxConcurrent < 1)
+            throw new IllegalArgumentException("At least one concurrent request is required");
+        this.maxConcurrent = maxConcurrent;
+        drain();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    enum State { QUEUED, SUPERSEDED, SENT, DONE, DROPPED }
+
+    class ScheduledRequest implements DispatchRequest, AsyncCallback<DMRResponse> {
+
+        private final DMRAction action;
+        private final AsyncCallback<DMRResponse> callback;
+        private DispatchRequest delegate;
+        private State state = State.QUEUED;
+
+        // superseded requests waiting for the outcome of this one
+        private final List<ScheduledRequest> followers = new ArrayList<ScheduledRequest>(0);
+
+        ScheduledRequest(DMRAction action, AsyncCallback<DMRResponse> callback) {
+            this.action = action;
+            this.callback = callback;
+        }
+
+        void send() {
+            state = State.SENT;
+            delegate = RequestScheduler.this.delegate.execute(action, this);
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            if(state != State.SENT) return;
+            state = State.DONE;
+            release(this);
+            callback.onSuccess(result);
+
+            for(ScheduledRequest follower : detachFollowers())
+            {
+                follower.state = State.DONE;
+                follower.callback.onSuccess(result);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            if(state != State.SENT) return;
+            state = State.DONE;
+            release(this);
+            callback.onFailure(caught);
+
+            for(ScheduledRequest follower : detachFollowers())
+            {
+                follower.state = State.DONE;
+                follower.callback.onFailure(caught);
+            }
+        }
+
+        /**
+         * @return the followers that haven't been cancelled in the meantime
+         */
+        private List<ScheduledRequest> detachFollowers() {
+            List<ScheduledRequest> waiting = new ArrayList<ScheduledRequest>(followers.size());
+            for(ScheduledRequest follower : followers)
+                if(follower.state == State.SUPERSEDED) waiting.add(follower);
+            followers.clear();
+            return waiting;
+        }
+
+        /**
+         * The first waiting follower is queued again and takes over the others
+         */
+        private void handOver() {
+            List<ScheduledRequest> waiting = detachFollowers();
+            if(waiting.isEmpty()) return;
+
+            ScheduledRequest successor = waiting.remove(0);
+            successor.state = State.QUEUED;
+            successor.followers.addAll(waiting);
+            queues.get(successor.action.getPriority().ordinal()).add(successor);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if(state == State.QUEUED)
+            {
+                queues.get(action.getPriority().ordinal()).remove(this);
+            }
+            else if(state == State.SENT)
+            {
+                if(delegate!=null) delegate.cancel();
+                release(this);
+            }
+            state = State.DROPPED;
+            handOver();
+        }
+
+        @Override
+        public boolean isPending() {
+            return state == State.QUEUED || state == State.SUPERSEDED || state == State.SENT;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+import org.jboss.dmr.client.Property;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Caches the results of configuration reads for a limited time.<p/>
+ *
+ * Entries are keyed by operation. Any other operation passing through the dispatcher
+ * evicts the entries whose address overlaps its own address, i.e. where one is a prefix
+ * of the other. Lifecycle operations (starting, stopping or reloading servers and hosts)
+ * evict all entries.<p/>
+ *
+ * Runtime state is never cached: reads that include runtime attributes or metrics,
+ * and reads of running servers or their names.
+ */
+public class ResponseCache implements ActionHandler<DMRAction, DMRResponse> {
+
+    private static final int DEFAULT_TTL = 30 * 1000;
+    private static final int MAX_ENTRIES = 256;
+
+    private static final Set<String> CACHEABLE = new HashSet<String>();
+
+    static {
+        CACHEABLE.add(READ_RESOURCE_OPERATION);
+        CACHEABLE.add(READ_CHILDREN_NAMES_OPERATION);
+        CACHEABLE.add(READ_CHILDREN_TYPES_OPERATION);
+        CACHEABLE.add(READ_CHILDREN_RESOURCES_OPERATION);
+        CACHEABLE.add(READ_RESOURCE_DESCRIPTION_OPERATION);
+    }
+
+    private static final Set<String> LIFECYCLE = new HashSet<String>();
+
+    static {
+        LIFECYCLE.add(START);
+        LIFECYCLE.add("stop");
+        LIFECYCLE.add("restart");
+        LIFECYCLE.add("reload");
+        LIFECYCLE.add(SHUTDOWN);
+        LIFECYCLE.add("start-servers");
+        LIFECYCLE.add("stop-servers");
+        LIFECYCLE.add("restart-servers");
+    }
+
+    private final ActionHandler<DMRAction, DMRResponse> delegate;
+
+    // access ordered, the eldest entry is evicted first
+    private final LinkedHashMap<ModelNode, Entry> entries = new LinkedHashMap<ModelNode, Entry>(16, 0.75f, true);
+
+    private int timeToLive = DEFAULT_TTL;
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * Incremented on every invalidation. Responses to reads that were issued
+     * before an invalidation are not cached, they may already be stale.
+     */
+    private int generation = 0;
+
+    ResponseCache(ActionHandler<DMRAction, DMRResponse> delegate) {
+        this.delegate = delegate;
+    }
+
+    static boolean isCacheable(ModelNode operation) {
+        return RequestBatcher.isBatchable(operation)
+                && CACHEABLE.contains(operation.get(OP).asString())
+                && !(operation.hasDefined(INCLUDE_RUNTIME) && operation.get(INCLUDE_RUNTIME).asBoolean())
+                && !isRuntime(operation);
+    }
+
+    /**
+     * @return true if the operation reads running servers, i.e. their status or the names of those running
+     */
+    private static boolean isRuntime(ModelNode operation) {
+        for(String segment : addressOf(operation))
+        {
+            if(segment.startsWith(RUNNING_SERVER + "="))
+                return true;
+        }
+        return operation.hasDefined(CHILD_TYPE) && RUNNING_SERVER.equals(operation.get(CHILD_TYPE).asString());
+    }
+
+    private static boolean isLifecycle(ModelNode operation) {
+        if(!operation.hasDefined(OP))
+            return false;
+
+        String name = operation.get(OP).asString();
+        if(COMPOSITE.equals(name) && operation.hasDefined(STEPS))
+        {
+            for(ModelNode step : operation.get(STEPS).asList())
+            {
+                if(isLifecycle(step))
+                    return true;
+            }
+            return false;
+        }
+        return LIFECYCLE.contains(name);
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, final AsyncCallback<DMRResponse> callback) {
+
+        final ModelNode key = action.getOperation().clone();
+        key.protect();
+
+        Entry entry = entries.get(key);
+        if(entry!=null && entry.expires > System.currentTimeMillis())
+        {
+            hits++;
+            return new CachedRequest(entry.response, callback);
+        }
+
+        if(entry!=null)
+            entries.remove(key);
+
+        misses++;
+
+        final int issuedAt = generation;
+        return delegate.execute(action, new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onSuccess(DMRResponse result) {
+                if(issuedAt==generation)
+                    put(key, result);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Throwable caught) {
+                callback.onFailure(caught);
+            }
+        });
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Not implemented yet.");
+    }
+
+    private void put(ModelNode key, DMRResponse response) {
+        entries.put(key, new Entry(response, addressOf(key), System.currentTimeMillis() + timeToLive));
+        if(entries.size() > MAX_ENTRIES)
+        {
+            Iterator<ModelNode> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Evict all entries affected by the given operation. Composite operations
+     * evict the entries affected by each of their steps, read-only steps are ignored.
+     * Lifecycle operations evict all entries.
+     */
+    void invalidate(ModelNode operation) {
+
+        // the state of other resources may change as well, i.e. the configuration is reloaded
+        if(isLifecycle(operation))
+        {
+            clear();
+            return;
+        }
+
+        List<List<String>> addresses = new ArrayList<List<String>>();
+        collectAddresses(operation, addresses);
+
+        if(addresses.isEmpty())
+            return;
+
+        generation++;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(iterator.hasNext())
+        {
+            List<String> cached = iterator.next().address;
+            for(List<String> address : addresses)
+            {
+                if(overlaps(cached, address))
+                {
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void collectAddresses(ModelNode operation, List<List<String>> addresses) {
+        if(operation.hasDefined(OP) && COMPOSITE.equals(operation.get(OP).asString()) && operation.hasDefined(STEPS))
+        {
+            for(ModelNode step : operation.get(STEPS).asList())
+                collectAddresses(step, addresses);
+        }
+        else if(!RequestBatcher.isReadOnly(operation))
+        {
+            addresses.add(addressOf(operation));
+        }
+    }
+
+    /**
+     * @return the address as a list of "type=name" segments
+     */
+    private static List<String> addressOf(ModelNode operation) {
+        List<String> segments = new ArrayList<String>();
+        if(operation.hasDefined(ADDRESS))
+        {
+            for(ModelNode segment : operation.get(ADDRESS).asList())
+            {
+                if(segment.getType() == ModelType.PROPERTY)
+                {
+                    Property property = segment.asProperty();
+                    segments.add(property.getName() + "=" + property.getValue().asString());
+                }
+                else
+                {
+                    segments.add(segment.asString());
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static boolean overlaps(List<String> a, List<String> b) {
+        int length = Math.min(a.size(), b.size());
+        for(int i=0; i<length; i++)
+        {
+            String x = a.get(i);
+            String y = b.get(i);
+            if(!x.equals(y) && !x.endsWith("=*") && !y.endsWith("=*"))
+                return false;
+        }
+        return true;
+    }
+
+    public void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param timeToLive the time in milliseconds a response is served from the cache
+     */
+    public void setTimeToLive(int timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        final DMRResponse response;
+        final List<String> address;
+        final long expires;
+
+        Entry(DMRResponse response, List<String> address, long expires) {
+            this.response = response;
+            this.address = address;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Cached responses are delivered asynchronously as well,
+     * callers may rely on the callback not being invoked before execute() returns.
+     */
+    static class CachedRequest implements DispatchRequest, Scheduler.ScheduledCommand {
+        private final DMRResponse response;
+        private final AsyncCallback<DMRResponse> callback;
+        private boolean pending = true;
+
+        CachedRequest(DMRResponse response, AsyncCallback<DMRResponse> callback) {
+            this.response = response;
+            this.callback = callback;
+            Scheduler.get().scheduleFinally(this);
+        }
+
+        @Override
+        public void execute() {
+            if(pending)
+            {
+                pending = false;
+                callback.onSuccess(response);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            pending = false;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending;
+        }
+    }
+}
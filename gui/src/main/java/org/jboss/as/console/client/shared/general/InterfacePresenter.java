@@ -140,7 +140,7 @@ public class InterfacePresenter extends Presenter<InterfacePresenter.MyView, Int
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 System.out.println(result);
             }
         });
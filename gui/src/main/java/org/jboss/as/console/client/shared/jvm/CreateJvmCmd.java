@@ -66,7 +66,7 @@ public class CreateJvmCmd extends AddressableModelCmd implements AsyncCommand<Bo
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean success = response.get(OUTCOME).asString().equals(SUCCESS);
 
                 if(success)
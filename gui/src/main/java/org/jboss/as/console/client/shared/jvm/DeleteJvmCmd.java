@@ -55,7 +55,7 @@ public class DeleteJvmCmd extends AddressableModelCmd implements AsyncCommand<Bo
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean success = response.get(OUTCOME).asString().equals(SUCCESS);
 
                 if(success)
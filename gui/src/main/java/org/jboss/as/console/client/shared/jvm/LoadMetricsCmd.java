@@ -9,6 +9,7 @@ import org.jboss.as.console.client.shared.dispatch.AsyncCommand;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
 import org.jboss.as.console.client.shared.dispatch.impl.DMRAction;
 import org.jboss.as.console.client.shared.dispatch.impl.DMRResponse;
+import org.jboss.as.console.client.shared.dispatch.impl.PushChannel;
 import org.jboss.as.console.client.shared.jvm.model.CompositeVMMetric;
 import org.jboss.as.console.client.shared.jvm.model.HeapMetric;
 import org.jboss.as.console.client.shared.jvm.model.OSMetric;
@@ -17,7 +18,9 @@ import org.jboss.as.console.client.shared.jvm.model.ThreadMetric;
 import org.jboss.as.console.client.shared.model.ModelAdapter;
 import org.jboss.as.console.client.widgets.forms.EntityAdapter;
 import org.jboss.as.console.client.widgets.forms.ApplicationMetaData;
+import org.jboss.dmr.client.ModelDiff;
 import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelPath;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +33,13 @@ import static org.jboss.dmr.client.ModelDescriptionConstants.*;
  */
 public class LoadMetricsCmd extends AddressableModelCmd implements AsyncCommand<CompositeVMMetric> {
 
+    private static final ModelPath MEMORY = ModelPath.of(RESULT, "step-1", RESULT);
+    private static final ModelPath HEAP = ModelPath.of("heap-memory-usage");
+    private static final ModelPath NON_HEAP = ModelPath.of("non-heap-memory-usage");
+    private static final ModelPath THREADS = ModelPath.of(RESULT, "step-2", RESULT);
+    private static final ModelPath RUNTIME = ModelPath.of(RESULT, "step-3", RESULT);
+    private static final ModelPath OS = ModelPath.of(RESULT, "step-4", RESULT);
+
     private EntityAdapter<HeapMetric> heapMetricAdapter;
     private EntityAdapter<ThreadMetric> threadMetricAdapter;
     private EntityAdapter<RuntimeMetric> runtimeAdapter;
@@ -53,6 +63,34 @@ public class LoadMetricsCmd extends AddressableModelCmd implements AsyncCommand<
     @Override
     public void execute(final AsyncCallback<CompositeVMMetric> callback) {
 
+        dispatcher.execute(new DMRAction(createOperation(), DMRAction.Priority.BACKGROUND), new SimpleCallback<DMRResponse>() {
+
+            @Override
+            public void onFailure(Throwable caught) {
+                Console.error("Error loading VM metrics", caught.getMessage());
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                parse(result.get(), callback);
+            }
+        });
+    }
+
+    /**
+     * Receive the metrics whenever they change, instead of polling for them.
+     */
+    public PushChannel.Subscription subscribe(PushChannel channel, final AsyncCallback<CompositeVMMetric> callback) {
+
+        return channel.subscribe(createOperation(), new PushChannel.Listener() {
+            @Override
+            public void onChange(ModelNode response, ModelDiff changes) {
+                parse(response, callback);
+            }
+        });
+    }
+
+    private ModelNode createOperation() {
         ModelNode composite = new ModelNode();
         composite.get(OP).set(COMPOSITE);
         composite.get(ADDRESS).setEmptyList();
@@ -105,64 +143,53 @@ public class LoadMetricsCmd extends AddressableModelCmd implements AsyncCommand<
         steps.add(os);
 
         composite.get(STEPS).set(steps);
+        return composite;
+    }
 
-        dispatcher.execute(new DMRAction(composite), new SimpleCallback<DMRResponse>() {
-
-            @Override
-            public void onFailure(Throwable caught) {
-                Console.error("Error loading VM metrics", caught.getMessage());
-            }
-
-            @Override
-            public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
-                ModelNode steps = response.get(RESULT);
-
-                CompositeVMMetric metric = new CompositeVMMetric();
+    private void parse(ModelNode response, AsyncCallback<CompositeVMMetric> callback) {
+        CompositeVMMetric metric = new CompositeVMMetric();
 
-                if(ModelAdapter.wasSuccess(response))
-                {
-                    // memory
-                    ModelNode memory  = steps.get("step-1").get(RESULT);
-                    HeapMetric heap = heapMetricAdapter.fromDMR(memory.get("heap-memory-usage"));
-                    HeapMetric nonHeap = heapMetricAdapter.fromDMR(memory.get("non-heap-memory-usage"));
+        if(ModelAdapter.wasSuccess(response))
+        {
+            // memory
+            ModelNode memory  = MEMORY.resolve(response);
+            HeapMetric heap = heapMetricAdapter.fromDMR(HEAP.resolve(memory));
+            HeapMetric nonHeap = heapMetricAdapter.fromDMR(NON_HEAP.resolve(memory));
 
 
-                    metric.setHeap(heap);
-                    metric.setNonHeap(nonHeap);
+            metric.setHeap(heap);
+            metric.setNonHeap(nonHeap);
 
-                    // threads
+            // threads
 
-                    ModelNode threads = steps.get("step-2").get(RESULT);
-                    ThreadMetric thread = threadMetricAdapter.fromDMR(threads);
+            ModelNode threads = THREADS.resolve(response);
+            ThreadMetric thread = threadMetricAdapter.fromDMR(threads);
 
-                    metric.setThreads(thread);
+            metric.setThreads(thread);
 
-                    // runtime
+            // runtime
 
-                    ModelNode runtime = steps.get("step-3").get(RESULT);
-                    RuntimeMetric runtimeMetric = runtimeAdapter.fromDMR(runtime);
+            ModelNode runtime = RUNTIME.resolve(response);
+            RuntimeMetric runtimeMetric = runtimeAdapter.fromDMR(runtime);
 
-                    metric.setRuntime(runtimeMetric);
+            metric.setRuntime(runtimeMetric);
 
-                    // os
+            // os
 
-                    ModelNode os = steps.get("step-4").get(RESULT);
-                    OSMetric osMetric = osAdapter.fromDMR(os);
+            ModelNode os = OS.resolve(response);
+            OSMetric osMetric = osAdapter.fromDMR(os);
 
-                    metric.setOs(osMetric);
+            metric.setOs(osMetric);
 
 
-                    callback.onSuccess(metric);
+            callback.onSuccess(metric);
 
 
-                }
-                else
-                {
-                    callback.onFailure(new RuntimeException("The server doesn't seem to be running: "+address));
-                    //callback.onFailure(new RuntimeException("Failed to load VM metrics: "+response.toString()));
-                }
-            }
-        });
+        }
+        else
+        {
+            callback.onFailure(new RuntimeException("The server doesn't seem to be running: "+address));
+            //callback.onFailure(new RuntimeException("Failed to load VM metrics: "+response.toString()));
+        }
     }
 }
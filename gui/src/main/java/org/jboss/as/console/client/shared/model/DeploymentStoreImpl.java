@@ -73,7 +73,7 @@ public class DeploymentStoreImpl implements DeploymentStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 if (response.get("result").isDefined()) {
                     List<ModelNode> payload = response.get("result").asList();
 
@@ -130,7 +130,7 @@ public class DeploymentStoreImpl implements DeploymentStore {
 
                 @Override
                 public void onSuccess(DMRResponse result) {
-                    ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                    ModelNode response = result.get();
 
                     if (response.get("result").isDefined()) {
                         List<ModelNode> payload = response.get("result").asList();
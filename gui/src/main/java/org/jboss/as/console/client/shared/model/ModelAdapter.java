@@ -43,7 +43,7 @@ public class ModelAdapter {
 
     public static ResponseWrapper<Boolean> wrapBooleanResponse(DMRResponse response)
     {
-        ModelNode model = ModelNode.fromBase64(response.getResponseText());
+        ModelNode model = response.get();
         ResponseWrapper<Boolean> wrapper = new ResponseWrapper<Boolean>(
             model.get(OUTCOME).asString().equals(SUCCESS), model
         );
@@ -64,6 +64,10 @@ public class ModelAdapter {
         prototype.require(ADDRESS);
         prototype.require(OP);
 
+        // steps are cloned from a protected copy and share its address
+        final ModelNode template = prototype.clone();
+        template.protect();
+
         ModelNode operation = new ModelNode();
         operation.get(OP).set(COMPOSITE);
         operation.get(ADDRESS).setEmptyList();
@@ -76,7 +80,7 @@ public class ModelAdapter {
             Object value = changeSet.get(binding.getJavaName());
             if(value!=null)
             {
-                ModelNode step = prototype.clone();
+                ModelNode step = template.clone();
                 step.get(NAME).set(binding.getDetypedName());
 
                 Class type = value.getClass();
@@ -1,6 +1,7 @@
 package org.jboss.as.console.client.shared.runtime.tx;
 
 import com.google.gwt.event.shared.EventBus;
+import com.google.gwt.user.client.Command;
 import com.google.inject.Inject;
 import com.gwtplatform.mvp.client.Presenter;
 import com.gwtplatform.mvp.client.annotations.NameToken;
@@ -16,6 +17,7 @@ import org.jboss.as.console.client.domain.model.HostInformationStore;
 import org.jboss.as.console.client.domain.model.ServerInstance;
 import org.jboss.as.console.client.domain.model.SimpleCallback;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
+import org.jboss.as.console.client.shared.dispatch.RequestScope;
 import org.jboss.as.console.client.shared.dispatch.impl.DMRAction;
 import org.jboss.as.console.client.shared.dispatch.impl.DMRResponse;
 import org.jboss.as.console.client.shared.runtime.Metric;
@@ -46,6 +48,7 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
     private BootstrapContext bootstrapContext;
     private HostInformationStore hostInfoStore;
     private CurrentHostSelection hostSelection;
+    private final RequestScope requests = new RequestScope();
 
     @ProxyCodeSplit
     @NameToken(NameTokens.TXMetrics)
@@ -91,14 +94,20 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
     @Override
     protected void onHide() {
         super.onHide();
+        requests.cancel();
         getView().recycleCharts();
     }
 
     @Override
     protected void onReset() {
         super.onReset();
-        refresh();
-        loadServerConfigurations();
+        requests.run(new Command() {
+            @Override
+            public void execute() {
+                refresh();
+                loadServerConfigurations();
+            }
+        });
     }
 
     private void loadServerConfigurations() {
@@ -143,7 +152,7 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 TransactionManager metrics = entityAdapter.fromDMR(result.get(RESULT));
 
                 getView().setTxMetric(new Metric(
@@ -121,7 +121,7 @@ public class ResourceAdapterPresenter
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
 
                 List<ModelNode> children = result.get(RESULT).asList();
                 List<ResourceAdapter> resourceAdapters = new ArrayList<ResourceAdapter>(children.size());
@@ -202,7 +202,7 @@ public class ResourceAdapterPresenter
 
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 if(ModelNodeUtil.indicatesSuccess(result))
                     Console.info(Console.MESSAGES.deleted("resource adapter "+ra.getName()));
                 else
@@ -236,7 +236,7 @@ public class ResourceAdapterPresenter
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean success = response.get(OUTCOME).asString().equals(SUCCESS);
 
                 if(success)
@@ -328,7 +328,7 @@ public class ResourceAdapterPresenter
 
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 if(ModelNodeUtil.indicatesSuccess(result))
                     Console.info(Console.MESSAGES.added("resource adapter " + ra.getArchive()));
                 else
@@ -375,7 +375,7 @@ public class ResourceAdapterPresenter
 
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 if(ModelNodeUtil.indicatesSuccess(result))
                     Console.info(Console.MESSAGES.added("property " + prop.getKey()));
                 else
@@ -407,7 +407,7 @@ public class ResourceAdapterPresenter
 
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
-                ModelNode result = ModelNode.fromBase64(dmrResponse.getResponseText());
+                ModelNode result = dmrResponse.get();
                 if(ModelNodeUtil.indicatesSuccess(result))
                     Console.info(Console.MESSAGES.deleted("property " + prop.getKey()));
                 else
@@ -485,7 +485,7 @@ public class ResourceAdapterPresenter
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 ModelNode payload = response.get(RESULT).asObject();
 
@@ -103,7 +103,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response  = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response  = result.get();
                 List<DataSource> datasources = dataSourceAdapter.fromDMRList(response.get(RESULT).asList());
                 callback.onSuccess(datasources);
             }
@@ -121,7 +121,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response  = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response  = result.get();
                 List<XADataSource> datasources = xaDataSourceAdapter.fromDMRList(response.get(RESULT).asList());
                 callback.onSuccess(datasources);
 
@@ -146,7 +146,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
 
                 List<Property> properties = result.get(RESULT).asPropertyList();
                 List<PropertyRecord> records = new ArrayList<PropertyRecord>(properties.size());
@@ -185,7 +185,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode modelNode = ModelNode.fromBase64(result.getResponseText());
+                ModelNode modelNode = result.get();
                 boolean wasSuccessful = modelNode.get(OUTCOME).asString().equals(SUCCESS);
 
                 callback.onSuccess(new ResponseWrapper<Boolean>(wasSuccessful, modelNode));
@@ -314,7 +314,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode modelNode = ModelNode.fromBase64(result.getResponseText());
+                ModelNode modelNode = result.get();
                 ResponseWrapper<Boolean> response =
                         new ResponseWrapper<Boolean>(
                                 modelNode.get(OUTCOME).asString().equals(SUCCESS), modelNode
@@ -346,7 +346,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 ResponseWrapper<Boolean> wrapper =
                         new ResponseWrapper<Boolean>(response.get("outcome").asString().equals("success"), response);
@@ -356,7 +356,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
     }
 
     private boolean responseIndicatesSuccess(DMRResponse result) {
-        ModelNode response = ModelNode.fromBase64(result.getResponseText());
+        ModelNode response = result.get();
         return response.get(OUTCOME).asString().equals(SUCCESS);
     }
 
@@ -426,7 +426,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
             @Override
             public void onSuccess(DMRResponse result) {
 
-                ModelNode response  = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response  = result.get();
 
                 EntityAdapter<PoolConfig> adapter = new EntityAdapter<PoolConfig>(PoolConfig.class, metaData)
                         .with(new KeyAssignment() {
@@ -497,7 +497,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
 
                 ResponseWrapper<Boolean> wrapped = new ResponseWrapper<Boolean>(
                     result.get(OUTCOME).asString().equals("success"),result
@@ -525,7 +525,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
 
                 List<Property> properties = result.get(RESULT).asPropertyList();
                 List<PropertyRecord> records = new ArrayList<PropertyRecord>(properties.size());
@@ -561,7 +561,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
                 callback.onSuccess(ModelAdapter.wasSuccess(result));
             }
         });
@@ -583,7 +583,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
                 callback.onSuccess(ModelAdapter.wasSuccess(result));
             }
         });
@@ -606,7 +606,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
                 System.out.println(result);
                 callback.onSuccess(ModelAdapter.wasSuccess(result));
             }
@@ -629,7 +629,7 @@ public class DataSourceStoreImpl implements DataSourceStore {
 
             @Override
             public void onSuccess(DMRResponse response) {
-                ModelNode result = ModelNode.fromBase64(response.getResponseText());
+                ModelNode result = response.get();
                 callback.onSuccess(ModelAdapter.wasSuccess(result));
             }
         });
@@ -171,7 +171,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 MessagingProvider provider = providerAdapter.fromDMR(response.get(RESULT));
                 provider.setName(currentServer);
                 getView().setProviderDetails(provider);
@@ -199,7 +199,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 List<Property> patterns = response.get(RESULT).asPropertyList();
                 List<SecurityPattern> payload = new LinkedList<SecurityPattern>();
@@ -250,7 +250,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 List<AddressingPattern> addrPatterns = new ArrayList<AddressingPattern>();
                 List<Property> payload = response.get(RESULT).asPropertyList();
@@ -352,7 +352,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.added("security setting"));
@@ -401,7 +401,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.deleted("security setting"));
@@ -425,7 +425,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.deleted("address setting"));
@@ -505,7 +505,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.added("Address Setting"));
@@ -531,7 +531,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 ModelNode payload = response.get("result").asObject();
 
                 parseFactories(payload);
@@ -645,7 +645,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.saved("queue "+name));
@@ -686,7 +686,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.added("Queue "+entity.getName()));
@@ -717,7 +717,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.deleted("Queue " + entity.getName()));
@@ -761,7 +761,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.deleted("topic" + entity.getName()));
@@ -796,7 +796,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.saved("topic "+name));
@@ -848,7 +848,7 @@ public class MessagingPresenter extends Presenter<MessagingPresenter.MyView, Mes
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info(Console.MESSAGES.added("topic "+entity.getName()));
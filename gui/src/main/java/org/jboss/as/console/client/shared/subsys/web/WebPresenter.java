@@ -142,7 +142,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 List<Property> propList = response.get(RESULT).asPropertyList();
                 List<VirtualServer> servers = new ArrayList<VirtualServer>(propList.size());
@@ -192,7 +192,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 ModelNode config = response.get(RESULT).asObject().get("configuration").asObject();
                 ModelNode jspCfg  = config.get("jsp-configuration").asObject();
@@ -227,7 +227,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 List<Property> propList = response.get(RESULT).asPropertyList();
                 List<HttpConnector> connectors = new ArrayList<HttpConnector>(propList.size());
@@ -286,7 +286,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Updated connector "+name);
@@ -309,7 +309,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Removed connector " + name);
@@ -365,7 +365,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Created connector " + entity.getName());
@@ -412,7 +412,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Created virtual server " + server.getName());
@@ -449,7 +449,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Updated virtual server "+name);
@@ -472,7 +472,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
 
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
                 boolean successful = response.get(OUTCOME).asString().equals(SUCCESS);
                 if(successful)
                     Console.info("Success: Delete virtual server " + name);
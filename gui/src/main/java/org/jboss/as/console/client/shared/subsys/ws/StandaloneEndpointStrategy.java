@@ -45,7 +45,7 @@ public class StandaloneEndpointStrategy implements EndpointStrategy {
         dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
-                ModelNode response = ModelNode.fromBase64(result.getResponseText());
+                ModelNode response = result.get();
 
                 List<WebServiceEndpoint> endpoints = new ArrayList<WebServiceEndpoint>();
                 if(response.hasDefined(RESULT))
@@ -1,6 +1,5 @@
 package org.jboss.as.console.client.standalone.runtime;
 
-import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.event.shared.EventBus;
 import com.google.inject.Inject;
 import com.gwtplatform.mvp.client.Presenter;
@@ -14,6 +13,7 @@ import org.jboss.as.console.client.core.NameTokens;
 import org.jboss.as.console.client.domain.model.SimpleCallback;
 import org.jboss.as.console.client.shared.BeanFactory;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
+import org.jboss.as.console.client.shared.dispatch.impl.PushChannel;
 import org.jboss.as.console.client.shared.jvm.LoadMetricsCmd;
 import org.jboss.as.console.client.shared.jvm.model.CompositeVMMetric;
 import org.jboss.as.console.client.shared.runtime.Metric;
@@ -30,11 +30,11 @@ public class VMMetricsPresenter
         extends Presenter<VMView, VMMetricsPresenter.MyProxy>
         implements VMMetricsManagement {
 
-    private static final int POLL_INTERVAL = 5000;
     private ApplicationMetaData metaData;
 
     private boolean keepPolling = true;
-    private Scheduler.RepeatingCommand pollCmd = null;
+    private PushChannel pushChannel;
+    private PushChannel.Subscription subscription = null;
     private LoadMetricsCmd loadMetricCmd;
 
     @ProxyCodeSplit
@@ -48,10 +48,12 @@ public class VMMetricsPresenter
     @Inject
     public VMMetricsPresenter(
             EventBus eventBus, MyView view, MyProxy proxy,
-            DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMetaData) {
+            DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMetaData,
+            PushChannel pushChannel) {
         super(eventBus, view, proxy);
 
         this.metaData = propertyMetaData;
+        this.pushChannel = pushChannel;
         this.loadMetricCmd = new LoadMetricsCmd(dispatcher, factory, new ModelNode(), metaData);
     }
 
@@ -65,6 +67,7 @@ public class VMMetricsPresenter
     @Override
     protected void onHide() {
         super.onHide();
+        unsubscribe();
         getView().recycle();
     }
 
@@ -72,67 +75,60 @@ public class VMMetricsPresenter
     @Override
     protected void onReset() {
         super.onReset();
-        loadVMStatus();
-
+        subscribe();
     }
 
-    private void beginPolling() {
-        pollCmd = new Scheduler.RepeatingCommand() {
-            @Override
-            public boolean execute() {
-
-                final boolean keepPooling = isVisible() && !shouldPause();
+    private void subscribe() {
 
-                if (keepPooling)
-                    loadVMStatus();
-                else
-                    Console.warning("Stop polling for VM metrics.");
+        if(subscription!=null || shouldPause())
+            return;
 
-                return keepPooling;
+        subscription = loadMetricCmd.subscribe(pushChannel, new SimpleCallback<CompositeVMMetric>() {
+            @Override
+            public void onSuccess(CompositeVMMetric result) {
+                updateView(result);
             }
-        };
-
-        Scheduler.get().scheduleFixedDelay(pollCmd, POLL_INTERVAL);
+        });
 
         Console.info("Begin polling for virtual machine metrics");
     }
 
+    private void unsubscribe() {
+        if(subscription!=null)
+        {
+            subscription.cancel();
+            subscription = null;
+        }
+    }
+
     private boolean shouldPause() {
         return !keepPolling;
     }
 
-    public void loadVMStatus() {
-        loadMetricCmd.execute(new SimpleCallback<CompositeVMMetric>() {
-            @Override
-            public void onSuccess(CompositeVMMetric result) {
-
-                getView().setHeap(new Metric(
-                        result.getHeap().getUsed(),
-                        result.getHeap().getMax(),
-                        result.getHeap().getCommitted(),
-                        result.getHeap().getInit()
+    private void updateView(CompositeVMMetric result) {
 
-                ));
+        getView().setHeap(new Metric(
+                result.getHeap().getUsed(),
+                result.getHeap().getMax(),
+                result.getHeap().getCommitted(),
+                result.getHeap().getInit()
 
-                getView().setNonHeap(new Metric(
-                        result.getNonHeap().getUsed(),
-                        result.getNonHeap().getMax(),
-                        result.getNonHeap().getCommitted(),
-                        result.getNonHeap().getInit()
-                ));
+        ));
 
-                getView().setThreads(new Metric(
-                        result.getThreads().getCount(),
-                        result.getThreads().getDaemonCount()
-                ));
+        getView().setNonHeap(new Metric(
+                result.getNonHeap().getUsed(),
+                result.getNonHeap().getMax(),
+                result.getNonHeap().getCommitted(),
+                result.getNonHeap().getInit()
+        ));
 
-                getView().setOSMetric(result.getOs());
-                getView().setRuntimeMetric(result.getRuntime());
-
-                beginPolling();
-            }
-        });
+        getView().setThreads(new Metric(
+                result.getThreads().getCount(),
+                result.getThreads().getDaemonCount()
+        ));
 
+        getView().setOSMetric(result.getOs());
+        getView().setRuntimeMetric(result.getRuntime());
     }
 
     @Override
@@ -144,10 +140,15 @@ public class VMMetricsPresenter
 
         this.keepPolling = b;
 
-        if(keepPolling && pollCmd==null)
-            beginPolling();
-        else if(!keepPolling && pollCmd!=null)
-            pollCmd=null;
+        if(keepPolling)
+        {
+            subscribe();
+        }
+        else if(subscription!=null)
+        {
+            unsubscribe();
+            Console.warning("Stop polling for VM metrics.");
+        }
 
     }
 
@@ -106,8 +106,7 @@ public class EntityAdapter<T> {
         for(PropertyBinding propBinding : beanMetaData.getProperties())
         {
 
-            String[] splitDetypedName = propBinding.getDetypedName().split("/");
-            ModelNode propValue = actualPayload.get(splitDetypedName);
+            ModelNode propValue = propBinding.getDetypedPath().resolve(actualPayload);
             Object value = null;
 
             try
@@ -123,7 +122,7 @@ public class EntityAdapter<T> {
                     if(propValue.isDefined()
                             && propValue.getType() == ModelType.EXPRESSION)
                     {
-                        String exprValue = actualPayload.get(propBinding.getDetypedName()).asString();
+                        String exprValue = propValue.asString();
 
                         ExpressionAdapter.setExpressionValue(entity, propBinding.getJavaName(), exprValue);
 
@@ -156,7 +155,7 @@ public class EntityAdapter<T> {
                     else if(dmr.hasDefined(propBinding.getDetypedName()))
                     {
                         // keys are required to be strings (part of the address..)
-                        value = actualPayload.get(propBinding.getDetypedName()).asString();
+                        value = propValue.asString();
                     }
                     else
                     {
@@ -214,7 +213,7 @@ public class EntityAdapter<T> {
                 }
                 else if ("java.util.List".equals(propBinding.getJavaTypeName()))
                 {
-                    ModelNode list = actualPayload.get(propBinding.getDetypedName());
+                    ModelNode list = propValue;
                     if (propValue.isDefined() && !list.asList().isEmpty()) {
                         if (list.asList().get(0).getType().equals(ModelType.PROPERTY)) {
                             value = propBinding.getEntityAdapterForList().fromDMRPropertyList(list.asPropertyList());
@@ -295,7 +294,7 @@ public class EntityAdapter<T> {
 
         for(PropertyBinding property : properties)
         {
-            String[] splitDetypedName = property.getDetypedName().split("/");
+            String[] splitDetypedName = property.getDetypedPath().getNames();
 
             /**
              * KEYS
@@ -412,6 +411,8 @@ public class EntityAdapter<T> {
         ModelNode protoType = new ModelNode();
         protoType.get(ADDRESS).set(address.get(ADDRESS));
         protoType.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        // steps are cloned from the protected prototype and share its address
+        protoType.protect();
 
         ModelNode operation = new ModelNode();
         operation.get(OP).set(COMPOSITE);
@@ -430,7 +431,7 @@ public class EntityAdapter<T> {
                 ModelNode step = protoType.clone();
 
              // account for sub-attribute paths
-                String[] splitDetypedName = binding.getDetypedName().split("/");
+                String[] splitDetypedName = binding.getDetypedPath().getNames();
                 step.get(NAME).set(splitDetypedName[0]);
                 splitDetypedName[0] = VALUE;
                 ModelNode nodeToSetValueUpon = step.get(splitDetypedName);
@@ -24,6 +24,7 @@ import java.util.Collections;
 import org.jboss.as.console.client.shared.viewframework.FormItemObserver;
 import org.jboss.as.console.client.shared.viewframework.FormItemType;
 import org.jboss.ballroom.client.widgets.forms.FormItem;
+import org.jboss.dmr.client.ModelPath;
 
 /**
  * @author Heiko Braun
@@ -31,6 +32,7 @@ import org.jboss.ballroom.client.widgets.forms.FormItem;
  */
 public class PropertyBinding {
     private String detypedName;
+    private ModelPath detypedPath;
     private String javaName;
     private String javaTypeName;
     private Class<?> listType;
@@ -88,6 +90,16 @@ public class PropertyBinding {
 
     public void setDetypedName(String detypedName) {
         this.detypedName = detypedName;
+        this.detypedPath = null;
+    }
+
+    /**
+     * @return the detyped name compiled into a path, sub-attributes are separated by '/'
+     */
+    public ModelPath getDetypedPath() {
+        if (null == detypedPath)
+            detypedPath = ModelPath.compile(detypedName);
+        return detypedPath;
     }
 
     public String getJavaName() {
@@ -0,0 +1,405 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Processes proxied requests outside the container thread, using the Servlet 3 async API.<p/>
+ *
+ * The container thread is released as soon as the request has been read. The upstream round trip
+ * runs on a bounded set of worker threads: requests beyond that limit are refused with a 503,
+ * requests that take longer than the timeout are answered with a 504.<p/>
+ *
+ * The console is built against the Servlet 2.5 API, so the async API is accessed reflectively.
+ * On containers without async support, requests are processed synchronously.
+ */
+class AsyncDispatcher {
+
+    private static final Logger log = Logger.getLogger(AsyncDispatcher.class.getName());
+
+    private final long timeout;
+    private final Semaphore outstanding;
+    private final ExecutorService workers;
+
+    private final Method isAsyncSupported;
+    private final Method startAsync;
+    private final Method setTimeout;
+    private final Method addListener;
+    private final Method complete;
+    private final Class<?> listenerType;
+
+    /**
+     * @param maxOutstanding the number of requests processed concurrently
+     * @param timeout the time (ms) after which a request is answered with a 504
+     */
+    AsyncDispatcher(int maxOutstanding, long timeout) throws ClassNotFoundException, NoSuchMethodException {
+        this.timeout = timeout;
+        this.outstanding = new Semaphore(maxOutstanding);
+
+        Class<?> contextType = Class.forName("javax.servlet.AsyncContext");
+        this.listenerType = Class.forName("javax.servlet.AsyncListener");
+        this.isAsyncSupported = ServletRequest.class.getMethod("isAsyncSupported");
+        this.startAsync = ServletRequest.class.getMethod("startAsync");
+        this.setTimeout = contextType.getMethod("setTimeout", long.class);
+        this.addListener = contextType.getMethod("addListener", listenerType);
+        this.complete = contextType.getMethod("complete");
+
+        final AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "proxy-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return a dispatcher, or null if the container doesn't provide the Servlet 3 async API
+     */
+    static AsyncDispatcher create(int maxOutstanding, long timeout) {
+        try {
+            return new AsyncDispatcher(maxOutstanding, timeout);
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    interface Task {
+        void process(HttpServletRequest request, HttpServletResponse response);
+    }
+
+    /**
+     * Process a request asynchronously.
+     *
+     * @return false if the request doesn't support async processing and needs to be processed by the caller
+     */
+    boolean dispatch(HttpServletRequest request, HttpServletResponse response, final Task task) throws IOException {
+        if (!Boolean.TRUE.equals(invoke(isAsyncSupported, request)))
+            return false;
+
+        if (!outstanding.tryAcquire())
+        {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many outstanding requests");
+            return true;
+        }
+
+        final BufferedRequest bufferedRequest;
+        try {
+            // read while the request is still bound to the container thread
+            bufferedRequest = new BufferedRequest(request);
+        } catch (IOException e) {
+            outstanding.release();
+            throw e;
+        }
+
+        final Object context;
+        try {
+            context = invoke(startAsync, request);
+        } catch (RuntimeException e) {
+            processSynchronously(bufferedRequest, response, task, null, e);
+            return true;
+        }
+
+        final GuardedResponse guardedResponse = new GuardedResponse(response);
+        try {
+            invoke(setTimeout, context, timeout);
+            invoke(addListener, context, Proxy.newProxyInstance(
+                    listenerType.getClassLoader(), new Class[]{listenerType},
+                    new InvocationHandler() {
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            String name = method.getName();
+                            if ("onTimeout".equals(name))
+                                abort(context, guardedResponse, HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                            else if ("onError".equals(name))
+                                abort(context, guardedResponse, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                            else if ("hashCode".equals(name))
+                                return System.identityHashCode(proxy);
+                            else if ("equals".equals(name))
+                                return proxy == args[0];
+                            else if ("toString".equals(name))
+                                return "AsyncListener[" + guardedResponse + "]";
+                            return null;
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            processSynchronously(bufferedRequest, response, task, context, e);
+            return true;
+        }
+
+        Runnable worker = new Runnable() {
+            public void run() {
+                try {
+                    task.process(bufferedRequest, guardedResponse);
+                } catch (Throwable e) {
+                    log.log(Level.SEVERE, "Failed to process request", e);
+                } finally {
+                    outstanding.release();
+                    if (guardedResponse.detach())
+                        invoke(complete, context);
+                }
+            }
+        };
+
+        try {
+            workers.execute(worker);
+        } catch (RejectedExecutionException e) {
+            // the dispatcher is shutting down, use the container thread
+            worker.run();
+        }
+        return true;
+    }
+
+    /**
+     * Fallback if the container refused to set up async processing after the permit was taken.
+     * The request is processed on the container thread, outside the outstanding limit.
+     *
+     * @param context the async context, if it had been started already
+     */
+    private void processSynchronously(HttpServletRequest request, HttpServletResponse response, Task task,
+                                      Object context, RuntimeException cause) {
+        log.log(Level.WARNING, "Async processing failed, processing request synchronously", cause);
+        outstanding.release();
+        try {
+            task.process(request, response);
+        } finally {
+            if (context != null)
+                invoke(complete, context);
+        }
+    }
+
+    /**
+     * Answer a request that is still being processed. The worker may continue,
+     * but it doesn't have access to the response any more.
+     */
+    private void abort(Object context, GuardedResponse response, int status) {
+        if (!response.detach())
+            return;
+
+        try {
+            HttpServletResponse target = (HttpServletResponse) response.getResponse();
+            if (!target.isCommitted())
+                target.sendError(status);
+        } catch (Exception e) {
+            log.fine("Failed to abort request: " + e);
+        } finally {
+            invoke(complete, context);
+        }
+    }
+
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * The request with its body read into memory: the container may recycle
+     * the underlying stream once the request timed out.
+     */
+    private static class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            int length = request.getContentLength();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(length > 0 ? length : 256);
+            XmlHttpProxy.copy(request.getInputStream(), bos);
+            this.body = bos.toByteArray();
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            final ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return true;
+                }
+
+                @Override
+                public synchronized void mark(int readlimit) {
+                    in.mark(readlimit);
+                }
+
+                @Override
+                public synchronized void reset() throws IOException {
+                    in.reset();
+                }
+            };
+        }
+    }
+
+    /**
+     * A response that can be taken away from the worker, i.e. when the request timed out.
+     * Afterwards, anything the worker writes is discarded.
+     */
+    private static class GuardedResponse extends HttpServletResponseWrapper {
+
+        private boolean detached = false;
+        private PrintWriter writer;
+
+        GuardedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * @return true if this call detached the response
+         */
+        synchronized boolean detach() {
+            if (detached) return false;
+            detached = true;
+            return true;
+        }
+
+        private synchronized boolean isDetached() {
+            return detached;
+        }
+
+        @Override
+        public synchronized void setStatus(int sc) {
+            if (!detached) super.setStatus(sc);
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            if (!detached) super.sendError(sc);
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            if (!detached) super.sendError(sc, msg);
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            if (!detached) super.setHeader(name, value);
+        }
+
+        @Override
+        public synchronized void addHeader(String name, String value) {
+            if (!detached) super.addHeader(name, value);
+        }
+
+        @Override
+        public synchronized void setContentType(String type) {
+            if (!detached) super.setContentType(type);
+        }
+
+        @Override
+        public synchronized void setContentLength(int len) {
+            if (!detached) super.setContentLength(len);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            final ServletOutputStream out = isDetached() ? null : super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!detached) out.write(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!detached) out.write(b, off, len);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    synchronized (GuardedResponse.this) {
+                        if (!detached) out.flush();
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    // completing the async request closes the response
+                    flush();
+                }
+            };
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (null == writer)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            return writer;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent HTTP/1.1 connections to upstream services, shared by the requests of an {@link XmlHttpProxy}.<p/>
+ *
+ * The number of connections per endpoint is bounded: callers wait for a connection
+ * to become available if the limit is reached. Connections that have been idle for too long
+ * are closed in the background, and each connection is checked before it's handed out again.
+ * A pool has to be {@link #shutdown()} when it isn't used anymore: this stops its background thread.
+ */
+public class ConnectionPool {
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final long DEFAULT_MAX_IDLE = 30000;
+    private static final long ACQUIRE_TIMEOUT = 30000;
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 120000;
+
+    private final Map<Route, RouteState> routes = new HashMap<Route, RouteState>();
+    private final long maxIdle;
+    private final ScheduledExecutorService evictor;
+    private volatile int maxConnections;
+    private boolean shutdown = false;
+
+    public ConnectionPool() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * @param maxConnections the maximum number of connections per endpoint
+     * @param maxIdle the time (ms) after which idle connections are closed
+     */
+    public ConnectionPool(int maxConnections, long maxIdle) {
+        this.maxConnections = maxConnections;
+        this.maxIdle = maxIdle;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "upstream-connection-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                closeExpired();
+            }
+        }, maxIdle / 2, maxIdle / 2, TimeUnit.MILLISECONDS);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public synchronized void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        notifyAll();
+    }
+
+    /**
+     * Lease a connection, either an idle one or a new one.
+     * It has to be handed back through {@link #release(Connection)} or {@link #discard(Connection)}.
+     */
+    Connection acquire(Route route) throws IOException {
+        long deadline = System.currentTimeMillis() + ACQUIRE_TIMEOUT;
+        while(true)
+        {
+            Connection candidate;
+            synchronized (this) {
+                if(shutdown)
+                    throw new IOException("Connection pool has been shut down");
+
+                RouteState state = stateFor(route);
+                while(state.idle.isEmpty() && state.leased >= maxConnections)
+                {
+                    long wait = deadline - System.currentTimeMillis();
+                    if(wait <= 0)
+                        throw new IOException("Timed out waiting for a connection to " + route);
+                    try {
+                        wait(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for a connection to " + route);
+                    }
+                }
+                state.leased++;
+                candidate = state.idle.isEmpty() ? null : state.idle.removeFirst();
+            }
+
+            if(null==candidate)
+            {
+                try {
+                    return new Connection(route, route.open());
+                } catch (IOException e) {
+                    returned(route);
+                    throw e;
+                }
+            }
+
+            // checked outside the lock, it may block for a moment
+            if(candidate.isHealthy(maxIdle))
+                return candidate;
+
+            candidate.close();
+            returned(route);
+        }
+    }
+
+    /**
+     * Hand back a connection that can be used for another request.
+     */
+    void release(Connection connection) {
+        connection.lastUsed = System.currentTimeMillis();
+        connection.reused = true;
+        synchronized (this) {
+            RouteState state = stateFor(connection.route);
+            state.leased--;
+            if(shutdown)
+                connection.close();
+            else
+                state.idle.addFirst(connection);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Hand back a connection that is broken or in an unknown state.
+     */
+    void discard(Connection connection) {
+        connection.close();
+        returned(connection.route);
+    }
+
+    private synchronized void returned(Route route) {
+        stateFor(route).leased--;
+        notifyAll();
+    }
+
+    /**
+     * Close all idle connections to an endpoint, i.e. after the server dropped one of them.
+     */
+    void closeIdle(Route route) {
+        List<Connection> idle;
+        synchronized (this) {
+            RouteState state = stateFor(route);
+            idle = new ArrayList<Connection>(state.idle);
+            state.idle.clear();
+        }
+        for(Connection connection : idle)
+            connection.close();
+    }
+
+    private void closeExpired() {
+        List<Connection> expired = new ArrayList<Connection>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for(RouteState state : routes.values())
+            {
+                Iterator<Connection> it = state.idle.iterator();
+                while(it.hasNext())
+                {
+                    Connection connection = it.next();
+                    if(now - connection.lastUsed > maxIdle)
+                    {
+                        it.remove();
+                        expired.add(connection);
+                    }
+                }
+            }
+        }
+        for(Connection connection : expired)
+            connection.close();
+    }
+
+    public synchronized int getIdleCount() {
+        int count = 0;
+        for(RouteState state : routes.values())
+            count += state.idle.size();
+        return count;
+    }
+
+    public synchronized int getLeasedCount() {
+        int count = 0;
+        for(RouteState state : routes.values())
+            count += state.leased;
+        return count;
+    }
+
+    public void shutdown() {
+        evictor.shutdownNow();
+        List<Connection> idle = new ArrayList<Connection>();
+        synchronized (this) {
+            shutdown = true;
+            for(RouteState state : routes.values())
+            {
+                idle.addAll(state.idle);
+                state.idle.clear();
+            }
+            notifyAll();
+        }
+        for(Connection connection : idle)
+            connection.close();
+    }
+
+    private RouteState stateFor(Route route) {
+        RouteState state = routes.get(route);
+        if(null==state)
+        {
+            state = new RouteState();
+            routes.put(route, state);
+        }
+        return state;
+    }
+
+    private static class RouteState {
+        final LinkedList<Connection> idle = new LinkedList<Connection>();
+        int leased = 0;
+    }
+
+    /**
+     * An upstream endpoint, optionally reached through an HTTP proxy.
+     */
+    static class Route {
+        final boolean secure;
+        final String host;
+        final int port;
+        final String proxyHost;
+        final int proxyPort;
+
+        private static SSLSocketFactory sslSocketFactory;
+
+        Route(URL url, String proxyHost, int proxyPort) {
+            this.secure = "https".equalsIgnoreCase(url.getProtocol());
+            this.host = url.getHost();
+            this.port = url.getPort()!=-1 ? url.getPort() : url.getDefaultPort();
+            boolean isProxy = proxyHost!=null && proxyHost.length()>0 && proxyPort!=-1;
+            this.proxyHost = isProxy ? proxyHost : null;
+            this.proxyPort = isProxy ? proxyPort : -1;
+        }
+
+        boolean isProxied() {
+            return proxyHost!=null;
+        }
+
+        /**
+         * @return the value of the Host header
+         */
+        String getAuthority() {
+            boolean defaultPort = secure ? port==443 : port==80;
+            return defaultPort ? host : host + ":" + port;
+        }
+
+        /**
+         * The request target: plain HTTP proxies expect the absolute URL
+         */
+        String getRequestTarget(URL url) {
+            String file = url.getFile();
+            if(file.length()==0)
+                file = "/";
+            return isProxied() && !secure ? url.getProtocol() + "://" + getAuthority() + file : file;
+        }
+
+        Socket open() throws IOException {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(isProxied() ?
+                    new InetSocketAddress(proxyHost, proxyPort) : new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+            socket.setSoTimeout(READ_TIMEOUT);
+
+            if(!secure)
+                return socket;
+
+            try {
+                if(isProxied())
+                    tunnel(socket);
+
+                SSLSocket ssl = (SSLSocket) getSslSocketFactory().createSocket(socket, host, port, true);
+                boolean identified = identifyEndpoint(ssl);
+                ssl.startHandshake();
+
+                if(!identified && !HttpsURLConnection.getDefaultHostnameVerifier().verify(host, ssl.getSession()))
+                {
+                    ssl.close();
+                    throw new SSLPeerUnverifiedException("Certificate doesn't match host " + host);
+                }
+                return ssl;
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        private void tunnel(Socket socket) throws IOException {
+            OutputStream out = socket.getOutputStream();
+            out.write(("CONNECT " + host + ":" + port + " HTTP/1.1\r\nHost: " + host + ":" + port + "\r\n\r\n").getBytes("ISO-8859-1"));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            String status = HttpClient.readLine(in);
+            if(null==status || status.split(" ").length < 2 || !status.split(" ")[1].equals("200"))
+                throw new IOException("Proxy refused to tunnel to " + host + ":" + port + ": " + status);
+
+            String line;
+            while((line = HttpClient.readLine(in)) != null && line.length() > 0) {
+                // skip the proxy headers
+            }
+        }
+
+        /**
+         * Let the handshake verify the host name against the certificate. The console targets Java 6,
+         * which lacks <code>SSLParameters.setEndpointIdentificationAlgorithm</code>, so it's accessed reflectively.
+         *
+         * @return false if the host name has to be verified after the handshake
+         */
+        private static boolean identifyEndpoint(SSLSocket ssl) {
+            try {
+                SSLParameters parameters = ssl.getSSLParameters();
+                SSLParameters.class.getMethod("setEndpointIdentificationAlgorithm", String.class).invoke(parameters, "HTTPS");
+                ssl.setSSLParameters(parameters);
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        private static synchronized SSLSocketFactory getSslSocketFactory() {
+            if(null==sslSocketFactory)
+                sslSocketFactory = (SSLSocketFactory) SSLSocketFactory.getDefault();
+            return sslSocketFactory;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof Route)) return false;
+            Route route = (Route) o;
+            return secure == route.secure && port == route.port && proxyPort == route.proxyPort
+                    && host.equals(route.host)
+                    && (proxyHost!=null ? proxyHost.equals(route.proxyHost) : route.proxyHost==null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = host.hashCode();
+            result = 31 * result + port;
+            result = 31 * result + (secure ? 1 : 0);
+            result = 31 * result + (proxyHost!=null ? proxyHost.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return (secure ? "https://" : "http://") + getAuthority() + (isProxied() ? " via " + proxyHost + ":" + proxyPort : "");
+        }
+    }
+
+    static class Connection {
+        final Route route;
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        long lastUsed = System.currentTimeMillis();
+        boolean reused = false;
+
+        Connection(Route route, Socket socket) throws IOException {
+            this.route = route;
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), XmlHttpProxy.BUFFER_SIZE);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), XmlHttpProxy.BUFFER_SIZE);
+        }
+
+        /**
+         * An idle connection is only usable if the server didn't close it
+         * and didn't send anything since the last response.
+         */
+        boolean isHealthy(long maxIdle) {
+            if(System.currentTimeMillis() - lastUsed > maxIdle)
+                return false;
+            if(socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown())
+                return false;
+
+            try {
+                socket.setSoTimeout(1);
+                in.mark(1);
+                int next = in.read();
+                if(next != -1)
+                    in.reset();
+                return false;
+            } catch (SocketTimeoutException e) {
+                return true;
+            } catch (IOException e) {
+                return false;
+            } finally {
+                try {
+                    if(!socket.isClosed())
+                        socket.setSoTimeout(READ_TIMEOUT);
+                } catch (IOException e) {
+                    // closed in the meantime
+                }
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
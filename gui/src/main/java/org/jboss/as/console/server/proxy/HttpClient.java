@@ -19,16 +19,25 @@
 
 package org.jboss.as.console.server.proxy;
 
+import org.jboss.dmr.client.Base64;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.HttpURLConnection;
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.Security;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -36,29 +45,60 @@ import java.util.logging.Logger;
  *
  * Minimum set of HTTPclient supporting both http and https.
  * It's aslo capable of POST, but it doesn't provide doGet because
- * the caller can just read the inputstream.
+ * the caller can just read the inputstream.<p/>
+ *
+ * Requests are sent over persistent connections taken from a {@link ConnectionPool}.
+ * The connection is handed back once the response body has been read or closed.
  */
 public class HttpClient {
 
+    private static final String CRLF = "\r\n";
+    private static final String USER_AGENT = "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.1; .NET CLR 1.1.4322)";
+
+    /**
+     * Unread response data that is skipped to keep a connection alive.
+     * Larger remainders are cheaper to abandon along with the connection.
+     */
+    private static final int MAX_DRAIN = 64 * 1024;
+
+    /**
+     * Request body data kept to replay a request on a stale connection.
+     * Management operations fit easily, large uploads are not replayed.
+     */
+    private static final int MAX_REPLAY = 64 * 1024;
+
+    private static final int MAX_CACHED_CREDENTIALS = 64;
+    private static final Map<String, String> authHeaders = new ConcurrentHashMap<String, String>();
+
     private static Logger logger;
     private String proxyHost = null;
     private int proxyPort = -1;
-    private boolean isHttps = false;
-    private boolean isProxy = false;
-    private HttpURLConnection urlConnection = null;
     private Map headers;
+    private XmlHttpProxy.CookieCallback callback;
 
-    private String setCookieHeader;
+    private final ConnectionPool pool;
+    private URL url;
+    private ConnectionPool.Route route;
+    private String method;
+    private final Map<String, String> requestHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
 
-    private XmlHttpProxy.CookieCallback callback;
+    private boolean executed = false;
+    private IOException failure;
+    private int responseCode = -1;
+    private final Map<String, List<String>> responseHeaders = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+    private InputStream responseBody;
+
+    private String setCookieHeader;
 
     /**
+     * @param pool the connections to the upstream service
      * @param phost PROXY host name
      * @param pport PROXY port string
      * @param url URL string
      * @param headers Map
      */
     public HttpClient(
+            ConnectionPool pool,
             String phost,
             int pport,
             String url,
@@ -67,46 +107,45 @@ public class HttpClient {
             XmlHttpProxy.CookieCallback callback)
             throws MalformedURLException
     {
+        this.pool = pool;
         this.callback = callback;
-
-        if (phost != null && pport != -1)
-        {
-            this.isProxy = true;
-        }
-
         this.proxyHost = phost;
         this.proxyPort = pport;
+        this.method = method;
 
-        if (url.trim().startsWith("https:")) {
-            isHttps = true;
+        try {
+            this.url = new URL(url.trim());
+        } catch (MalformedURLException me) {
+            throw new MalformedURLException(url + " is not a valid URL");
         }
+        this.route = new ConnectionPool.Route(this.url, phost, pport);
 
-        this.urlConnection = getURLConnection(url);
-        try {
-            this.urlConnection.setRequestMethod(method);
-        } catch (java.net.ProtocolException pe) {
-            HttpClient.getLogger().severe("Unable protocol method to " + method + " : " + pe);
+        // if this header has not been set by a request set the user agent.
+        if (headers == null || headers.get("user-agent") == null) {
+            // set user agent to mimic a common browser
+            requestHeaders.put("user-agent", USER_AGENT);
         }
+
         this.headers = headers;
         writeHeaders(headers);
-
     }
 
     private void writeHeaders(Map headers)
     {
         if(this.callback!=null)
         {
-            Map<String, XmlHttpProxy.Cookie> cookies = callback.getCookies();
-            Iterator it = cookies.keySet().iterator();
-            while(it.hasNext())
+            // all cookies go into a single header
+            StringBuilder cookie = new StringBuilder();
+            for(XmlHttpProxy.Cookie c : callback.getCookies().values())
+            {
+                if(cookie.length()>0) cookie.append("; ");
+                cookie.append(c.name).append("=").append(c.value);
+            }
+            if(cookie.length()>0)
             {
-                XmlHttpProxy.Cookie c = cookies.get(it.next());
                 if(headers==null) headers = new HashMap();
-                headers.put(
-                        "Cookie", c.name + "=" + c.value // + "; Path=" + c.path
-                );
+                headers.put("Cookie", cookie.toString());
             }
-
         }
         // set headers
         if (headers != null) {
@@ -116,13 +155,14 @@ public class HttpClient {
                     String key = (String)it.next();
                     String value = (String)headers.get(key);
                     //System.out.println("Set Request Header: "+key + "->"+value);
-                    this.urlConnection.setRequestProperty (key, value);
+                    requestHeaders.put(key, value);
                 }
             }
         }
     }
 
     /**
+     * @param pool the connections to the upstream service
      * @param phost PROXY host name
      * @param pport PROXY port string
      * @param url URL string
@@ -130,7 +170,8 @@ public class HttpClient {
      * @param userName string
      * @param password string
      */
-    public HttpClient(String phost,
+    public HttpClient(ConnectionPool pool,
+                      String phost,
                       int pport,
                       String url,
                       Map headers,
@@ -140,214 +181,324 @@ public class HttpClient {
                       XmlHttpProxy.CookieCallback callback)
             throws MalformedURLException {
 
-        this.callback = callback;
+        this(pool, phost, pport, url, headers, method, callback);
 
-        try
-        {
-            if (phost != null && pport != -1) {
-                this.isProxy = true;
-            }
+        // set basic authorization
+        requestHeaders.put("Authorization", getBasicAuthHeader(userName, password));
+    }
 
-            this.proxyHost = phost;
-            this.proxyPort = pport;
-            if (url.trim().startsWith("https:")) {
-                isHttps = true;
-            }
-            this.urlConnection = getURLConnection(url);
+    /**
+     * The encoded header is kept per credential, so it isn't computed for every request.
+     */
+    static String getBasicAuthHeader(String userName, String password) {
+        String credential = userName + ":" + password;
+        String header = authHeaders.get(credential);
+        if(null==header)
+        {
             try {
-                this.urlConnection.setRequestMethod(method);
-            } catch (java.net.ProtocolException pe) {
-                HttpClient.getLogger().severe("Unable protocol method to " + method + " : " + pe);
+                header = "Basic " + Base64.encodeBytes(credential.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
             }
-            // set basic authentication information
-            String auth = userName + ":" +  password;
-            String encoded = new sun.misc.BASE64Encoder().encode (auth.getBytes());
-            // set basic authorization
-            this.urlConnection.setRequestProperty ("Authorization", "Basic " + encoded);
-            this.headers = headers;
-            writeHeaders(headers);
-        } catch (Exception ex) {
-            HttpClient.getLogger().severe("Unable to set basic authorization for " + userName  + " : " +ex);
+
+            if(authHeaders.size() >= MAX_CACHED_CREDENTIALS)
+                authHeaders.clear();
+            authHeaders.put(credential, header);
         }
+        return header;
+    }
+
+    public String getSetCookieHeader()
+    {
+        return setCookieHeader;
     }
 
     /**
-     * private method to get the URLConnection
-     * @param str URL string
+     * @return the response status, or -1 if the request failed
      */
-    private HttpURLConnection getURLConnection(String str)
-            throws MalformedURLException {
-        try {
-
-            if (isHttps) {
-                /* when communicating with the server which has unsigned or invalid
-                * certificate (https), SSLException or IOException is thrown.
-                * the following line is a hack to avoid that
-                */
-                Security.addProvider(new com.sun.net.ssl.internal.ssl.Provider());
-                System.setProperty("java.protocol.handler.pkgs", "com.sun.net.ssl.internal.www.protocol");
-                if (isProxy) {
-                    System.setProperty("https.proxyHost", proxyHost);
-                    System.setProperty("https.proxyPort", proxyPort + "");
-                }
-            }
-            else
-            {
-                if (isProxy)
-                {
-                    System.setProperty("http.proxyHost", proxyHost);
-                    System.setProperty("http.proxyPort", proxyPort  + "");
-                }
-            }
+    public int getResponseCode() {
+        if(!executed)
+            getInputStream();
+        return responseCode;
+    }
 
-            URL url = new URL(str);
-            HttpURLConnection uc = (HttpURLConnection)url.openConnection();
+    /**
+     * @return the reason the request failed, if it did
+     */
+    public IOException getFailure() {
+        return failure;
+    }
 
-            // if this header has not been set by a request set the user agent.
-            if (headers == null ||
-                    (headers != null &&  headers.get("user-agent") == null)) {
-                // set user agent to mimic a common browser
-                String ua="Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.1; .NET CLR 1.1.4322)";
-                uc.setRequestProperty("user-agent", ua);
-            }
+    /**
+     * returns the response body
+     * @return InputStream
+     */
+    public InputStream getInputStream() {
+        if(!executed)
+            execute(null, -1);
 
-            uc.setInstanceFollowRedirects(false);
+        if(failure!=null)
+            return null;
 
-            return uc;
-        }
-        catch (MalformedURLException me)
+        try
         {
-            throw new MalformedURLException(str + " is not a valid URL");
+            // HACK: manually follow redirects, for the login to work
+            if(responseCode ==302)
+            {
+                HttpClient redirectClient =
+                        new HttpClient(pool, proxyHost,proxyPort, getHeader("Location"),
+                                headers, method, callback);
+                InputStream in = redirectClient.getInputStream();
+                if(in!=null)
+                    in.close();
+            }
         }
-        catch (Exception e)
+        catch (Throwable e)
         {
-            throw new RuntimeException("Unknown error creating UrlConnection: " + e);
+            System.out.println("Following redirect failed");
         }
+
+        setCookieHeader = getHeader("Set-Cookie");
+
+        return responseBody;
     }
 
-    public String getSetCookieHeader()
-    {
-        return setCookieHeader;
+    /**
+     * posts data to the inputstream and returns the InputStream.
+     *
+     * @param postData data to be posted. must be url-encoded already.
+     * @param contentType allows you to set the contentType of the request.
+     * @param authHeader
+     * @return InputStream the response body
+     */
+    public InputStream doPost(byte[] postData, String contentType, String authHeader) {
+        return doPost(new ByteArrayInputStream(postData), postData.length, contentType, authHeader);
     }
 
-    public int getResponseCode() {
-        try {
-            return this.urlConnection.getResponseCode();
-        } catch (IOException e) {
-            throw new RuntimeException("No response code", e);
-        }
+    /**
+     * Streams the request body to the server and returns the InputStream.
+     * The body isn't buffered, even if the length is unknown. Only its first bytes are kept,
+     * so that a small body can be sent again if the connection turns out to be stale.
+     *
+     * @param body data to be posted
+     * @param contentLength the length of the body, or -1 if unknown
+     * @param contentType allows you to set the contentType of the request.
+     * @param authHeader
+     * @return InputStream the response body
+     */
+    public InputStream doPost(InputStream body, int contentLength, String contentType, String authHeader) {
+        if (contentType != null) requestHeaders.put("Content-type", contentType);
+        if (authHeader!= null) requestHeaders.put("Authorization", authHeader);
+
+        execute(body, contentLength);
+        return this.getInputStream();
     }
+
     /**
-     * returns the inputstream from URLConnection
-     * @return InputStream
+     * Send the request and read the response head. A kept-alive connection may have been
+     * closed by the server in the meantime: if it was closed before any byte of the response
+     * arrived and the body can be replayed, the request is sent once more over a new connection.
+     * Bodies of up to {@link #MAX_REPLAY} bytes can be replayed, even if the stream doesn't support it
+     * (i.e. the request stream of a servlet).
+     * Other failures (i.e. read timeouts) are not retried, since the server may have processed the request.
      */
-    public InputStream getInputStream() {
-        try
+    private void execute(InputStream body, int contentLength) {
+        executed = true;
+        if (body != null)
         {
-            int responseCode = this.urlConnection.getResponseCode();
+            if (!body.markSupported())
+                body = new BufferedInputStream(body, XmlHttpProxy.BUFFER_SIZE);
+            body.mark(MAX_REPLAY);
+        }
 
-            try
-            {
-                // HACK: manually follow redirects, for the login to work
-                // HTTPUrlConnection auto redirect doesn't respect the provided headers
-                if(responseCode ==302)
+        for (int attempt = 0; ; attempt++)
+        {
+            ConnectionPool.Connection connection = null;
+            try {
+                connection = pool.acquire(route);
+                sendRequest(connection, body, contentLength);
+                readResponseHead(connection);
+                responseBody = openResponseBody(connection);
+                return;
+            } catch (IOException e) {
+                if(connection!=null)
+                    pool.discard(connection);
+
+                boolean stale = connection != null && connection.reused && e instanceof ConnectionClosedException;
+                if (stale && attempt == 0)
                 {
-                    HttpClient redirectClient =
-                            new HttpClient(proxyHost,proxyPort, urlConnection.getHeaderField("Location"),
-                                    headers, urlConnection.getRequestMethod(), callback);
-                    redirectClient.getInputStream().close();
+                    // the other idle connections are likely to be stale as well
+                    pool.closeIdle(route);
+                    responseHeaders.clear();
+                    try {
+                        if (body != null) body.reset();
+                        continue;
+                    } catch (IOException re) {
+                        // more than MAX_REPLAY bytes have been sent
+                    }
                 }
+
+                HttpClient.getLogger().severe("Request to " + url + " failed: " + e);
+                failure = e;
+                responseCode = -1;
+                return;
             }
-            catch (Throwable e)
-            {
-                System.out.println("Following redirect failed");
-            }
+        }
+    }
 
-            setCookieHeader = this.urlConnection.getHeaderField("Set-Cookie");
+    private void sendRequest(ConnectionPool.Connection connection, InputStream body, int contentLength) throws IOException {
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ').append(route.getRequestTarget(url)).append(" HTTP/1.1").append(CRLF);
+        head.append("Host: ").append(route.getAuthority()).append(CRLF);
+        for (Map.Entry<String, String> header : requestHeaders.entrySet())
+        {
+            String name = header.getKey();
+            if (header.getValue() == null || name.equalsIgnoreCase("Host")
+                    || name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Transfer-Encoding")
+                    || name.equalsIgnoreCase("Connection"))
+                continue;
+            head.append(name).append(": ").append(header.getValue()).append(CRLF);
+        }
 
+        if (body != null)
+        {
+            if (contentLength >= 0)
+                head.append("Content-Length: ").append(contentLength).append(CRLF);
+            else
+                head.append("Transfer-Encoding: chunked").append(CRLF);
+        }
+        else if ("POST".equals(method) || "PUT".equals(method))
+        {
+            head.append("Content-Length: 0").append(CRLF);
+        }
+        head.append(CRLF);
 
-            InputStream in = responseCode != HttpURLConnection.HTTP_OK ?
-                    this.urlConnection.getErrorStream() : this.urlConnection.getInputStream();
+        OutputStream out = connection.out;
+        out.write(head.toString().getBytes("ISO-8859-1"));
+        if (body != null)
+        {
+            if (contentLength >= 0)
+                XmlHttpProxy.copy(body, out);
+            else
+                writeChunked(body, out);
+        }
+        out.flush();
+    }
 
-            return in;
-        } catch (Exception e) {
-            return null;
+    private static void writeChunked(InputStream body, OutputStream out) throws IOException {
+        byte[] buffer = new byte[XmlHttpProxy.BUFFER_SIZE];
+        int read;
+        while ((read = body.read(buffer)) != -1)
+        {
+            if (read == 0) continue;
+            out.write((Integer.toHexString(read) + CRLF).getBytes("ISO-8859-1"));
+            out.write(buffer, 0, read);
+            out.write(CRLF.getBytes("ISO-8859-1"));
         }
+        out.write(("0" + CRLF + CRLF).getBytes("ISO-8859-1"));
     }
 
-    /**
-     * return the OutputStream from URLConnection
-     * @return OutputStream
-     */
-    public OutputStream getOutputStream() {
+    private void readResponseHead(ConnectionPool.Connection connection) throws IOException {
+        boolean first = true;
+        do
+        {
+            String status = readLine(connection.in);
+            if (null == status && first)
+                throw new ConnectionClosedException("Connection closed by " + route);
+            if (null == status)
+                throw new EOFException("Connection closed by " + route);
+            first = false;
+
+            String[] parts = status.split(" ", 3);
+            if (parts.length < 2 || !parts[0].startsWith("HTTP/"))
+                throw new IOException("Invalid status line: " + status);
+            try {
+                responseCode = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid status line: " + status);
+            }
 
-        try {
-            return (this.urlConnection.getOutputStream());
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            responseHeaders.clear();
+            String line;
+            while ((line = readLine(connection.in)) != null && line.length() > 0)
+            {
+                int colon = line.indexOf(':');
+                if (colon <= 0) continue;
+                String name = line.substring(0, colon).trim();
+                List<String> values = responseHeaders.get(name);
+                if (null == values)
+                {
+                    values = new ArrayList<String>(1);
+                    responseHeaders.put(name, values);
+                }
+                values.add(line.substring(colon + 1).trim());
+            }
+            if (null == line)
+                throw new EOFException("Premature end of response head from " + route);
+
+            // HTTP/1.0 servers close the connection unless told otherwise
+            if (parts[0].equals("HTTP/1.0") && !"keep-alive".equalsIgnoreCase(getHeader("Connection")))
+                responseHeaders.put("Connection", new ArrayList<String>(Collections.singletonList("close")));
         }
+        while (responseCode == 100);
+    }
+
+    private InputStream openResponseBody(ConnectionPool.Connection connection) throws IOException {
+        boolean keepAlive = !"close".equalsIgnoreCase(getHeader("Connection"));
+
+        if ("HEAD".equals(method) || responseCode == 204 || responseCode == 304 || responseCode / 100 == 1)
+            return new ResponseBody(pool, connection, keepAlive, false, 0);
+
+        String transferEncoding = getHeader("Transfer-Encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase().indexOf("chunked") != -1)
+            return new ResponseBody(pool, connection, keepAlive, true, 0);
+
+        long length = getContentLength();
+        if (length >= 0)
+            return new ResponseBody(pool, connection, keepAlive, false, length);
+
+        // delimited by the end of the connection
+        return new ResponseBody(pool, connection, false, false, -1);
     }
 
     /**
-     * posts data to the inputstream and returns the InputStream.
-     *
-     * @param postData data to be posted. must be url-encoded already.
-     * @param contentType allows you to set the contentType of the request.
-     * @param authHeader
-     * @return InputStream input stream from URLConnection
+     * Read a header line, without the line terminator.
+     * @return the line or null at the end of the stream
      */
-    public InputStream doPost(byte[] postData, String contentType, String authHeader) {
-        this.urlConnection.setDoOutput(true);
-        if (contentType != null) this.urlConnection.setRequestProperty( "Content-type", contentType );
-        if (authHeader!= null) this.urlConnection.setRequestProperty( "Authorization", authHeader);
-
-        OutputStream out = null;
-        try {
-            out = this.getOutputStream();
-            if(out!=null)
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1)
+        {
+            if (c == '\n')
             {
-                out.write(postData);
-                out.flush();
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r')
+                    line.setLength(length - 1);
+                return line.toString();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }finally {
-            if(out!=null)
-                try {
-                    out.close();
-                } catch (IOException e) {
-                    //
-                }
+            line.append((char) c);
         }
-
-
-        return (this.getInputStream());
+        return line.length() > 0 ? line.toString() : null;
     }
 
     public String getContentEncoding() {
-        if (this.urlConnection == null) return null;
-        return (this.urlConnection.getContentEncoding());
+        return getHeader("Content-Encoding");
     }
     public int getContentLength() {
-        if (this.urlConnection == null) return -1;
-        return (this.urlConnection.getContentLength());
+        String length = getHeader("Content-Length");
+        try {
+            return length != null ? Integer.parseInt(length.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
     public String getContentType() {
-        if (this.urlConnection == null) return null;
-        return (this.urlConnection.getContentType());
-    }
-    public long getDate() {
-        if (this.urlConnection == null) return -1;
-        return (this.urlConnection.getDate());
+        return getHeader("Content-Type");
     }
     public String getHeader(String name) {
-        if (this.urlConnection == null) return null;
-        return (this.urlConnection.getHeaderField(name));
-    }
-    public long getIfModifiedSince() {
-        if (this.urlConnection == null) return -1;
-        return (this.urlConnection.getIfModifiedSince());
+        List<String> values = responseHeaders.get(name);
+        return values != null && !values.isEmpty() ? values.get(values.size() - 1) : null;
     }
 
     public static Logger getLogger() {
@@ -357,5 +508,163 @@ public class HttpClient {
         return logger;
     }
 
+    /**
+     * A response body that hands the connection back to the pool once it has been consumed.
+     */
+    private static class ResponseBody extends InputStream {
+
+        private final ConnectionPool pool;
+        private final ConnectionPool.Connection connection;
+        private final InputStream in;
+        private final boolean keepAlive;
+        private final boolean chunked;
+
+        /** bytes left in the body or the current chunk, -1 if delimited by the end of the connection */
+        private long remaining;
+        private boolean firstChunk = true;
+        private boolean eof = false;
+        private boolean returned = false;
+
+        ResponseBody(ConnectionPool pool, ConnectionPool.Connection connection, boolean keepAlive, boolean chunked, long length) {
+            this.pool = pool;
+            this.connection = connection;
+            this.in = connection.in;
+            this.keepAlive = keepAlive;
+            this.chunked = chunked;
+            this.remaining = length;
+
+            if (!chunked && length == 0)
+                finish();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n;
+            while ((n = read(b, 0, 1)) == 0) {
+                // try again
+            }
+            return n == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (eof) return -1;
+            if (len == 0) return 0;
 
-}
\ No newline at end of file
+            try {
+                if (chunked && remaining == 0)
+                {
+                    nextChunk();
+                    if (eof) return -1;
+                }
+
+                int max = remaining < 0 ? len : (int) Math.min(len, remaining);
+                int n = in.read(b, off, max);
+                if (n == -1)
+                {
+                    if (remaining >= 0)
+                        throw new EOFException("Premature end of response body");
+                    finish();
+                    return -1;
+                }
+
+                if (remaining > 0)
+                {
+                    remaining -= n;
+                    if (remaining == 0 && !chunked)
+                        finish();
+                }
+                return n;
+            } catch (IOException e) {
+                abandon();
+                throw e;
+            }
+        }
+
+        private void nextChunk() throws IOException {
+            if (!firstChunk)
+                readLine(in); // the CRLF that terminates the previous chunk
+            firstChunk = false;
+
+            String line = readLine(in);
+            if (null == line)
+                throw new EOFException("Premature end of chunked response body");
+            int extension = line.indexOf(';');
+            String size = (extension != -1 ? line.substring(0, extension) : line).trim();
+            try {
+                remaining = Long.parseLong(size, 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size: " + line);
+            }
+
+            if (remaining == 0)
+            {
+                // trailers
+                String trailer;
+                while ((trailer = readLine(in)) != null && trailer.length() > 0) {
+                    // ignored
+                }
+                finish();
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (eof) return 0;
+            int available = in.available();
+            return remaining < 0 ? available : (int) Math.min(available, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (returned) return;
+
+            // skip a small remainder, rather than closing the connection
+            if (keepAlive && remaining >= 0)
+            {
+                byte[] buffer = new byte[XmlHttpProxy.BUFFER_SIZE];
+                long drained = 0;
+                try {
+                    while (!eof && drained < MAX_DRAIN && (chunked || remaining <= MAX_DRAIN))
+                    {
+                        int n = read(buffer, 0, buffer.length);
+                        if (n == -1) break;
+                        drained += n;
+                    }
+                } catch (IOException e) {
+                    // already abandoned
+                }
+            }
+
+            if (!returned)
+                abandon();
+        }
+
+        private void finish() {
+            eof = true;
+            if (returned) return;
+            returned = true;
+            if (keepAlive)
+                pool.release(connection);
+            else
+                pool.discard(connection);
+        }
+
+        private void abandon() {
+            eof = true;
+            if (returned) return;
+            returned = true;
+            pool.discard(connection);
+        }
+    }
+
+    /**
+     * The connection was closed before any byte of the response arrived
+     */
+    static class ConnectionClosedException extends EOFException {
+        ConnectionClosedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import org.jboss.dmr.client.ModelNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Polls read-only management operations on behalf of any number of subscribers.<p/>
+ *
+ * Subscribers of the same operation, endpoint and credentials share a single upstream
+ * poll. They are notified only when the response differs from the previous one.
+ * Polling stops when the last subscriber of an operation has left.<p/>
+ *
+ * Polls are sent long after the browser request that subscribed, so they authenticate
+ * with user name and password rather than with an authorization header of the browser
+ * (a digest response is bound to the URI, method and nonce of the browser request).
+ */
+public class PollingHub {
+
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+
+    private static final Set<String> READ_ONLY = new HashSet<String>(Arrays.asList(
+            READ_RESOURCE_OPERATION, READ_ATTRIBUTE_OPERATION,
+            READ_CHILDREN_NAMES_OPERATION, READ_CHILDREN_TYPES_OPERATION,
+            READ_CHILDREN_RESOURCES_OPERATION, READ_RESOURCE_METRICS,
+            READ_RESOURCE_DESCRIPTION_OPERATION, READ_OPERATION_NAMES_OPERATION,
+            READ_OPERATION_DESCRIPTION_OPERATION
+    ));
+
+    private static final Logger log = Logger.getLogger(PollingHub.class.getName());
+
+    public interface Listener {
+        /**
+         * @param payload the Base64 encoded response
+         */
+        void onChange(String payload);
+
+        void onError(Exception e);
+    }
+
+    private final Map<String, Topic> topics = new HashMap<String, Topic>();
+    private final ScheduledExecutorService executor;
+    private final long interval;
+    private final XmlHttpProxy upstream;
+
+    /**
+     * @param interval the poll interval in milliseconds
+     * @param threads the number of threads issuing upstream requests
+     * @param upstream the proxy used for upstream requests. It's owned by the caller.
+     */
+    public PollingHub(long interval, int threads, XmlHttpProxy upstream) {
+        this.interval = interval;
+        this.upstream = upstream;
+        this.executor = Executors.newScheduledThreadPool(threads, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "console-poll-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return true if the Base64 encoded operation is a read-only operation or a composite of them
+     */
+    public static boolean isReadOnly(String operation) {
+        try {
+            return isReadOnly(ModelNode.fromBase64(operation));
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static boolean isReadOnly(ModelNode operation) {
+        if(!operation.hasDefined(OP))
+            return false;
+
+        String name = operation.get(OP).asString();
+        if(COMPOSITE.equals(name))
+        {
+            if(!operation.hasDefined(STEPS))
+                return false;
+
+            for(ModelNode step : operation.get(STEPS).asList())
+            {
+                if(!isReadOnly(step))
+                    return false;
+            }
+            return true;
+        }
+        return READ_ONLY.contains(name);
+    }
+
+    /**
+     * @param url the management endpoint
+     * @param operation the Base64 encoded operation, see {@link #isReadOnly(String)}
+     * @param userName the user name passed upstream, may be null
+     * @param password the password passed upstream, may be null
+     */
+    public synchronized Subscription subscribe(String url, String operation, String userName, String password,
+                                               Listener listener) throws IOException {
+        if(!isReadOnly(operation))
+            throw new IllegalArgumentException("Not a read-only operation");
+
+        String credentials = XmlHttpProxyServlet.credentials(userName, password, null,
+                Collections.<String, XmlHttpProxy.Cookie>emptyMap());
+        String key = url + "|" + credentials + "|" + operation;
+        Topic topic = topics.get(key);
+        if(null==topic)
+        {
+            topic = new Topic(key, url, operation, userName, password);
+            topics.put(key, topic);
+            topic.future = executor.scheduleWithFixedDelay(topic, 0, interval, TimeUnit.MILLISECONDS);
+        }
+
+        topic.listeners.add(listener);
+
+        String last = topic.last;
+        if(last!=null)
+            listener.onChange(last);
+
+        return new Subscription(topic, listener);
+    }
+
+    private synchronized void unsubscribe(Topic topic, Listener listener) {
+        topic.listeners.remove(listener);
+        if(topic.listeners.isEmpty() && topics.get(topic.key)==topic)
+        {
+            topics.remove(topic.key);
+            topic.future.cancel(false);
+        }
+    }
+
+    /**
+     * @return the number of distinct operations being polled
+     */
+    public synchronized int size() {
+        return topics.size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public class Subscription {
+        private final Topic topic;
+        private final Listener listener;
+
+        Subscription(Topic topic, Listener listener) {
+            this.topic = topic;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            unsubscribe(topic, listener);
+        }
+    }
+
+    class Topic implements Runnable {
+        private final String key;
+        private final String url;
+        private final String operation;
+        private final String userName;
+        private final String password;
+        private final Set<Listener> listeners = new CopyOnWriteArraySet<Listener>();
+        private volatile String last;
+        private ScheduledFuture<?> future;
+
+        Topic(String key, String url, String operation, String userName, String password) {
+            this.key = key;
+            this.url = url;
+            this.operation = operation;
+            this.userName = userName;
+            this.password = password;
+        }
+
+        public void run() {
+            try {
+                Map<String, String> headers = new HashMap<String, String>();
+                headers.put("Accept", DMR_ENCODED);
+
+                ByteArrayOutputStream response = new ByteArrayOutputStream();
+                upstream.doPost(url, response, null, null, headers,
+                        operation.getBytes("UTF-8"), DMR_ENCODED, userName, password, null);
+
+                // line breaks are not significant in Base64, but would break the event stream
+                String payload = response.toString("UTF-8").replace("\r", "").replace("\n", "");
+                if(payload.equals(last))
+                    return;
+
+                last = payload;
+                for(Listener listener : listeners)
+                    listener.onChange(payload);
+
+            } catch (Exception e) {
+                log.log(Level.FINE, "Failed to poll " + url, e);
+                for(Listener listener : listeners)
+                    listener.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PropertyResourceBundle;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Streams changes of management resources to the browser as server-sent events.<p/>
+ *
+ * The client passes the read-only operations it's interested in as Base64 encoded
+ * <code>op</code> parameters. Each change is sent as a message <code>&lt;index&gt;:&lt;response&gt;</code>,
+ * where the index refers to the position of the operation in the request and the response is Base64 encoded DMR.
+ * The operations are polled through a {@link PollingHub} that is shared by all clients.
+ * Polls authenticate with the <code>service.username</code> and <code>service.password</code>
+ * of the proxy configuration, or with the credentials of the <code>xtest-user</code> and
+ * <code>xtest-pass</code> headers of the stream request, like the {@link XmlHttpProxyServlet}.<p/>
+ *
+ * Streams are closed after <code>push.maxDuration</code> (ms) and re-opened by the browser, so that the
+ * subscriptions of abandoned clients are eventually released. Each open stream occupies
+ * a request thread, so their number is limited by the <code>push.maxStreams</code> init parameter,
+ * which should stay well below the size of the container's thread pool.
+ * Beyond that limit clients receive a 503 and poll through the regular proxy instead.
+ */
+public class PushServlet extends HttpServlet {
+
+    private static final String DEFAULT_CONFIG = "gwt-proxy.properties";
+    private static final long HEARTBEAT = 15000;
+    private static final long DEFAULT_MAX_DURATION = 60 * 1000;
+    private static final long DEFAULT_INTERVAL = 5000;
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_MAX_STREAMS = 8;
+
+    private static final Logger log = Logger.getLogger(PushServlet.class.getName());
+
+    private XmlHttpProxy upstream;
+    private PollingHub hub;
+    private String serviceUrl;
+    private String userName;
+    private String password;
+    private Semaphore streams;
+    private long maxDuration;
+
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+
+        String configName = config.getInitParameter("config.name");
+        String configResource = configName!=null ? configName : DEFAULT_CONFIG;
+
+        InputStream is = PushServlet.class.getClassLoader().getResourceAsStream(configResource);
+        if(null==is)
+            throw new ServletException("Failed to load proxy configuration: "+configResource);
+
+        try {
+            PropertyResourceBundle bundle = new PropertyResourceBundle(is);
+            serviceUrl = bundle.getString("service.url");
+            if(bundle.containsKey("service.username")) userName = bundle.getString("service.username");
+            if(bundle.containsKey("service.password")) password = bundle.getString("service.password");
+        } catch (IOException e) {
+            throw new ServletException("Failed to load proxy configuration", e);
+        } finally {
+            try { is.close(); } catch (IOException e) {}
+        }
+
+        // same upstream proxy as the XmlHttpProxyServlet
+        String proxyHost = config.getServletContext().getInitParameter("proxyHost");
+        String proxyPort = config.getServletContext().getInitParameter("proxyPort");
+
+        String interval = config.getInitParameter("poll.interval");
+        String threads = config.getInitParameter("poll.threads");
+        String maxStreams = config.getInitParameter("push.maxStreams");
+        String duration = config.getInitParameter("push.maxDuration");
+        try {
+            streams = new Semaphore(maxStreams!=null ? Integer.parseInt(maxStreams) : DEFAULT_MAX_STREAMS);
+            maxDuration = duration!=null ? Long.parseLong(duration) : DEFAULT_MAX_DURATION;
+            upstream = proxyHost!=null && proxyPort!=null ?
+                    new XmlHttpProxy(proxyHost, Integer.parseInt(proxyPort)) : new XmlHttpProxy();
+            hub = new PollingHub(
+                    interval!=null ? Long.parseLong(interval) : DEFAULT_INTERVAL,
+                    threads!=null ? Integer.parseInt(threads) : DEFAULT_THREADS,
+                    upstream
+            );
+        } catch (NumberFormatException e) {
+            throw new ServletException("Invalid push configuration", e);
+        }
+    }
+
+    public void destroy() {
+        hub.shutdown();
+        upstream.shutdown();
+        super.destroy();
+    }
+
+    public void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+
+        String[] operations = req.getParameterValues("op");
+        if(null==operations || operations.length==0)
+        {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST, "No operations given");
+            return;
+        }
+
+        for(String operation : operations)
+        {
+            if(!PollingHub.isReadOnly(operation))
+            {
+                res.sendError(HttpServletResponse.SC_BAD_REQUEST, "Only read-only operations can be subscribed to");
+                return;
+            }
+        }
+
+        if(!streams.tryAcquire())
+        {
+            res.setHeader("Retry-After", String.valueOf(DEFAULT_INTERVAL / 1000));
+            res.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many event streams");
+            return;
+        }
+
+        try {
+            stream(req, res, operations);
+        } finally {
+            streams.release();
+        }
+    }
+
+    private void stream(HttpServletRequest req, HttpServletResponse res, String[] operations) throws IOException {
+
+        // the browser's authorization header is bound to this request and can't be replayed
+        String testUser = req.getHeader("xtest-user");
+        String user = testUser!=null ? testUser : userName;
+        String pass = testUser!=null ? req.getHeader("xtest-pass") : password;
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<String>();
+
+        res.setContentType("text/event-stream");
+        res.setCharacterEncoding("UTF-8");
+        res.setHeader("Cache-Control", "no-cache");
+        PrintWriter writer = res.getWriter();
+        writer.write("retry: " + DEFAULT_INTERVAL + "\n\n");
+        writer.flush();
+
+        List<PollingHub.Subscription> subscriptions = new ArrayList<PollingHub.Subscription>(operations.length);
+        try {
+            for(int i=0; i<operations.length; i++)
+            {
+                final int index = i;
+                subscriptions.add(hub.subscribe(serviceUrl, operations[i], user, pass, new PollingHub.Listener() {
+                    public void onChange(String payload) {
+                        events.offer("data: " + index + ":" + payload + "\n\n");
+                    }
+
+                    public void onError(Exception e) {
+                        events.offer("event: failure\ndata: " + index + ":" + String.valueOf(e.getMessage()).replace('\n', ' ') + "\n\n");
+                    }
+                }));
+            }
+
+            long end = System.currentTimeMillis() + maxDuration;
+            while(System.currentTimeMillis() < end)
+            {
+                String event = events.poll(HEARTBEAT, TimeUnit.MILLISECONDS);
+                writer.write(event!=null ? event : ": keep-alive\n\n");
+                writer.flush();
+
+                // the client went away
+                if(writer.checkError())
+                    break;
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for(PollingHub.Subscription subscription : subscriptions)
+                subscription.cancel();
+            log.fine("Closed event stream with " + operations.length + " subscriptions");
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import org.jboss.dmr.client.Base64;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiated gzip or deflate compression of proxied responses.<p/>
+ *
+ * The response is compressed as it's written. Only the first bytes, up to the threshold,
+ * are held back: smaller responses are sent uncompressed.
+ */
+class ResponseCompression {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    /**
+     * Request and response header for the {@link Base64#GZIP} framing of DMR payloads.
+     */
+    static final String DMR_COMPRESSION = "X-DMR-Compression";
+
+    private final int threshold;
+
+    /**
+     * @param threshold the minimum size (bytes) of compressed responses
+     */
+    ResponseCompression(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding request header
+     * @return gzip or deflate, whichever the client prefers, or null
+     */
+    static String negotiate(String acceptEncoding) {
+        if (null == acceptEncoding)
+            return null;
+
+        String preferred = null;
+        float preferredQuality = 0;
+        for (String token : acceptEncoding.split(","))
+        {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (!GZIP.equals(coding) && !DEFLATE.equals(coding))
+                continue;
+
+            float quality = 1;
+            for (int i = 1; i < parts.length; i++)
+            {
+                String param = parts[i].trim();
+                if (param.startsWith("q="))
+                {
+                    try {
+                        quality = Float.parseFloat(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            // gzip wins a tie
+            if (quality > preferredQuality || (quality == preferredQuality && GZIP.equals(coding)))
+            {
+                preferred = coding;
+                preferredQuality = quality;
+            }
+        }
+        return preferredQuality > 0 ? preferred : null;
+    }
+
+    /**
+     * Wrap the response stream. Content-Encoding is set once the output exceeds the threshold,
+     * before anything has been written to the response.
+     */
+    OutputStream wrap(HttpServletResponse response, String encoding) {
+        return new CompressingStream(response, encoding, threshold);
+    }
+
+    /**
+     * Apply the {@link Base64#GZIP} framing to a Base64 encoded DMR payload:
+     * the decoded bytes are gzipped and encoded again.<p/>
+     *
+     * The GWT flavour of {@link Base64} doesn't implement the option, it's applied here instead.
+     */
+    static byte[] gzipFramed(byte[] encoded) throws IOException {
+        byte[] decoded = Base64.decode(encoded, 0, encoded.length, Base64.NO_OPTIONS);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(decoded.length / 4 + 64);
+        GZIPOutputStream gzip = new GZIPOutputStream(bos);
+        gzip.write(decoded);
+        gzip.close();
+
+        return Base64.encodeBytesToBytes(bos.toByteArray());
+    }
+
+    private static class CompressingStream extends OutputStream {
+
+        private final HttpServletResponse response;
+        private final String encoding;
+        private final byte[] pending;
+        private int count = 0;
+
+        private Deflater deflater;
+        private OutputStream target;
+        private boolean closed = false;
+
+        CompressingStream(HttpServletResponse response, String encoding, int threshold) {
+            this.response = response;
+            this.encoding = encoding;
+            this.pending = new byte[threshold];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target != null)
+            {
+                target.write(b, off, len);
+            }
+            else if (count + len <= pending.length)
+            {
+                System.arraycopy(b, off, pending, count, len);
+                count += len;
+            }
+            else
+            {
+                startCompression();
+                target.write(pending, 0, count);
+                target.write(b, off, len);
+            }
+        }
+
+        private void startCompression() throws IOException {
+            response.setHeader("Content-Encoding", encoding);
+            OutputStream out = response.getOutputStream();
+            if (GZIP.equals(encoding))
+            {
+                target = new GZIPOutputStream(out, XmlHttpProxy.BUFFER_SIZE);
+            }
+            else
+            {
+                deflater = new Deflater();
+                target = new DeflaterOutputStream(out, deflater, XmlHttpProxy.BUFFER_SIZE);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null)
+                target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+
+            if (null == target)
+            {
+                // below the threshold
+                response.setContentLength(count);
+                OutputStream out = response.getOutputStream();
+                out.write(pending, 0, count);
+                out.close();
+                return;
+            }
+
+            try {
+                target.close();
+            } finally {
+                if (deflater != null)
+                    deflater.end();
+            }
+        }
+    }
+}
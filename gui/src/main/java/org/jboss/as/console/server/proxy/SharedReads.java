@@ -0,0 +1,186 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent sessions share the responses of identical read-only operations.<p/>
+ *
+ * An operation is sent upstream once per time window: requests arriving while it is in flight
+ * wait for its response, requests arriving shortly afterwards are served the same response.
+ * Any other operation passing through the proxy discards the shared responses,
+ * so that changes are visible to subsequent reads.
+ */
+class SharedReads {
+
+    /**
+     * Larger responses are handed to the waiting requests, but not retained for the time window.
+     */
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final int SWEEP_INTERVAL = 100;
+
+    interface Upstream {
+        XmlHttpProxy.Response open() throws IOException;
+    }
+
+    private final long window;
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger flightCount = new AtomicInteger();
+
+    /**
+     * @param window the time (ms) a response is shared after it has been received
+     */
+    SharedReads(long window) {
+        this.window = window;
+    }
+
+    /**
+     * @param key identifies the operation, endpoint and credentials
+     * @param upstream sends the operation, unless an identical one is in flight or has just completed
+     */
+    XmlHttpProxy.Response execute(String key, Upstream upstream) throws IOException {
+        while(true)
+        {
+            long current = generation.get();
+            Flight flight = flights.get(key);
+            if(flight!=null && flight.isShared(current, System.currentTimeMillis()))
+                return flight.await();
+
+            Flight fresh = new Flight(current);
+            boolean owner = null==flight ?
+                    flights.putIfAbsent(key, fresh) == null : flights.replace(key, flight, fresh);
+            if(!owner)
+                continue;
+
+            if(flightCount.incrementAndGet() % SWEEP_INTERVAL == 0)
+                sweep();
+
+            fresh.run(upstream);
+            if(!fresh.isRetained())
+                flights.remove(key, fresh);
+            return fresh.await();
+        }
+    }
+
+    /**
+     * Stop sharing the responses received so far, i.e. after a write operation.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return the number of operations sent upstream
+     */
+    int getFlightCount() {
+        return flightCount.get();
+    }
+
+    private void sweep() {
+        long current = generation.get();
+        long now = System.currentTimeMillis();
+        Iterator<Flight> it = flights.values().iterator();
+        while(it.hasNext())
+        {
+            Flight flight = it.next();
+            if(flight.isCompleted() && !flight.isShared(current, now))
+                it.remove();
+        }
+    }
+
+    private class Flight {
+        private final long generation;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile long completedAt = -1;
+
+        private int status;
+        private String contentType;
+        private String contentEncoding;
+        private byte[] body;
+        private IOException failure;
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+
+        boolean isCompleted() {
+            return completedAt >= 0;
+        }
+
+        boolean isShared(long currentGeneration, long now) {
+            if(generation != currentGeneration)
+                return false;
+            return !isCompleted() || (isRetained() && now - completedAt <= window);
+        }
+
+        boolean isRetained() {
+            return isCompleted() && null==failure && 200==status && body.length <= MAX_RETAINED_SIZE;
+        }
+
+        void run(Upstream upstream) {
+            try {
+                XmlHttpProxy.Response response = upstream.open();
+                try {
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                    XmlHttpProxy.copy(response.getBody(), bos);
+                    status = response.getStatus();
+                    contentType = response.getContentType();
+                    contentEncoding = response.getContentEncoding();
+                    body = bos.toByteArray();
+                } finally {
+                    response.close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e.getMessage());
+                failure.initCause(e);
+            } finally {
+                completedAt = System.currentTimeMillis();
+                done.countDown();
+            }
+        }
+
+        XmlHttpProxy.Response await() throws IOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a shared response");
+            }
+
+            if(failure!=null)
+                throw failure;
+            return new XmlHttpProxy.Response(status, contentType, contentEncoding, new ByteArrayInputStream(body));
+        }
+    }
+}
@@ -26,24 +26,32 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
+ * Forwards requests to an upstream service.<p/>
+ *
+ * Instances are shared by concurrent requests. The state of a single exchange is kept in
+ * the {@link Response}. Cookies of the upstream service are kept in the jar passed by the caller
+ * (i.e. one per HTTP session) and otherwise shared by all callers.
+ * Upstream connections are pooled per instance, they are closed by {@link #shutdown()}.
+ *
  * @author Greg Murray
  * @author Heiko Braun
  */
 public class XmlHttpProxy {
 
+    static final int BUFFER_SIZE = 8192;
+
     public static String GET = "GET";
     public static String POST = "POST";
     public static String DELETE = "DELETE";
@@ -55,24 +63,12 @@ public class XmlHttpProxy {
     private String proxyHost = "";
     int proxyPort = -1;
     private Object config;
+    private final ConnectionPool pool = new ConnectionPool();
     private static String USAGE = "Usage:  -url service_URL  -id service_key [-url or -id required] -xslurl xsl_url [optional] -format json|xml [optional] -callback[optional] -config [optional] -resources base_directory_containing XSL stylesheets [optional]";
-    private String authHeader;
 
     public XmlHttpProxy() {}
 
-    private String contentType = "application/json";
-
-    private Map<String, Cookie> cookies = new HashMap<String, Cookie>();
-
-    int status = -1;
-
-    public String getContentType() {
-        return contentType;
-    }
-
-    public int getStatus() {
-        return status;
-    }
+    private Map<String, Cookie> cookies = new ConcurrentHashMap<String, Cookie>();
 
     public interface CookieCallback
     {
@@ -92,6 +88,21 @@ public class XmlHttpProxy {
         this.password = password;
     }
 
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    /**
+     * @return the cookies shared by callers that don't pass their own jar
+     */
+    public Map<String, Cookie> getCookies() {
+        return cookies;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
     /**
      * This method will go out and make the call and it will apply an XSLT Transformation with the
      * set of parameters provided.
@@ -103,7 +114,7 @@ public class XmlHttpProxy {
      * @param method - The HTTP method used.
      *
      */
-    public void processRequest(String urlString,
+    public Response processRequest(String urlString,
                                OutputStream out,
                                InputStream xslInputStream,
                                Map paramsMap,
@@ -111,7 +122,7 @@ public class XmlHttpProxy {
                                String method,
                                String userName,
                                String password) throws IOException, MalformedURLException {
-        doProcess(urlString, out, xslInputStream, paramsMap, headers,method, null,null, userName,password);
+        return doProcess(urlString, out, xslInputStream, paramsMap, headers, method, null, null, userName, password, null);
     }
     /**
      * This method will go out and make the call and it will apply an XSLT Transformation with the
@@ -122,7 +133,7 @@ public class XmlHttpProxy {
      * @param authHeader
      *
      */
-    public void doPost(String urlString,
+    public Response doPost(String urlString,
                        OutputStream out,
                        InputStream xslInputStream,
                        Map paramsMap,
@@ -131,8 +142,7 @@ public class XmlHttpProxy {
                        String postContentType,
                        String userName,
                        String password, String authHeader) throws IOException, MalformedURLException {
-        this.authHeader = authHeader;
-        doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST, postData, postContentType, userName, password);
+        return doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST, postData, postContentType, userName, password, authHeader);
     }
 
     /**
@@ -148,29 +158,85 @@ public class XmlHttpProxy {
      * @param postContentType - The request contentType used when posting data. Will not be set if this parameter is null.
      * @param userName - userName used for basic authorization
      * @param password - password used for basic authorization
+     * @param authHeader - passed on as the Authorization header, if not null
+     * @return the upstream response. The body has already been written to <code>out</code>.
      */
-    public void doProcess(String urlString,
-                          OutputStream out,
-                          InputStream xslInputStream,
-                          Map paramsMap,
-                          Map headers,
-                          String method,
-                          byte[] postData,
-                          String postContentType,
-                          String userName,
-                          String password) throws IOException, MalformedURLException {
+    public Response doProcess(String urlString,
+                              OutputStream out,
+                              InputStream xslInputStream,
+                              Map paramsMap,
+                              Map headers,
+                              String method,
+                              byte[] postData,
+                              String postContentType,
+                              String userName,
+                              String password,
+                              String authHeader) throws IOException, MalformedURLException {
 
         if (paramsMap == null) {
             paramsMap = new HashMap();
         }
 
-        String format = (String)paramsMap.get("format");
-        if (format == null) {
-            format = "xml";
+        InputStream body = postData!=null ? new ByteArrayInputStream(postData) : null;
+        int contentLength = postData!=null ? postData.length : -1;
+        Response response = open(urlString, headers, method, body, contentLength, postContentType, userName, password, authHeader);
+
+        try {
+            if (xslInputStream == null) {
+                copy(response.getBody(), out);
+            } else {
+                transform(response.getBody(), xslInputStream, paramsMap, out, response.getCharacterEncoding());
+            }
+        } catch (Exception e) {
+            getLogger().severe("XmlHttpProxy transformation error: " + e);
+        } finally {
+            response.close();
+            try {
+                if (out != null) {
+                    out.flush();
+                    out.close();
+                }
+            } catch (Exception e) {
+                // do nothing
+            }
         }
 
-        InputStream in = null;
-        BufferedOutputStream os = null;
+        return response;
+    }
+
+    /**
+     * Send a request to the upstream service, without reading the response.
+     * Callers can set up their own response before they stream the body, and have to close the response.
+     *
+     * @param body - the request body, or null
+     * @param contentLength - the length of the body, or -1 if unknown
+     */
+    public Response open(String urlString,
+                         Map headers,
+                         String method,
+                         InputStream body,
+                         int contentLength,
+                         String contentType,
+                         String userName,
+                         String password,
+                         String authHeader) throws IOException, MalformedURLException {
+        return open(urlString, headers, method, body, contentLength, contentType, userName, password, authHeader, cookies);
+    }
+
+    /**
+     * @param jar - the cookies sent upstream. Cookies set by the upstream service are added to it.
+     * @see #open(String, Map, String, InputStream, int, String, String, String, String)
+     */
+    public Response open(String urlString,
+                         Map headers,
+                         String method,
+                         InputStream body,
+                         int contentLength,
+                         String contentType,
+                         String userName,
+                         String password,
+                         String authHeader,
+                         final Map<String, Cookie> jar) throws IOException, MalformedURLException {
 
         HttpClient httpclient = null;
 
@@ -179,24 +245,25 @@ public class XmlHttpProxy {
 
             public Map<String, Cookie> getCookies()
             {
-                return accessCookies();
+                return jar;
             }
         };
 
         if (userName != null && password != null)
         {
-            httpclient = new HttpClient(proxyHost, proxyPort, urlString, headers, method, userName, password, callback);
+            httpclient = new HttpClient(pool, proxyHost, proxyPort, urlString, headers, method, userName, password, callback);
         }
         else
         {
-            httpclient = new HttpClient(proxyHost, proxyPort, urlString, headers, method, callback);
+            httpclient = new HttpClient(pool, proxyHost, proxyPort, urlString, headers, method, callback);
         }
 
         // post data determines whether we are going to do a get or a post
-        if (postData == null) {
+        InputStream in = null;
+        if (body == null) {
             in = httpclient.getInputStream();
         } else {
-            in = httpclient.doPost(postData, postContentType, authHeader);
+            in = httpclient.doPost(body, contentLength, contentType, authHeader);
         }
 
         // Set-Cookie header
@@ -219,100 +286,48 @@ public class XmlHttpProxy {
                 }
             }
 
-
-            List<String> toBeRemoved = new ArrayList<String>();
-            Iterator it = cookies.keySet().iterator();
-            while(it.hasNext())
+            // cookies are keyed by name: avoid doubles
+            Cookie exists = jar.put(c.name, c);
+            if(exists!=null)
             {
-                Cookie exists = cookies.get(it.next());
-                if(exists.name.equals(c.name))
-                {
-                    String msg = exists.value.equals(c.value) ?
-                            "Replace with same value: "+exists.value :
-                            "Replace with different value: "+exists.value +"->"+c.value;
-
-                    System.out.println("Cookie '"+exists.name+"' exists: " + msg);
-                    // avoid doubles
-                    toBeRemoved.add(exists.name);
-                }
-            }
+                String msg = exists.value.equals(c.value) ?
+                        "Replace with same value: "+exists.value :
+                        "Replace with different value: "+exists.value +"->"+c.value;
 
-            // clean up
-            for(String s : toBeRemoved)
-            {
-                cookies.remove(s);
+                System.out.println("Cookie '"+exists.name+"' exists: " + msg);
             }
-
-            cookies.put(c.name, c);
         }
 
         if(null==in)
         {
-            int responseCode = httpclient.getResponseCode();
-            if(401== responseCode || 403==responseCode)
-                throw new AuthenticationException(responseCode, httpclient.getHeader("WWW-Authenticate"));
+            if(httpclient.getFailure()!=null)
+                throw httpclient.getFailure();
             else
-                throw new IOException("Failed to open input stream, status: "+responseCode);
+                throw new IOException("Failed to open input stream, status: "+httpclient.getResponseCode());
         }
 
-        // read the encoding from the incoming document and default to UTF-8
-        // if an encoding is not provided
-        String ce = httpclient.getContentEncoding();
-        if (ce == null) {
-            String ct = httpclient.getContentType();
-            if (ct != null) {
-                int idx = ct.lastIndexOf("charset=");
-                if (idx >= 0) {
-                    ce = ct.substring(idx+8);
-                } else {
-                    ce = "UTF-8";
-                }
-            } else {
-                ce = "UTF-8";
-            }
+        int responseCode = httpclient.getResponseCode();
+        if(401== responseCode || 403==responseCode)
+        {
+            in.close();
+            throw new AuthenticationException(responseCode, httpclient.getHeader("WWW-Authenticate"));
         }
-        // get the content type
-        this.contentType = httpclient.getContentType();
-        this.status = httpclient.getResponseCode();
-
-        // write out the content type
-        //http://www.ietf.org/rfc/rfc4627.txt
-
-        try {
 
-            // response stream
-
-            byte[] buffer = new byte[1024];
-            int read = 0;
-            if (xslInputStream == null) {
-                while (true) {
-                    read = in.read(buffer);
-                    if (read <= 0) break;
-                    out.write(buffer, 0, read );
-                }
-            } else {
-                transform(in, xslInputStream, paramsMap, out, ce);
-            }
-        } catch (Exception e) {
-            getLogger().severe("XmlHttpProxy transformation error: " + e);
-        } finally {
-            try {
-                if (in != null) {
-                    in.close();
-                }
-                if (out != null) {
-                    out.flush();
-                    out.close();
-                }
-            } catch (Exception e) {
-                // do nothing
-            }
-        }
+        return new Response(responseCode, httpclient.getContentType(), httpclient.getContentEncoding(), in);
     }
 
-    private Map<String,Cookie> accessCookies()
-    {
-        return cookies;
+    /**
+     * Copy a stream in bulk, without closing either side.
+     */
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
     }
 
     /**
@@ -459,6 +474,62 @@ public class XmlHttpProxy {
         return ProxyConfig.parse(is);
     }
 
+    /**
+     * The status and headers of an upstream response, along with its body.
+     */
+    public static class Response
+    {
+        private final int status;
+        private final String contentType;
+        private final String contentEncoding;
+        private final InputStream body;
+
+        Response(int status, String contentType, String contentEncoding, InputStream body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        String getContentEncoding() {
+            return contentEncoding;
+        }
+
+        /**
+         * @return the character encoding of the body, defaults to UTF-8
+         */
+        public String getCharacterEncoding() {
+            if (contentEncoding != null)
+                return contentEncoding;
+            if (contentType != null) {
+                int idx = contentType.lastIndexOf("charset=");
+                if (idx >= 0)
+                    return contentType.substring(idx+8);
+            }
+            return "UTF-8";
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+
+        public void close() {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // do nothing
+            }
+        }
+    }
+
     public class Cookie
     {
         String name;
@@ -28,7 +28,8 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import java.io.BufferedInputStream;
+import org.jboss.dmr.client.Base64;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -37,6 +38,8 @@ import java.io.PrintWriter;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -44,6 +47,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.PropertyResourceBundle;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -81,6 +86,14 @@ import java.util.logging.Logger;
  *    service.passThrough=true
  * </pre>
  *
+ * With the init parameter <code>async=true</code> upstream calls don't hold a container thread,
+ * see {@link AsyncDispatcher}. This requires a Servlet 3 container and a 3.0 descriptor that declares
+ * <code>async-supported</code> for the servlet; the console itself ships a 2.5 descriptor.
+ * <code>async.maxOutstanding</code> and <code>async.timeout</code> (ms) limit the outstanding requests.
+ * The upstream connection pool is sized to serve all outstanding requests.
+ * With <code>shared.window</code> (ms), identical read-only operations are sent upstream once per window.
+ * With <code>compression.threshold</code> (bytes), larger responses are compressed, see {@link ResponseCompression}.
+ *
  * @author Greg Murray
  * @author Heiko Braun
  */
@@ -96,22 +109,27 @@ public class XmlHttpProxyServlet extends HttpServlet
     private static boolean requireSession = false;
     private static boolean createSession = false;
     private static String defaultContentType = "application/dmr-encoded;charset=UTF-8";
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final String DMR_BINARY = "application/dmr-binary";
+    private static final String COOKIE_JAR = XmlHttpProxy.class.getName() + ".cookies";
+    private static final Object COOKIE_JAR_LOCK = new Object();
+    private static final int DEFAULT_MAX_OUTSTANDING = 20;
+    private static final long DEFAULT_ASYNC_TIMEOUT = 150000;
     private static boolean rDebug = false;
     private Logger logger = null;
     private XmlHttpProxy xhp = null;
+    private AsyncDispatcher asyncDispatcher = null;
+    private SharedReads sharedReads = null;
+    private ResponseCompression compression = null;
     private ServletContext ctx;
-    private List<Map<String,Object>> services = null;
+    private volatile List<Map<String,Object>> services = null;
     private String resourcesDir = "/resources/";
     private String classpathResourcesDir = "/META-INF/resources/";
     private String headerToken = "jmaki-";
     private String testToken = "xtest-";
 
-    private static String testUser;
-    private static String testPass;
-
     private static String setCookie;
     private String configResource = null;
-    private String authHeader;
 
     public XmlHttpProxyServlet() {
         if (rDebug) {
@@ -186,6 +204,58 @@ public class XmlHttpProxyServlet extends HttpServlet
             xhp = new XmlHttpProxy();
         }
 
+        // upstream connections are kept per servlet
+        String maxConnections = config.getInitParameter("upstream.maxConnections");
+        if (maxConnections != null) {
+            try {
+                xhp.getConnectionPool().setMaxConnections(Integer.parseInt(maxConnections));
+            } catch (NumberFormatException nfe) {
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The upstream.maxConnections must be a number");
+            }
+        }
+
+        // release the container threads while waiting for upstream responses
+        if ("true".equals(config.getInitParameter("async"))) {
+            int maxOutstanding = DEFAULT_MAX_OUTSTANDING;
+            long timeout = DEFAULT_ASYNC_TIMEOUT;
+            try {
+                if (config.getInitParameter("async.maxOutstanding") != null)
+                    maxOutstanding = Integer.parseInt(config.getInitParameter("async.maxOutstanding"));
+                if (config.getInitParameter("async.timeout") != null)
+                    timeout = Long.parseLong(config.getInitParameter("async.timeout"));
+            } catch (NumberFormatException nfe) {
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The async.maxOutstanding and async.timeout must be numbers");
+            }
+
+            asyncDispatcher = AsyncDispatcher.create(maxOutstanding, timeout);
+            if (null == asyncDispatcher)
+                getLogger().info("XmlHttpProxyServlet: the container doesn't support async requests, falling back to synchronous processing");
+            else if (xhp.getConnectionPool().getMaxConnections() < maxOutstanding)
+                // otherwise the workers wait for a connection instead of being rejected up front
+                xhp.getConnectionPool().setMaxConnections(maxOutstanding);
+        }
+
+        // share responses of identical reads across sessions
+        String sharedWindow = config.getInitParameter("shared.window");
+        if (sharedWindow != null) {
+            try {
+                long window = Long.parseLong(sharedWindow);
+                if (window > 0) sharedReads = new SharedReads(window);
+            } catch (NumberFormatException nfe) {
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The shared.window must be a number");
+            }
+        }
+
+        // compress responses above the threshold (bytes)
+        String compressionThreshold = config.getInitParameter("compression.threshold");
+        if (compressionThreshold != null) {
+            try {
+                compression = new ResponseCompression(Integer.parseInt(compressionThreshold));
+            } catch (NumberFormatException nfe) {
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The compression.threshold must be a number");
+            }
+        }
+
         // config override
         String servletName = config.getServletName();
         String configName = config.getInitParameter("config.name");
@@ -195,7 +265,8 @@ public class XmlHttpProxyServlet extends HttpServlet
 
     private void getServices(HttpServletResponse res)
     {
-        services = new ArrayList<Map<String,Object>>();
+        // concurrent requests must not see a partially loaded configuration
+        List<Map<String,Object>> services = new ArrayList<Map<String,Object>>();
 
         InputStream is = XmlHttpProxyServlet.class.getClassLoader()
                 .getResourceAsStream(configResource);
@@ -210,6 +281,7 @@ public class XmlHttpProxyServlet extends HttpServlet
             serviceConfig.put(ProxyConfig.URL, bundle.getString("service.url"));
             serviceConfig.put(ProxyConfig.PASSTHROUGH, Boolean.valueOf(bundle.getString("service.passthrough")));
             services.add(serviceConfig);
+            this.services = services;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to load proxy configuration");
@@ -219,50 +291,85 @@ public class XmlHttpProxyServlet extends HttpServlet
     }
 
     public void doDelete(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.DELETE);
+        dispatch(req, res, XmlHttpProxy.DELETE);
     }
 
     public void doGet(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.GET);
+        dispatch(req, res, XmlHttpProxy.GET);
     }
 
     public void doPost(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.POST);
+        dispatch(req, res, XmlHttpProxy.POST);
     }
 
     public void doPut(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.PUT);
+        dispatch(req, res, XmlHttpProxy.PUT);
     }
 
-    public void doProcess(HttpServletRequest req, HttpServletResponse res, String method)
+    private void dispatch(HttpServletRequest req, HttpServletResponse res, final String method)
     {
+        if(asyncDispatcher!=null)
+        {
+            try
+            {
+                boolean dispatched = asyncDispatcher.dispatch(req, res, new AsyncDispatcher.Task() {
+                    public void process(HttpServletRequest request, HttpServletResponse response) {
+                        doProcess(request, response, method);
+                    }
+                });
+                if(dispatched) return;
+            }
+            catch (IOException e)
+            {
+                getLogger().severe("XmlHttpProxyServlet: failed to read request: " + e);
+                res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return;
+            }
+        }
 
-        boolean isPost = XmlHttpProxy.POST.equals(method);
+        doProcess(req, res, method);
+    }
+
+    @Override
+    public void destroy() {
+        if(asyncDispatcher!=null)
+            asyncDispatcher.shutdown();
+        xhp.shutdown();
+        super.destroy();
+    }
 
+    public void doProcess(HttpServletRequest req, HttpServletResponse res, String method)
+    {
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] bodyContent = null;
+        boolean isPost = XmlHttpProxy.POST.equals(method);
 
         OutputStream out = null;
         PrintWriter writer = null;
 
-        try {
-
-            BufferedInputStream in = new BufferedInputStream(req.getInputStream());
-            int next = in.read();
-            while (next > -1) {
-                bos.write(next);
-                next = in.read();
-            }
-
-            bodyContent = bos.toByteArray();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // everything below is local to this request: the servlet is shared by concurrent requests
+        String requestContentType = req.getContentType();
+        boolean binary = requestContentType!=null && requestContentType.startsWith(DMR_BINARY);
+        String authHeader = null;
+        String testUser = null;
+        String testPass = null;
 
         try
         {
+            // the request body is streamed to the upstream service as it arrives
+            InputStream body = req.getInputStream();
+            int contentLength = req.getContentLength();
+
+            // raw DMR from the client: the upstream endpoint only understands the Base64 encoding
+            if(binary)
+            {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream(contentLength > 0 ? contentLength : XmlHttpProxy.BUFFER_SIZE);
+                XmlHttpProxy.copy(body, bos);
+                byte[] encoded = Base64.encodeBytesToBytes(bos.toByteArray());
+                body = new ByteArrayInputStream(encoded);
+                contentLength = encoded.length;
+                requestContentType = DMR_ENCODED;
+            }
+
             HttpSession session = null;
             // it really does not make sense to use create session with require session as
             // the create session will always result in a session created and the requireSession
@@ -280,18 +387,17 @@ public class XmlHttpProxyServlet extends HttpServlet
                     return;
                 }
             }
+            if (session == null) {
+                session = req.getSession(false);
+            }
             // check if the services have been loaded or if they need to be reloaded
             if (services == null || configUpdated()) {
                 getServices(res);
             }
             String urlString = null;
-            String xslURLString = null;
             String userName = null;
             String password = null;
-            String format = "json";
-            String callback = req.getParameter("callback");
             String urlParams = req.getParameter("urlparams");
-            String countString = req.getParameter("count");
             boolean passthrough = false;
             // encode the url to prevent spaces from being passed along
             if (urlParams != null) {
@@ -299,7 +405,6 @@ public class XmlHttpProxyServlet extends HttpServlet
             }
             // get the headers to pass through
             Map headers = null;
-            authHeader = null;
 
             // Forward all request headers starting with the header token jmaki-
             // and chop off the jmaki-
@@ -388,7 +493,6 @@ public class XmlHttpProxyServlet extends HttpServlet
 
                     String apikey = "";
                     if (service.containsKey("apikey")) apikey = (String)service.get("apikey");
-                    if (service.containsKey("xslStyleSheet")) xslURLString = (String)service.get("xslStyleSheet");
 
                     // default to the service default if no url parameters are specified
                     if(!passthrough)
@@ -448,21 +552,9 @@ public class XmlHttpProxyServlet extends HttpServlet
                 res.setStatus(500);
             }
 
-            Map paramsMap = new HashMap();
-            paramsMap.put("format", format);
-            // do not allow for xdomain unless the context level setting is enabled.
-            if (callback != null && allowXDomain) {
-                paramsMap.put("callback", callback);
-            }
-            if (countString != null) {
-                paramsMap.put("count", countString);
-            }
-
-            InputStream xslInputStream = null;
-
             if (urlString == null) {
                 writer = res.getWriter();
-                writer.write("XmlHttpProxyServlet parameters:  id[Required] urlparams[Optional] format[Optional] callback[Optional]");
+                writer.write("XmlHttpProxyServlet parameters:  id[Required] urlparams[Optional]");
                 writer.flush();
                 return;
             }
@@ -471,21 +563,89 @@ public class XmlHttpProxyServlet extends HttpServlet
                 urlString = processURL(urlString, req, res);
             }
 
-            out = res.getOutputStream();
+            // upstream cookies must not leak to other operators
+            Map<String, XmlHttpProxy.Cookie> cookies = session != null ? cookieJar(session) : xhp.getCookies();
 
+            XmlHttpProxy.Response response = null;
             if (!isPost)
             {
-                xhp.processRequest(urlString, out, xslInputStream, paramsMap, headers, method, userName, password);
+                response = xhp.open(urlString, headers, method, null, -1, null, userName, password, null, cookies);
             }
             else
             {
-                if (bodyContent == null)
-                    getLogger().info("XmlHttpProxyServlet attempting to post to url " + urlString + " with no body content");
-                xhp.doPost(urlString, out, xslInputStream, paramsMap, headers, bodyContent, req.getContentType(), userName, password, authHeader);
+                // advertise raw DMR support to the client
+                res.setHeader("Accept-Post", DMR_BINARY + ", " + DMR_ENCODED);
+
+                if (binary)
+                {
+                    if (headers == null) headers = new HashMap();
+                    headers.put("Accept", DMR_ENCODED);
+                }
+                if (sharedReads != null && requestContentType != null && requestContentType.startsWith(DMR_ENCODED))
+                    response = openShared(urlString, headers, method, body, contentLength, requestContentType, userName, password, authHeader, cookies);
+                else
+                    response = xhp.open(urlString, headers, method, body, contentLength, requestContentType, userName, password, authHeader, cookies);
             }
 
-            res.setContentType(xhp.getContentType());
-            res.setStatus(xhp.getStatus());
+            // status and headers have to be set before the body is written
+            try
+            {
+                res.setStatus(response.getStatus());
+
+                String contentType = response.getContentType();
+                boolean encoded = contentType != null && contentType.startsWith(DMR_ENCODED);
+
+                // the upstream response is passed on as is, if it's compressed already
+                String encoding = null;
+                if (response.getContentEncoding() != null)
+                    res.setHeader("Content-Encoding", response.getContentEncoding());
+                else if (compression != null)
+                    encoding = ResponseCompression.negotiate(req.getHeader("Accept-Encoding"));
+                if (compression != null)
+                    res.addHeader("Vary", "Accept-Encoding");
+
+                if (binary && encoded)
+                {
+                    ByteArrayOutputStream upstream = new ByteArrayOutputStream();
+                    XmlHttpProxy.copy(response.getBody(), upstream);
+                    byte[] payload = Base64.decode(upstream.toByteArray());
+
+                    res.setContentType(DMR_BINARY);
+                    if (encoding != null)
+                    {
+                        out = compression.wrap(res, encoding);
+                    }
+                    else
+                    {
+                        res.setContentLength(payload.length);
+                        out = res.getOutputStream();
+                    }
+                    out.write(payload);
+                }
+                else if (encoded && ResponseCompression.GZIP.equals(req.getHeader(ResponseCompression.DMR_COMPRESSION)))
+                {
+                    ByteArrayOutputStream upstream = new ByteArrayOutputStream();
+                    XmlHttpProxy.copy(response.getBody(), upstream);
+                    byte[] payload = ResponseCompression.gzipFramed(upstream.toByteArray());
+
+                    res.setContentType(contentType);
+                    res.setHeader(ResponseCompression.DMR_COMPRESSION, ResponseCompression.GZIP);
+                    res.setContentLength(payload.length);
+                    out = res.getOutputStream();
+                    out.write(payload);
+                }
+                else
+                {
+                    if (contentType != null)
+                        res.setContentType(contentType);
+                    out = encoding != null ? compression.wrap(res, encoding) : res.getOutputStream();
+                    XmlHttpProxy.copy(response.getBody(), out);
+                }
+            }
+            finally
+            {
+                response.close();
+            }
 
         }
         catch (Exception iox)
@@ -523,6 +683,86 @@ public class XmlHttpProxyServlet extends HttpServlet
         }
     }
 
+    /**
+     * Upstream cookies are kept per HTTP session. Requests without a session
+     * (see <code>jmaki-createSession</code>) share the cookies of the proxy.
+     */
+    private static Map<String, XmlHttpProxy.Cookie> cookieJar(HttpSession session)
+    {
+        Map<String, XmlHttpProxy.Cookie> jar = (Map<String, XmlHttpProxy.Cookie>) session.getAttribute(COOKIE_JAR);
+        if (jar != null)
+            return jar;
+
+        // the container may hand out different session objects for the same session
+        synchronized (COOKIE_JAR_LOCK)
+        {
+            jar = (Map<String, XmlHttpProxy.Cookie>) session.getAttribute(COOKIE_JAR);
+            if (jar == null)
+            {
+                jar = new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+                session.setAttribute(COOKIE_JAR, jar);
+            }
+            return jar;
+        }
+    }
+
+    /**
+     * Identical read-only operations of concurrent sessions share one upstream request, see {@link SharedReads}.
+     * Responses are only shared between requests with the same credentials and upstream cookies.
+     */
+    private XmlHttpProxy.Response openShared(final String urlString, final Map headers, final String method,
+                                             InputStream body, int contentLength, final String contentType,
+                                             final String userName, final String password, final String authHeader,
+                                             final Map<String, XmlHttpProxy.Cookie> cookies)
+            throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(contentLength > 0 ? contentLength : 256);
+        XmlHttpProxy.copy(body, bos);
+        final byte[] operation = bos.toByteArray();
+        String encoded = new String(operation, "US-ASCII").replaceAll("\\s", "");
+
+        if (!PollingHub.isReadOnly(encoded))
+        {
+            try {
+                return xhp.open(urlString, headers, method, new ByteArrayInputStream(operation), operation.length,
+                        contentType, userName, password, authHeader, cookies);
+            } finally {
+                // the change has to be visible to subsequent reads
+                sharedReads.invalidate();
+            }
+        }
+
+        String key = urlString + "|" + credentials(userName, password, authHeader, cookies) + "|" + encoded;
+        return sharedReads.execute(key, new SharedReads.Upstream() {
+            public XmlHttpProxy.Response open() throws IOException {
+                return xhp.open(urlString, headers, method, new ByteArrayInputStream(operation), operation.length,
+                        contentType, userName, password, authHeader, cookies);
+            }
+        });
+    }
+
+    /**
+     * A digest of everything that authenticates a request upstream: shared responses are kept
+     * in a long-lived map and the key must not reveal the credentials.
+     */
+    static String credentials(String userName, String password, String authHeader,
+                                      Map<String, XmlHttpProxy.Cookie> cookies) throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        if (userName != null && password != null)
+            sb.append(HttpClient.getBasicAuthHeader(userName, password));
+        sb.append("|").append(authHeader);
+        for (XmlHttpProxy.Cookie cookie : new TreeMap<String, XmlHttpProxy.Cookie>(cookies).values())
+            sb.append("|").append(cookie.name).append("=").append(cookie.value);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.encodeBytes(digest.digest(sb.toString().getBytes("UTF-8")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /* Allow for a EL style replacements in the serviceURL
      *
      * The constant REMOTE_USER will replace the contents of ${REMOTE_USER}
@@ -0,0 +1,263 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion ordered map backing {@link ObjectModelValue}.<p/>
+ *
+ * Most objects have only a handful of keys (addresses, outcome/result wrappers, metrics),
+ * so entries are kept in two plain arrays and looked up by a linear scan.
+ * Past {@link #THRESHOLD} entries the map switches to a {@link LinkedHashMap}.
+ */
+final class CompactMap extends AbstractMap<String, ModelNode> {
+
+    static final int THRESHOLD = 8;
+
+    private String[] keys;
+    private ModelNode[] values;
+    private int size;
+
+    /**
+     * Used instead of the arrays once the threshold has been exceeded
+     */
+    private LinkedHashMap<String, ModelNode> map;
+
+    private Set<Map.Entry<String, ModelNode>> entrySet;
+
+    CompactMap() {
+        this(4);
+    }
+
+    CompactMap(final int expectedSize) {
+        if (expectedSize > THRESHOLD) {
+            map = new LinkedHashMap<String, ModelNode>();
+        } else {
+            keys = new String[Math.max(expectedSize, 1)];
+            values = new ModelNode[keys.length];
+        }
+    }
+
+    private int indexOf(final Object key) {
+        final String[] keys = this.keys;
+        for (int i = 0; i < size; i++) {
+            final String k = keys[i];
+            if (k == key || k.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return map != null ? map.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return map != null ? map.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    public ModelNode get(final Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        final int index = indexOf(key);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public ModelNode put(final String key, final ModelNode value) {
+        if (map != null) {
+            return map.put(key, value);
+        }
+        final int index = indexOf(key);
+        if (index != -1) {
+            final ModelNode old = values[index];
+            values[index] = value;
+            return old;
+        }
+        if (size == THRESHOLD) {
+            inflate();
+            return map.put(key, value);
+        }
+        if (size == keys.length) {
+            final int capacity = Math.min(size << 1, THRESHOLD);
+            final String[] newKeys = new String[capacity];
+            final ModelNode[] newValues = new ModelNode[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            keys = newKeys;
+            values = newValues;
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+
+    private void inflate() {
+        map = new LinkedHashMap<String, ModelNode>();
+        for (int i = 0; i < size; i++) {
+            map.put(keys[i], values[i]);
+        }
+        keys = null;
+        values = null;
+        size = 0;
+    }
+
+    @Override
+    public ModelNode remove(final Object key) {
+        if (map != null) {
+            return map.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        final ModelNode old = values[index];
+        removeAt(index);
+        return old;
+    }
+
+    private void removeAt(final int index) {
+        final int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+    }
+
+    @Override
+    public void clear() {
+        if (map != null) {
+            map.clear();
+        } else {
+            for (int i = 0; i < size; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, ModelNode>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, ModelNode>>() {
+                @Override
+                public Iterator<Map.Entry<String, ModelNode>> iterator() {
+                    return map != null ? map.entrySet().iterator() : new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return CompactMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, ModelNode>> {
+        private int next;
+        private int current = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<String, ModelNode> next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            return new Entry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current == -1) {
+                throw new IllegalStateException();
+            }
+            removeAt(current);
+            next = current;
+            current = -1;
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, ModelNode> {
+        private final int index;
+
+        Entry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public ModelNode getValue() {
+            return values[index];
+        }
+
+        @Override
+        public ModelNode setValue(final ModelNode value) {
+            final ModelNode old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+            return getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+    }
+}
@@ -27,11 +27,44 @@ import java.io.IOException;
 public class DataInput {
     private int pos = 0;
     private byte[] bytes;
+    private KeyTable keys;
 
     public DataInput(byte[] bytes) {
         this.bytes = bytes;
     }
 
+    DataInput(byte[] bytes, int pos) {
+        this.bytes = bytes;
+        this.pos = pos;
+    }
+
+    /**
+     * The current read position within the underlying buffer.
+     */
+    int getPosition() {
+        return pos;
+    }
+
+    /**
+     * Create an independent reader over the same buffer, starting at the given position.
+     */
+    DataInput duplicate(int position) {
+        DataInput duplicate = new DataInput(bytes, position);
+        duplicate.keys = keyTable();
+        return duplicate;
+    }
+
+    private KeyTable keyTable() {
+        if (keys == null) {
+            keys = KeyTable.forDecode();
+        }
+        return keys;
+    }
+
+    byte[] getBuffer() {
+        return bytes;
+    }
+
     public int read() throws IOException {
         if (pos >= bytes.length)
             return -1;
@@ -90,23 +123,55 @@ public class DataInput {
     }
 
     public String readUTF() throws IOException {
-        int bytes = readUnsignedShort();
-        StringBuilder sb = new StringBuilder();
+        final int length = readUnsignedShort();
+        final int end = pos + length;
+        if (end > bytes.length) {
+            throw new RuntimeException("EOF");
+        }
 
-        while (bytes > 0) {
-            bytes -= readUtfChar(sb);
+        // most DMR strings are plain ASCII: build them in one go
+        final char[] chars = new char[length];
+        int i = 0;
+        while (pos < end && bytes[pos] >= 0) {
+            chars[i++] = (char) bytes[pos++];
+        }
+        if (pos == end) {
+            return new String(chars);
         }
 
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(chars, 0, i);
+        while (pos < end) {
+            readUtfChar(sb);
+        }
         return sb.toString();
     }
 
+    /**
+     * Read an object or property key. Like {@link #readUTF()}, but repeated keys
+     * share one instance per decode (see {@link KeyTable}).
+     */
+    String readKey() throws IOException {
+        final int length = readUnsignedShort();
+        if (pos + length > bytes.length) {
+            throw new RuntimeException("EOF");
+        }
+        final String key = keyTable().intern(bytes, pos, length);
+        if (key == null) {
+            pos -= 2;
+            return readUTF();
+        }
+        pos += length;
+        return key;
+    }
+
     private int readUtfChar(StringBuilder sb) throws IOException {
         int a = readUnsignedByte();
         if ((a & 0x80) == 0) {
             sb.append((char) a);
             return 1;
         }
-        if ((a & 0xe0) == 0xb0) {
+        if ((a & 0xe0) == 0xc0) {
             int b = readUnsignedByte();
             sb.append((char)(((a& 0x1F) << 6) | (b & 0x3F)));
             return 2;
@@ -117,6 +182,16 @@ public class DataInput {
             sb.append((char)(((a & 0x0F) << 12) | ((b & 0x3F) << 6) | (c & 0x3F)));
             return 3;
         }
+        if ((a & 0xf8) == 0xf0) {
+            int b = readUnsignedByte();
+            int c = readUnsignedByte();
+            int d = readUnsignedByte();
+            int codePoint = ((a & 0x07) << 18) | ((b & 0x3F) << 12) | ((c & 0x3F) << 6) | (d & 0x3F);
+            codePoint -= 0x10000;
+            sb.append((char) (0xd800 | (codePoint >> 10)));
+            sb.append((char) (0xdc00 | (codePoint & 0x3FF)));
+            return 4;
+        }
         throw new IllegalArgumentException("Illegal byte "+a);
     }
 
@@ -135,8 +210,19 @@ public class DataInput {
     }
 
     public int skipBytes(int n) throws IOException {
-        // note: This is actually a valid implementation of this method, rendering it quite useless...
-        return 0;
+        int skipped = Math.max(0, Math.min(n, bytes.length - pos));
+        pos += skipped;
+        return skipped;
+    }
+
+    /**
+     * Skip a string written by {@link DataOutput#writeUTF(String)} without decoding it.
+     */
+    void skipUTF() throws IOException {
+        int length = readUnsignedShort();
+        if (skipBytes(length) != length) {
+            throw new RuntimeException("EOF");
+        }
     }
 
     public void readFully(byte[] b) {
@@ -23,34 +23,64 @@ import java.io.IOException;
 
 import com.google.gwt.core.client.JsArrayInteger;
 
+/**
+ * A growable byte buffer for the DMR binary format.<p/>
+ *
+ * The buffer grows geometrically, so writing a large model takes linear time.
+ * Instances can be {@link #reset()} and reused to avoid reallocating the buffer
+ * for every operation.
+ */
 public class DataOutput {
 
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Buffers that grew beyond this size are released on {@link #reset()}
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
     private byte[] bytes;
     private int pos;
 
     public DataOutput() {
-        bytes = new byte[50];
+        bytes = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Discard the written content, but keep the buffer for subsequent writes.
+     */
+    public void reset() {
+        pos = 0;
+        if (bytes.length > MAX_RETAINED_CAPACITY) {
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public int size() {
+        return pos;
     }
 
+    /**
+     * Base64 encode the written content straight from the internal buffer.
+     */
     public String getEncoded() {
         return Base64.encodeBytes(bytes, 0, pos);
     }
 
     public byte[] getBytes() {
         byte[] array = new byte[pos];
-        for (int i = 0; i < pos; i++)
-            array[i] = bytes[i];
-
+        System.arraycopy(bytes, 0, array, 0, pos);
         return array;
     }
 
     private void growToFit(int size) {
-        if (pos + size >= bytes.length) {
-            byte[] array = new byte[bytes.length + size];
-            for (int i = 0; i < bytes.length; i++) {
-                array[i] = bytes[i];
-            }
-
+        final int required = pos + size;
+        if (required > bytes.length) {
+            byte[] array = new byte[Math.max(bytes.length << 1, required)];
+            System.arraycopy(bytes, 0, array, 0, pos);
             bytes = array;
         }
     }
@@ -116,14 +146,34 @@ public class DataOutput {
     }
 
     public void writeUTF(String s) throws IOException {
-        byte[] encoded = s.getBytes("UTF-8");
-        writeShort(encoded.length);
-        write(encoded);
+        final int length = s.length();
+        growToFit(2 + length);
+        final int start = pos;
+        pos += 2;
+
+        // most DMR strings are plain ASCII: copy them without an intermediate array
+        for (int i = 0; i < length; i++) {
+            final char c = s.charAt(i);
+            if (c >= 0x80) {
+                pos = start;
+                byte[] encoded = s.getBytes("UTF-8");
+                writeShort(encoded.length);
+                write(encoded);
+                return;
+            }
+            bytes[pos++] = (byte) c;
+        }
+        bytes[start] = (byte) (length >>> 8);
+        bytes[start + 1] = (byte) (length & 0xFF);
     }
 
     public void write(byte[] bits) {
-        growToFit(bits.length);
-        for (int i = 0; i < bits.length; i++)
-            bytes[pos++] = bits[i];
+        write(bits, 0, bits.length);
+    }
+
+    public void write(byte[] bits, int off, int len) {
+        growToFit(len);
+        System.arraycopy(bits, off, bytes, pos, len);
+        pos += len;
     }
 }
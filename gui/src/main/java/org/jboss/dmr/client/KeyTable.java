@@ -0,0 +1,119 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+/**
+ * Intern table for the keys of decoded object and property values.<p/>
+ *
+ * Keys are looked up by their encoded bytes, so a repeated attribute name is neither
+ * decoded nor allocated again, and every occurrence shares a single instance.
+ * Only ASCII keys are interned, which covers virtually all attribute names.
+ * The table is bounded: once full, new keys are decoded as usual but not retained.
+ */
+final class KeyTable {
+
+    private static final int MAX_ENTRIES = 4096;
+
+    private static KeyTable shared;
+
+    private String[] keys = new String[64];
+    private int size;
+
+    /**
+     * Use a single table across all decodes rather than one per decode.
+     * Trades a bounded amount of retained memory for sharing keys between responses.
+     */
+    static void setShared(boolean enabled) {
+        shared = enabled ? new KeyTable() : null;
+    }
+
+    /**
+     * @return the table to be used for a new decode
+     */
+    static KeyTable forDecode() {
+        return shared != null ? shared : new KeyTable();
+    }
+
+    /**
+     * Resolve a key from its encoded form.
+     *
+     * @return the interned key, or {@code null} if the key isn't plain ASCII
+     */
+    String intern(final byte[] bytes, final int offset, final int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = bytes[i];
+            if (b < 0) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+
+        final int mask = keys.length - 1;
+        int index = hash & mask;
+        String key;
+        while ((key = keys[index]) != null) {
+            if (matches(key, bytes, offset, length)) {
+                return key;
+            }
+            index = (index + 1) & mask;
+        }
+
+        final char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes[offset + i];
+        }
+        key = new String(chars);
+        if (size < MAX_ENTRIES) {
+            keys[index] = key;
+            if (++size * 4 > keys.length * 3) {
+                rehash();
+            }
+        }
+        return key;
+    }
+
+    private static boolean matches(final String key, final byte[] bytes, final int offset, final int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        final String[] old = keys;
+        keys = new String[old.length << 1];
+        final int mask = keys.length - 1;
+        for (final String key : old) {
+            if (key != null) {
+                int index = key.hashCode() & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+}
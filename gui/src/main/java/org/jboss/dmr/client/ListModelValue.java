@@ -32,7 +32,14 @@ import java.util.NoSuchElementException;
 final class ListModelValue extends ModelValue {
 
     public static final ModelNode[] NO_NODES = new ModelNode[0];
-    private final List<ModelNode> list;
+    private List<ModelNode> list;
+
+    /**
+     * Undecoded content of a lazily read value, {@code null} once the list has been materialized.
+     */
+    private DataInput source;
+    private int start;
+    private int end;
 
     ListModelValue() {
         super(ModelType.LIST);
@@ -41,7 +48,11 @@ final class ListModelValue extends ModelValue {
 
     private ListModelValue(final ListModelValue orig) {
         super(ModelType.LIST);
-        list = new ArrayList<ModelNode>(orig.list);
+        final List<ModelNode> origList = orig.list();
+        list = new ArrayList<ModelNode>(origList.size());
+        for (final ModelNode node : origList) {
+            list.add(node.clone());
+        }
     }
 
     ListModelValue(final List<ModelNode> list) {
@@ -49,20 +60,62 @@ final class ListModelValue extends ModelValue {
         this.list = list;
     }
 
+    private ListModelValue(final DataInput source, final int start, final int end) {
+        super(ModelType.LIST);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
     ListModelValue(final DataInput in) throws IOException {
+        this(in, false);
+    }
+
+    /**
+     * Read a list value.  In lazy mode the content is only skipped over and
+     * decoded the first time one of the elements is accessed.
+     */
+    ListModelValue(final DataInput in, final boolean lazy) throws IOException {
         super(ModelType.LIST);
+        if (lazy) {
+            source = in;
+            start = in.getPosition();
+            ModelNode.skipValue(ModelType.LIST, in);
+            end = in.getPosition();
+        } else {
+            list = readList(in, false);
+        }
+    }
+
+    private static ArrayList<ModelNode> readList(final DataInput in, final boolean lazy) throws IOException {
         final int count = in.readInt();
-        final ArrayList<ModelNode> list = new ArrayList<ModelNode>();
+        final ArrayList<ModelNode> list = new ArrayList<ModelNode>(count);
         for (int i = 0; i < count; i ++) {
             final ModelNode value = new ModelNode();
-            value.readExternal(in);
+            value.readExternal(in, lazy);
             list.add(value);
         }
-        this.list = list;
+        return list;
+    }
+
+    private List<ModelNode> list() {
+        if (list == null) {
+            try {
+                list = readList(source.duplicate(start), true);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+            source = null;
+        }
+        return list;
     }
 
     @Override
     void writeExternal(final DataOutput out) throws IOException {
+        if (list == null) {
+            out.write(source.getBuffer(), start, end - start);
+            return;
+        }
         final List<ModelNode> list = this.list;
         final int size = list.size();
         out.writeInt(size);
@@ -73,7 +126,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelValue protect() {
-        final List<ModelNode> list = this.list;
+        final List<ModelNode> list = list();
         for (final ModelNode node : list) {
             node.protect();
         }
@@ -92,7 +145,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     int asInt() {
-        return list.size();
+        return list().size();
     }
 
     @Override
@@ -102,7 +155,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     boolean asBoolean() {
-        return ! list.isEmpty();
+        return ! list().isEmpty();
     }
 
     @Override
@@ -112,8 +165,8 @@ final class ListModelValue extends ModelValue {
 
     @Override
     Property asProperty() {
-        if (list.size() == 2) {
-            return new Property(list.get(0).asString(), list.get(1));
+        if (list().size() == 2) {
+            return new Property(list().get(0).asString(), list().get(1));
         } else {
             return super.asProperty();
         }
@@ -122,7 +175,7 @@ final class ListModelValue extends ModelValue {
     @Override
     List<Property> asPropertyList() {
         final List<Property> propertyList = new ArrayList<Property>();
-        final Iterator<ModelNode> i = list.iterator();
+        final Iterator<ModelNode> i = list().iterator();
         while (i.hasNext()) {
             final ModelNode node = i.next();
             if (node.getType() == ModelType.PROPERTY) {
@@ -139,7 +192,7 @@ final class ListModelValue extends ModelValue {
     @Override
     ModelNode asObject() {
         final ModelNode node = new ModelNode();
-        final Iterator<ModelNode> i = list.iterator();
+        final Iterator<ModelNode> i = list().iterator();
         while (i.hasNext()) {
             final ModelNode name = i.next();
             if (name.getType() == ModelType.PROPERTY) {
@@ -155,7 +208,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelNode getChild(final int index) {
-        final List<ModelNode> list = this.list;
+        final List<ModelNode> list = list();
         final int size = list.size();
         if (size <= index) {
             for (int i = 0; i < index - size + 1; i ++) {
@@ -168,24 +221,28 @@ final class ListModelValue extends ModelValue {
     @Override
     ModelNode addChild() {
         final ModelNode node = new ModelNode();
-        list.add(node);
+        list().add(node);
         return node;
     }
 
     @Override
     List<ModelNode> asList() {
-        return Collections.unmodifiableList(list);
+        return Collections.unmodifiableList(list());
     }
 
     @Override
     ModelValue copy() {
+        if (list == null) {
+            // the undecoded content is immutable and can be shared
+            return new ListModelValue(source, start, end);
+        }
         return new ListModelValue(this);
     }
 
     @Override
     ModelValue resolve() {
-        final ArrayList<ModelNode> copy = new ArrayList<ModelNode>(list.size());
-        for (final ModelNode node : list) {
+        final ArrayList<ModelNode> copy = new ArrayList<ModelNode>(list().size());
+        for (final ModelNode node : list()) {
             copy.add(node.resolve());
         }
         return new ListModelValue(copy);
@@ -200,7 +257,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     void format(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
-        final boolean multiLine = multiLineRequested && list.size() > 1;
+        final boolean multiLine = multiLineRequested && list().size() > 1;
         final List<ModelNode> list = asList();
         final Iterator<ModelNode> iterator = list.iterator();
         builder.append('[');
@@ -226,7 +283,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     void formatAsJSON(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
-        final boolean multiLine = multiLineRequested && list.size() > 1;
+        final boolean multiLine = multiLineRequested && list().size() > 1;
         final List<ModelNode> list = asList();
         final Iterator<ModelNode> iterator = list.iterator();
         builder.append('[');
@@ -268,23 +325,23 @@ final class ListModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ListModelValue other) {
-        return this == other || other != null && list.equals(other.list);
+        return this == other || other != null && list().equals(other.list());
     }
 
     @Override
     public int hashCode() {
-        return list.hashCode();
+        return list().hashCode();
     }
 
     @Override
     boolean has(final int index) {
-        return 0 <= index && index < list.size();
+        return 0 <= index && index < list().size();
     }
 
     @Override
     ModelNode requireChild(final int index) throws NoSuchElementException {
         try {
-            return list.get(index);
+            return list().get(index);
         } catch (final IndexOutOfBoundsException e) {
             return super.requireChild(index);
         }
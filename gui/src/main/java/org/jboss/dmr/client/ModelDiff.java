@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The structural difference between two model trees.<p/>
+ *
+ * Objects are compared key by key and recursively, anything else (including lists) is compared
+ * as a whole. The resulting changes can be {@link #apply(ModelNode) applied} to a copy of the
+ * original tree to turn it into the target tree, or used to update only the parts of a view that changed.
+ * Computing the diff takes linear time over both trees.
+ */
+public final class ModelDiff {
+
+    public enum Kind {
+        ADDED, REMOVED, CHANGED
+    }
+
+    /**
+     * A single change. The value is the new value for added and changed paths
+     * and the old value for removed paths. It is shared with the compared tree
+     * and should be treated as read only.
+     */
+    public static final class Change {
+        private final Kind kind;
+        private final ModelPath path;
+        private final ModelNode value;
+
+        Change(Kind kind, ModelPath path, ModelNode value) {
+            this.kind = kind;
+            this.path = path;
+            this.value = value;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public ModelPath getPath() {
+            return path;
+        }
+
+        public ModelNode getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + path + (kind == Kind.REMOVED ? "" : " => " + value);
+        }
+    }
+
+    private final List<Change> changes;
+
+    private ModelDiff(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Compute the changes that turn {@code from} into {@code to}.
+     */
+    public static ModelDiff compute(ModelNode from, ModelNode to) {
+        List<Change> changes = new ArrayList<Change>();
+        diff(new ArrayList<String>(), from, to, changes);
+        return new ModelDiff(changes);
+    }
+
+    private static void diff(List<String> path, ModelNode from, ModelNode to, List<Change> changes) {
+
+        if (from.getType() != ModelType.OBJECT || to.getType() != ModelType.OBJECT) {
+            if (!from.equals(to)) {
+                changes.add(new Change(Kind.CHANGED, ModelPath.of(path, null), to));
+            }
+            return;
+        }
+
+        for (String key : from.keys()) {
+            if (!to.has(key)) {
+                changes.add(new Change(Kind.REMOVED, ModelPath.of(path, key), from.peek(key)));
+            }
+        }
+
+        for (String key : to.keys()) {
+            ModelNode toChild = to.peek(key);
+            ModelNode fromChild = from.peek(key);
+            if (fromChild == null) {
+                changes.add(new Change(Kind.ADDED, ModelPath.of(path, key), toChild));
+            } else {
+                path.add(key);
+                diff(path, fromChild, toChild, changes);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * @return the changes, in tree order
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * @return the changes of the given kind
+     */
+    public List<Change> getChanges(Kind kind) {
+        List<Change> matching = new ArrayList<Change>();
+        for (Change change : changes) {
+            if (change.getKind() == kind) {
+                matching.add(change);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Apply the changes to the given node, which is expected to be equal to the original tree.
+     *
+     * @return the target node
+     */
+    public ModelNode apply(ModelNode target) {
+        for (Change change : changes) {
+            String[] names = change.getPath().getNames();
+            if (names.length == 0) {
+                target.set(change.getValue());
+                continue;
+            }
+
+            ModelNode parent = target;
+            for (int i = 0; i < names.length - 1; i++) {
+                parent = parent.get(names[i]);
+            }
+
+            String name = names[names.length - 1];
+            if (change.getKind() == Kind.REMOVED) {
+                parent.remove(name);
+            } else {
+                parent.get(name).set(change.getValue());
+            }
+        }
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return changes.toString();
+    }
+}
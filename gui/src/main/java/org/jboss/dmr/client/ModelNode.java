@@ -48,6 +48,17 @@ public class ModelNode implements Cloneable {
 
     private boolean protect = false;
     private ModelValue value = ModelValue.UNDEFINED;
+
+    /**
+     * A value shared with a protected node (see {@link #clone()}).  While it is the current
+     * value, it is copied before its children are handed out or changed.
+     */
+    private ModelValue borrowed;
+
+    /**
+     * Memoized hash code of a protected node, {@code 0} if not yet computed.
+     */
+    private int hash;
     
     public ModelNode() {
     }
@@ -219,7 +230,7 @@ public class ModelNode implements Cloneable {
      * @throws IllegalArgumentException if no conversion is possible
      */
     public Property asProperty() throws IllegalArgumentException {
-        return value.asProperty();
+        return ownValue().asProperty();
     }
 
     /**
@@ -231,7 +242,7 @@ public class ModelNode implements Cloneable {
      * @throws IllegalArgumentException if no conversion is possible
      */
     public List<Property> asPropertyList() throws IllegalArgumentException {
-        return value.asPropertyList();
+        return ownValue().asPropertyList();
     }
 
     /**
@@ -407,12 +418,17 @@ public class ModelNode implements Cloneable {
             throw new IllegalArgumentException("newValue is null");
         }
         checkProtect();
-        value = newValue.value.copy();
+        if (newValue.isShareable()) {
+            value = borrowed = newValue.value;
+        } else {
+            value = newValue.value.copy();
+        }
         return this;
     }
 
     void setNoCopy(final ModelNode child) {
         value = child.value;
+        borrowed = child.isShareable() ? value : null;
     }
 
     /**
@@ -704,7 +720,7 @@ public class ModelNode implements Cloneable {
             checkProtect();
             return (this.value = new ObjectModelValue()).getChild(name);
         }
-        return value.getChild(name);
+        return ownValue().getChild(name);
     }
 
     /**
@@ -718,7 +734,7 @@ public class ModelNode implements Cloneable {
      * @throws NoSuchElementException if the element does not exist
      */
     public ModelNode require(final String name) throws NoSuchElementException {
-        return value.requireChild(name);
+        return ownValue().requireChild(name);
     }
 
     /**
@@ -732,7 +748,7 @@ public class ModelNode implements Cloneable {
      * @throws NoSuchElementException if the element does not exist
      */
     public ModelNode remove(final String name) throws NoSuchElementException {
-        return value.removeChild(name);
+        return ownValue().removeChild(name);
     }
 
     /**
@@ -751,7 +767,7 @@ public class ModelNode implements Cloneable {
             checkProtect();
             return (this.value = new ListModelValue()).getChild(index);
         }
-        return value.getChild(index);
+        return ownValue().getChild(index);
     }
 
     /**
@@ -765,7 +781,7 @@ public class ModelNode implements Cloneable {
      * @throws NoSuchElementException if the element does not exist
      */
     public ModelNode require(final int index) {
-        return value.requireChild(index);
+        return ownValue().requireChild(index);
     }
 
     /**
@@ -877,7 +893,7 @@ public class ModelNode implements Cloneable {
     }
 
     ModelNode addNoCopy(final ModelNode child) {
-        add().value = child.value;
+        add().setNoCopy(child);
         return this;
     }
 
@@ -1022,7 +1038,7 @@ public class ModelNode implements Cloneable {
         if ((value = this.value) == ModelValue.UNDEFINED) {
             return (this.value = new ListModelValue()).addChild();
         }
-        return value.addChild();
+        return ownValue().addChild();
     }
 
     /**
@@ -1071,6 +1087,16 @@ public class ModelNode implements Cloneable {
         return value.has(key);
     }
 
+    /**
+     * Get the child with the given name without creating it, see {@link ModelPath}.
+     *
+     * @return the child, or {@code null} if no such child exists
+     */
+    ModelNode peek(final String name) {
+        final ModelValue value = this.value;
+        return value.has(name) ? value.requireChild(name) : null;
+    }
+
     /**
      * Determine whether this node has a defined child with the given index.  Property node types always contain exactly one
      * value.
@@ -1111,7 +1137,7 @@ public class ModelNode implements Cloneable {
      * @return the entry list
      */
     public List<ModelNode> asList() {
-        return value.asList();
+        return ownValue().asList();
     }
 
     /**
@@ -1156,23 +1182,90 @@ public class ModelNode implements Cloneable {
 
     
     public static ModelNode fromBase64(String encoded) {
-    	ModelNode node = new ModelNode();
+        return fromBase64(encoded, false);
+    }
+
+    /**
+     * Decode a model node from its Base64 encoded binary representation.
+     * <p>
+     * In lazy mode, object and list values keep their content as undecoded bytes and only
+     * materialize their children the first time they are accessed. Use it for large responses
+     * of which only a few entries are actually read.
+     *
+     * @param encoded the Base64 encoded binary representation
+     * @param lazy {@code true} to defer decoding of object and list values until first access
+     * @return the decoded node
+     */
+    public static ModelNode fromBase64(String encoded, boolean lazy) {
     	try {
-			node.readExternal(new DataInput(Base64.decode(encoded)));
+			return fromBytes(Base64.decode(encoded), lazy);
 		} catch (IOException e) {
 			throw new IllegalArgumentException(e);
 		}
-    	return node;
+    }
+
+    /**
+     * Decode a model node from its raw binary representation, as written by {@link #writeExternal(DataOutput)}.
+     *
+     * @param bytes the binary representation
+     * @param lazy {@code true} to defer decoding of object and list values until first access
+     * @return the decoded node
+     * @see #fromBase64(String, boolean)
+     */
+    public static ModelNode fromBytes(byte[] bytes, boolean lazy) {
+        ModelNode node = new ModelNode();
+        try {
+            node.readExternal(new DataInput(bytes), lazy);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return node;
     }
     
+    /**
+     * Share object keys across decodes.  By default repeated keys are interned per decode only;
+     * with a shared table, nodes from different responses (e.g. cached topology trees) share
+     * them as well.  The table is bounded, so this retains a fixed amount of memory at most.
+     *
+     * @param enabled {@code true} to use a shared key table
+     */
+    public static void setSharedKeyTable(boolean enabled) {
+        KeyTable.setShared(enabled);
+    }
+
     public String toBase64String() {
+    	return toBase64String(new DataOutput());
+    }
+
+    /**
+     * Encode this node using the given buffer, which is {@link DataOutput#reset() reset} first.
+     * Callers that encode many operations can reuse a single buffer this way.
+     *
+     * @param out the buffer to encode into
+     * @return the Base64 encoded binary representation
+     */
+    public String toBase64String(DataOutput out) {
+    	out.reset();
+    	try {
+			writeExternal(out);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+    	return out.getEncoded();
+    }
+
+    /**
+     * @return the raw binary representation of this node
+     * @see #fromBytes(byte[], boolean)
+     */
+    public byte[] toBytes() {
     	DataOutput out = new DataOutput();
     	try {
 			writeExternal(out);
 		} catch (IOException e) {
 			throw new IllegalStateException(e);
 		}
-    	return Base64.encodeBytes(out.getBytes());
+    	return out.getBytes();
     }
 
 //    /**
@@ -1242,32 +1335,78 @@ public class ModelNode implements Cloneable {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ModelNode other) {
-        return this == other || other != null && other.value.equals(value);
+        if (this == other) {
+            return true;
+        }
+        if (other == null) {
+            return false;
+        }
+        if (other.value == value) {
+            return true;
+        }
+        if (protect && other.protect && hashCode() != other.hashCode()) {
+            return false;
+        }
+        return other.value.equals(value);
     }
 
     /**
      * Get the hash code of this node object.  Note that unless the value is {@link #protect()}ed, the hash code may
      * change over time, thus making unprotected nodes unsuitable for use as hash table keys.
+     * The hash code of a protected node is computed once and then memoized.
      *
      * @return the hash code
      */
     @Override
     public int hashCode() {
-        //noinspection NonFinalFieldReferencedInHashCode
-        return value.hashCode();
+        if (! protect) {
+            //noinspection NonFinalFieldReferencedInHashCode
+            return value.hashCode();
+        }
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = this.hash = value.hashCode();
+        }
+        return hash;
     }
 
     /**
-     * Clone this model node.
+     * Clone this model node.  The value of a protected node is shared with the clone and
+     * only copied, one level at a time, once the clone's children are accessed.
      *
      * @return the clone
      */
     public ModelNode clone() {
         final ModelNode clone = new ModelNode();
-        clone.value = value.copy();
+        if (isShareable()) {
+            clone.value = clone.borrowed = value;
+        } else {
+            clone.value = value.copy();
+        }
         return clone;
     }
 
+    /**
+     * The current value cannot change and may be shared rather than copied.
+     */
+    private boolean isShareable() {
+        return protect || borrowed == value;
+    }
+
+    /**
+     * The current value, copied first if it is borrowed.  The copy is shallow, since the
+     * protected children are in turn shared with their copies.
+     */
+    private ModelValue ownValue() {
+        if (borrowed != null) {
+            if (borrowed == value && ! protect) {
+                value = value.copy();
+            }
+            borrowed = null;
+        }
+        return value;
+    }
+
     void format(final StringBuilder builder, final int indent, final boolean multiLine) {
         value.format(builder, indent, multiLine);
     }
@@ -1305,6 +1444,10 @@ public class ModelNode implements Cloneable {
      * @throws IOException if an I/O error occurs
      */
     public void readExternal(final DataInput in) throws IOException {
+        readExternal(in, false);
+    }
+
+    void readExternal(final DataInput in, final boolean lazy) throws IOException {
         checkProtect();
         byte[] b; // used by some of these
         try {
@@ -1318,10 +1461,10 @@ public class ModelNode implements Cloneable {
                 case DOUBLE: value = new DoubleModelValue(in.readDouble()); return;
                 case EXPRESSION: value = new ExpressionValue(in.readUTF()); return;
                 case INT: value = new IntModelValue(in.readInt()); return;
-                case LIST: value = new ListModelValue(in); return;
+                case LIST: value = new ListModelValue(in, lazy); return;
                 case LONG: value = new LongModelValue(in.readLong()); return;
-                case OBJECT: value = new ObjectModelValue(in); return;
-                case PROPERTY: value = new PropertyModelValue(in); return;
+                case OBJECT: value = new ObjectModelValue(in, lazy); return;
+                case PROPERTY: value = new PropertyModelValue(in, lazy); return;
                 case STRING: value = new StringModelValue(in.readUTF()); return;
                 case TYPE: value = TypeModelValue.of(ModelType.forChar((char) (in.readByte() & 0xff))); return;
                 default: throw new IllegalStateException("Invalid type read: " + type);
@@ -1333,6 +1476,52 @@ public class ModelNode implements Cloneable {
         }
     }
 
+    /**
+     * Skip over a node written by {@link #writeExternal(DataOutput)} without decoding it.
+     *
+     * @param in the source positioned at the type byte of the node
+     * @throws IOException if an I/O error occurs
+     */
+    static void skipExternal(final DataInput in) throws IOException {
+        skipValue(ModelType.forChar((char) (in.readByte() & 0xff)), in);
+    }
+
+    /**
+     * Skip over the content of a value of the given type, i.e. everything following the type byte.
+     */
+    static void skipValue(final ModelType type, final DataInput in) throws IOException {
+        switch (type) {
+            case UNDEFINED: return;
+            case BOOLEAN:
+            case TYPE: in.skipBytes(1); return;
+            case INT: in.skipBytes(4); return;
+            case LONG:
+            case DOUBLE: in.skipBytes(8); return;
+            case BIG_DECIMAL:
+            case EXPRESSION:
+            case STRING: in.skipUTF(); return;
+            case BIG_INTEGER:
+            case BYTES: in.skipBytes(in.readInt()); return;
+            case PROPERTY: in.skipUTF(); skipExternal(in); return;
+            case LIST: {
+                final int count = in.readInt();
+                for (int i = 0; i < count; i ++) {
+                    skipExternal(in);
+                }
+                return;
+            }
+            case OBJECT: {
+                final int count = in.readInt();
+                for (int i = 0; i < count; i ++) {
+                    in.skipUTF();
+                    skipExternal(in);
+                }
+                return;
+            }
+            default: throw new IllegalStateException("Invalid type read: " + type);
+        }
+    }
+
     private void checkProtect() {
         if (protect) {
             throw new UnsupportedOperationException();
@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled path of attribute names, i.e. "heap-memory-usage/used".<p/>
+ *
+ * Unlike {@link ModelNode#get(String...)} resolving a path has no side effects:
+ * missing children are not created. Instead a shared, protected undefined node is returned.
+ * Resolved nodes should be treated as read only.
+ */
+public final class ModelPath {
+
+    /**
+     * Returned for paths that cannot be resolved
+     */
+    public static final ModelNode UNDEFINED = new ModelNode();
+
+    static {
+        UNDEFINED.protect();
+    }
+
+    private final String[] names;
+    private final String path;
+
+    private ModelPath(String[] names, String path) {
+        this.names = names;
+        this.path = path;
+    }
+
+    /**
+     * Compile a '/' separated path.
+     */
+    public static ModelPath compile(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+
+        List<String> names = new ArrayList<String>();
+        int start = 0;
+        int index;
+        while ((index = path.indexOf('/', start)) != -1) {
+            names.add(path.substring(start, index));
+            start = index + 1;
+        }
+        names.add(path.substring(start));
+
+        return new ModelPath(names.toArray(new String[names.size()]), path);
+    }
+
+    public static ModelPath of(String... names) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) path.append('/');
+            path.append(names[i]);
+        }
+        return new ModelPath(copy(names), path.toString());
+    }
+
+    /**
+     * A path of the given parent segments, optionally followed by one more segment.
+     */
+    static ModelPath of(List<String> parent, String name) {
+        String[] names = new String[name != null ? parent.size() + 1 : parent.size()];
+        parent.toArray(names);
+        if (name != null) {
+            names[names.length - 1] = name;
+        }
+        return of(names);
+    }
+
+    /**
+     * Navigate the path starting at the given node.
+     *
+     * @return the node at the end of the path, or {@link #UNDEFINED} if any segment doesn't exist
+     */
+    public ModelNode resolve(ModelNode node) {
+        for (String name : names) {
+            node = node.peek(name);
+            if (node == null) {
+                return UNDEFINED;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @return {@code true} if the path resolves to a defined node
+     */
+    public boolean isDefined(ModelNode node) {
+        return resolve(node).isDefined();
+    }
+
+    /**
+     * @return the path segments
+     */
+    public String[] getNames() {
+        return copy(names);
+    }
+
+    private static String[] copy(String[] names) {
+        String[] copy = new String[names.length];
+        System.arraycopy(names, 0, copy, 0, names.length);
+        return copy;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ModelPath && path.equals(((ModelPath) o).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
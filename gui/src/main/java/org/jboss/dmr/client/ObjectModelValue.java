@@ -23,7 +23,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -33,11 +32,18 @@ import java.util.Set;
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 final class ObjectModelValue extends ModelValue {
-    private final Map<String, ModelNode> map;
+    private Map<String, ModelNode> map;
+
+    /**
+     * Undecoded content of a lazily read value, {@code null} once the map has been materialized.
+     */
+    private DataInput source;
+    private int start;
+    private int end;
 
     protected ObjectModelValue() {
         super(ModelType.OBJECT);
-        map = new LinkedHashMap<String, ModelNode>();
+        map = new CompactMap();
     }
 
     private ObjectModelValue(final Map<String, ModelNode> map) {
@@ -45,21 +51,63 @@ final class ObjectModelValue extends ModelValue {
         this.map = map;
     }
 
+    private ObjectModelValue(final DataInput source, final int start, final int end) {
+        super(ModelType.OBJECT);
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
     ObjectModelValue(final DataInput in) throws IOException {
+        this(in, false);
+    }
+
+    /**
+     * Read an object value.  In lazy mode the content is only skipped over and
+     * decoded the first time one of the entries is accessed.
+     */
+    ObjectModelValue(final DataInput in, final boolean lazy) throws IOException {
         super(ModelType.OBJECT);
+        if (lazy) {
+            source = in;
+            start = in.getPosition();
+            ModelNode.skipValue(ModelType.OBJECT, in);
+            end = in.getPosition();
+        } else {
+            map = readMap(in, false);
+        }
+    }
+
+    private static CompactMap readMap(final DataInput in, final boolean lazy) throws IOException {
         final int count = in.readInt();
-        final LinkedHashMap<String, ModelNode> map = new LinkedHashMap<String, ModelNode>();
+        final CompactMap map = new CompactMap(count);
         for (int i = 0; i < count; i ++) {
-            final String key = in.readUTF();
+            final String key = in.readKey();
             final ModelNode value = new ModelNode();
-            value.readExternal(in);
+            value.readExternal(in, lazy);
             map.put(key, value);
         }
-        this.map = map;
+        return map;
+    }
+
+    private Map<String, ModelNode> map() {
+        if (map == null) {
+            try {
+                map = readMap(source.duplicate(start), true);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+            source = null;
+        }
+        return map;
     }
 
     @Override
     void writeExternal(final DataOutput out) throws IOException {
+        if (map == null) {
+            out.write(source.getBuffer(), start, end - start);
+            return;
+        }
         final Map<String, ModelNode> map = this.map;
         final int size = map.size();
         out.writeInt(size);
@@ -71,11 +119,11 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     ModelValue protect() {
-        final Map<String, ModelNode> map = this.map;
+        final Map<String, ModelNode> map = map();
         for (final ModelNode node : map.values()) {
             node.protect();
         }
-        return map.getClass() == LinkedHashMap.class ? new ObjectModelValue(Collections.unmodifiableMap(map)) : this;
+        return map instanceof CompactMap ? new ObjectModelValue(Collections.unmodifiableMap(map)) : this;
     }
 
     @Override
@@ -88,12 +136,12 @@ final class ObjectModelValue extends ModelValue {
         if (name == null) {
             return null;
         }
-        final ModelNode node = map.get(name);
+        final ModelNode node = map().get(name);
         if (node != null) {
             return node;
         }
         final ModelNode newNode = new ModelNode();
-        map.put(name, newNode);
+        map().put(name, newNode);
         return newNode;
     }
 
@@ -102,12 +150,12 @@ final class ObjectModelValue extends ModelValue {
         if (name == null) {
             return null;
         }
-        return map.remove(name);
+        return map().remove(name);
     }
 
     @Override
     int asInt() {
-        return map.size();
+        return map().size();
     }
 
     @Override
@@ -127,18 +175,18 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     boolean asBoolean() {
-        return ! map.isEmpty();
+        return ! map().isEmpty();
     }
 
     @Override
     boolean asBoolean(final boolean defVal) {
-        return ! map.isEmpty();
+        return ! map().isEmpty();
     }
 
     @Override
     Property asProperty() {
-        if (map.size() == 1) {
-            final Map.Entry<String, ModelNode> entry = map.entrySet().iterator().next();
+        if (map().size() == 1) {
+            final Map.Entry<String, ModelNode> entry = map().entrySet().iterator().next();
             return new Property(entry.getKey(), entry.getValue());
         }
         return super.asProperty();
@@ -147,7 +195,7 @@ final class ObjectModelValue extends ModelValue {
     @Override
     List<Property> asPropertyList() {
         final List<Property> propertyList = new ArrayList<Property>();
-        for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
+        for (final Map.Entry<String, ModelNode> entry : map().entrySet()) {
             propertyList.add(new Property(entry.getKey(), entry.getValue()));
         }
         return propertyList;
@@ -164,7 +212,12 @@ final class ObjectModelValue extends ModelValue {
     }
 
     ModelValue copy(final boolean resolve) {
-        final LinkedHashMap<String, ModelNode> newMap = new LinkedHashMap<String, ModelNode>();
+        if (map == null && !resolve) {
+            // the undecoded content is immutable and can be shared
+            return new ObjectModelValue(source, start, end);
+        }
+        final Map<String, ModelNode> map = map();
+        final CompactMap newMap = new CompactMap(map.size());
         for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
             newMap.put(entry.getKey(), resolve ? entry.getValue().resolve() : entry.getValue().clone());
         }
@@ -174,7 +227,7 @@ final class ObjectModelValue extends ModelValue {
     @Override
     List<ModelNode> asList() {
         final ArrayList<ModelNode> nodes = new ArrayList<ModelNode>();
-        for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
+        for (final Map.Entry<String, ModelNode> entry : map().entrySet()) {
             final ModelNode node = new ModelNode();
             node.set(entry.getKey(), entry.getValue());
             nodes.add(node);
@@ -184,7 +237,7 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     Set<String> getKeys() {
-        return map.keySet();
+        return map().keySet();
     }
 
     @Override
@@ -197,11 +250,11 @@ final class ObjectModelValue extends ModelValue {
     @Override
     void format(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
         builder.append('{');
-        final boolean multiLine = multiLineRequested && map.size() > 1;
+        final boolean multiLine = multiLineRequested && map().size() > 1;
         if (multiLine) {
             indent(builder.append('\n'), indent + 1);
         }
-        final Iterator<Map.Entry<String, ModelNode>> iterator = map.entrySet().iterator();
+        final Iterator<Map.Entry<String, ModelNode>> iterator = map().entrySet().iterator();
         while (iterator.hasNext()) {
             final Map.Entry<String, ModelNode> entry = iterator.next();
             builder.append(quote(entry.getKey()));
@@ -225,11 +278,11 @@ final class ObjectModelValue extends ModelValue {
     @Override
     void formatAsJSON(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
         builder.append('{');
-        final boolean multiLine = multiLineRequested && map.size() > 1;
+        final boolean multiLine = multiLineRequested && map().size() > 1;
         if(multiLine) {
             indent(builder.append('\n'), indent + 1);
         }
-        final Iterator<Map.Entry<String, ModelNode>> iterator = map.entrySet().iterator();
+        final Iterator<Map.Entry<String, ModelNode>> iterator = map().entrySet().iterator();
         while (iterator.hasNext()) {
             final Map.Entry<String, ModelNode> entry = iterator.next();
             builder.append(quote(entry.getKey()));
@@ -268,22 +321,22 @@ final class ObjectModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ObjectModelValue other) {
-        return this == other || other != null && other.map.equals(map);
+        return this == other || other != null && other.map().equals(map());
     }
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return map().hashCode();
     }
 
     @Override
     boolean has(final String key) {
-        return map.containsKey(key);
+        return map().containsKey(key);
     }
 
     @Override
     ModelNode requireChild(final String name) throws NoSuchElementException {
-        final ModelNode node = map.get(name);
+        final ModelNode node = map().get(name);
         if (node != null) {
             return node;
         }
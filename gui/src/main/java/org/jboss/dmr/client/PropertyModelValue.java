@@ -50,10 +50,14 @@ final class PropertyModelValue extends ModelValue {
     }
 
     PropertyModelValue(final DataInput in) throws IOException {
+        this(in, false);
+    }
+
+    PropertyModelValue(final DataInput in, final boolean lazy) throws IOException {
         super(ModelType.PROPERTY);
         final ModelNode node = new ModelNode();
-        final String name = in.readUTF();
-        node.readExternal(in);
+        final String name = in.readKey();
+        node.readExternal(in, lazy);
         property = new Property(name, node);
     }
 
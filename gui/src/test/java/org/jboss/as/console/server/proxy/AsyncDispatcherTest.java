@@ -0,0 +1,220 @@
+package org.jboss.as.console.server.proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * The Servlet 3 async API is mocked reflectively: on a Servlet 2.5 classpath there is no
+ * dispatcher and these tests are skipped.
+ */
+public class AsyncDispatcherTest {
+
+    private AsyncDispatcher dispatcher;
+
+    /**
+     * A request with an async context that records its completion and listener
+     */
+    private static class AsyncRequest implements InvocationHandler {
+        final CountDownLatch completed = new CountDownLatch(1);
+        RuntimeException startFailure;
+        Object listener;
+
+        HttpServletRequest create() {
+            return (HttpServletRequest) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{HttpServletRequest.class}, this);
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+            String name = method.getName();
+            if ("isAsyncSupported".equals(name))
+                return true;
+            else if ("getContentLength".equals(name))
+                return 2;
+            else if ("getInputStream".equals(name))
+                return inputStream("op".getBytes("UTF-8"));
+            else if ("startAsync".equals(name))
+            {
+                if (startFailure != null)
+                    throw startFailure;
+                return context(method.getReturnType());
+            }
+            return null;
+        }
+
+        private Object context(Class<?> contextType) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{contextType},
+                    new InvocationHandler() {
+                        public Object invoke(Object proxy, Method method, Object[] args) {
+                            if ("addListener".equals(method.getName()))
+                                listener = args[0];
+                            else if ("complete".equals(method.getName()))
+                                completed.countDown();
+                            return null;
+                        }
+                    });
+        }
+
+        void timeout() throws Exception {
+            Class<?> eventType = Class.forName("javax.servlet.AsyncEvent");
+            listener.getClass().getMethod("onTimeout", eventType).invoke(listener, new Object[]{null});
+        }
+    }
+
+    /**
+     * Records the status of a response
+     */
+    private static class StatusResponse implements InvocationHandler {
+        volatile int status;
+
+        HttpServletResponse create() {
+            return (HttpServletResponse) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, this);
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("setStatus".equals(name) || "sendError".equals(name))
+                status = (Integer) args[0];
+            else if ("isCommitted".equals(name))
+                return false;
+            return null;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        dispatcher = AsyncDispatcher.create(1, 60000);
+        assumeNotNull(dispatcher);
+    }
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null)
+            dispatcher.shutdown();
+    }
+
+    @Test
+    public void testProcessedOnWorkerThread() throws Exception {
+        AsyncRequest request = new AsyncRequest();
+        StatusResponse response = new StatusResponse();
+        final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+        final AtomicReference<String> body = new AtomicReference<String>();
+
+        assertTrue(dispatcher.dispatch(request.create(), response.create(), new AsyncDispatcher.Task() {
+            public void process(HttpServletRequest request, HttpServletResponse response) {
+                worker.set(Thread.currentThread());
+                try {
+                    body.set(FakeUpstream.read(request.getInputStream()));
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                response.setStatus(200);
+            }
+        }));
+
+        assertTrue(request.completed.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), worker.get());
+        assertEquals("op", body.get());
+        assertEquals(200, response.status);
+    }
+
+    @Test
+    public void testRefusedBeyondLimit() throws Exception {
+        final CountDownLatch proceed = new CountDownLatch(1);
+        AsyncRequest first = new AsyncRequest();
+        dispatcher.dispatch(first.create(), new StatusResponse().create(), new AsyncDispatcher.Task() {
+            public void process(HttpServletRequest request, HttpServletResponse response) {
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+
+        StatusResponse refused = new StatusResponse();
+        assertTrue(dispatcher.dispatch(new AsyncRequest().create(), refused.create(), new AsyncDispatcher.Task() {
+            public void process(HttpServletRequest request, HttpServletResponse response) {
+                fail("Processed beyond the limit");
+            }
+        }));
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, refused.status);
+
+        proceed.countDown();
+        assertTrue(first.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTimeoutDetachesResponse() throws Exception {
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        AsyncRequest request = new AsyncRequest();
+        StatusResponse response = new StatusResponse();
+
+        dispatcher.dispatch(request.create(), response.create(), new AsyncDispatcher.Task() {
+            public void process(HttpServletRequest request, HttpServletResponse response) {
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                response.setStatus(200);
+                done.countDown();
+            }
+        });
+
+        request.timeout();
+        assertTrue(request.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(HttpServletResponse.SC_GATEWAY_TIMEOUT, response.status);
+
+        proceed.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(HttpServletResponse.SC_GATEWAY_TIMEOUT, response.status);
+    }
+
+    @Test
+    public void testFallbackWhenAsyncCannotStart() throws Exception {
+        for (int i = 0; i < 2; i++)
+        {
+            AsyncRequest request = new AsyncRequest();
+            request.startFailure = new IllegalStateException("not supported by a filter");
+            StatusResponse response = new StatusResponse();
+            final AtomicReference<Thread> worker = new AtomicReference<Thread>();
+
+            // the permit is released, otherwise the second request would be refused
+            assertTrue(dispatcher.dispatch(request.create(), response.create(), new AsyncDispatcher.Task() {
+                public void process(HttpServletRequest request, HttpServletResponse response) {
+                    worker.set(Thread.currentThread());
+                    response.setStatus(200);
+                }
+            }));
+            assertSame(Thread.currentThread(), worker.get());
+            assertEquals(200, response.status);
+        }
+    }
+
+    private static ServletInputStream inputStream(byte[] content) {
+        final ByteArrayInputStream in = new ByteArrayInputStream(content);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package org.jboss.as.console.server.proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+
+    private FakeUpstream upstream;
+    private ConnectionPool pool;
+    private ConnectionPool.Route route;
+
+    @Before
+    public void setUp() throws IOException {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                return true;
+            }
+        });
+        pool = new ConnectionPool(2, 30000);
+        route = new ConnectionPool.Route(new URL(upstream.url("/")), null, -1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        upstream.close();
+    }
+
+    @Test
+    public void testReleasedConnectionIsReused() throws Exception {
+        ConnectionPool.Connection first = pool.acquire(route);
+        assertFalse(first.reused);
+        pool.release(first);
+        assertEquals(1, pool.getIdleCount());
+
+        ConnectionPool.Connection second = pool.acquire(route);
+        assertSame(first, second);
+        assertTrue(second.reused);
+        assertEquals(1, pool.getLeasedCount());
+        assertEquals(1, upstream.getConnections());
+    }
+
+    @Test
+    public void testDiscardedConnectionIsClosed() throws Exception {
+        ConnectionPool.Connection first = pool.acquire(route);
+        pool.discard(first);
+        assertTrue(first.socket.isClosed());
+        assertEquals(0, pool.getLeasedCount());
+        assertEquals(0, pool.getIdleCount());
+
+        ConnectionPool.Connection second = pool.acquire(route);
+        assertNotSame(first, second);
+        assertFalse(second.reused);
+    }
+
+    @Test
+    public void testConnectionClosedByServerIsNotHandedOut() throws Exception {
+        ConnectionPool.Connection first = pool.acquire(route);
+        pool.release(first);
+
+        upstream.awaitConnections(1);
+        upstream.dropConnections();
+        // the FIN of the server arrives asynchronously
+        Thread.sleep(100);
+
+        ConnectionPool.Connection second = pool.acquire(route);
+        assertNotSame(first, second);
+        assertTrue(first.socket.isClosed());
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws Exception {
+        final ConnectionPool.Connection first = pool.acquire(route);
+        pool.acquire(route);
+
+        final AtomicReference<ConnectionPool.Connection> third = new AtomicReference<ConnectionPool.Connection>();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            public void run() {
+                try {
+                    third.set(pool.acquire(route));
+                    acquired.countDown();
+                } catch (IOException e) {
+                    // fails the assertion below
+                }
+            }
+        }).start();
+
+        assertFalse("limit exceeded", acquired.await(200, TimeUnit.MILLISECONDS));
+
+        pool.release(first);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertSame(first, third.get());
+        assertEquals(2, upstream.getConnections());
+    }
+
+    @Test
+    public void testCloseIdle() throws Exception {
+        ConnectionPool.Connection first = pool.acquire(route);
+        ConnectionPool.Connection second = pool.acquire(route);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(2, pool.getIdleCount());
+
+        pool.closeIdle(route);
+        assertEquals(0, pool.getIdleCount());
+        assertTrue(first.socket.isClosed());
+        assertTrue(second.socket.isClosed());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        ConnectionPool.Connection leased = pool.acquire(route);
+        pool.shutdown();
+
+        pool.release(leased);
+        assertTrue(leased.socket.isClosed());
+        try {
+            pool.acquire(route);
+            fail("Acquired a connection after shutdown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.jboss.as.console.server.proxy;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scripted HTTP/1.1 server on a local port, standing in for the management endpoint.
+ * Each connection is served by its own thread.
+ */
+class FakeUpstream {
+
+    interface Handler {
+        /**
+         * @return false to close the connection after the exchange
+         */
+        boolean handle(Exchange exchange) throws IOException;
+    }
+
+    static class Exchange {
+        /**
+         * Connections and the requests on each connection are counted from 1
+         */
+        final int connection;
+        final int request;
+        final String requestLine;
+        final Map<String, String> headers;
+        final byte[] body;
+        final OutputStream out;
+
+        Exchange(int connection, int request, String requestLine, Map<String, String> headers, byte[] body, OutputStream out) {
+            this.connection = connection;
+            this.request = request;
+            this.requestLine = requestLine;
+            this.headers = headers;
+            this.body = body;
+            this.out = out;
+        }
+
+        void respond(String head, byte[] content) throws IOException {
+            out.write(("HTTP/1.1 " + head + "\r\nContent-Length: " + content.length + "\r\n\r\n").getBytes("ISO-8859-1"));
+            out.write(content);
+            out.flush();
+        }
+
+        void respond(String head, String content) throws IOException {
+            respond(head, content.getBytes("UTF-8"));
+        }
+
+        void write(String raw) throws IOException {
+            out.write(raw.getBytes("ISO-8859-1"));
+            out.flush();
+        }
+    }
+
+    private final ServerSocket server;
+    private final Handler handler;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<Socket>();
+
+    FakeUpstream(Handler handler) throws IOException {
+        this.server = new ServerSocket(0);
+        this.handler = handler;
+
+        Thread acceptor = new Thread(new Runnable() {
+            public void run() {
+                accept();
+            }
+        }, "fake-upstream");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String url(String path) {
+        return "http://localhost:" + server.getLocalPort() + path;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Connections are accepted asynchronously, wait for the given number of them.
+     */
+    void awaitConnections(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && connections.get() < count; i++)
+            Thread.sleep(10);
+    }
+
+    /**
+     * Close the server side of all connections, as a server does after its keep-alive timeout.
+     */
+    void dropConnections() throws IOException {
+        for (Socket socket : sockets)
+            socket.close();
+    }
+
+    void close() throws IOException {
+        server.close();
+        dropConnections();
+    }
+
+    static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            XmlHttpProxy.copy(in, bos);
+        } finally {
+            in.close();
+        }
+        return bos.toString("UTF-8");
+    }
+
+    private void accept() {
+        while (!server.isClosed())
+        {
+            try {
+                final Socket socket = server.accept();
+                final int connection = connections.incrementAndGet();
+                sockets.add(socket);
+
+                Thread worker = new Thread(new Runnable() {
+                    public void run() {
+                        serve(socket, connection);
+                    }
+                }, "fake-upstream-" + connection);
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket, int connection) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+
+            for (int request = 1; ; request++)
+            {
+                String requestLine = HttpClient.readLine(in);
+                if (null == requestLine)
+                    break;
+
+                Map<String, String> headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+                String line;
+                while ((line = HttpClient.readLine(in)) != null && line.length() > 0)
+                {
+                    int colon = line.indexOf(':');
+                    headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+                }
+
+                byte[] body = readBody(in, headers);
+                requests.incrementAndGet();
+
+                if (!handler.handle(new Exchange(connection, request, requestLine, headers, body, out)))
+                    break;
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static byte[] readBody(InputStream in, Map<String, String> headers) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (headers.containsKey("Content-Length"))
+        {
+            int length = Integer.parseInt(headers.get("Content-Length"));
+            for (int i = 0; i < length; i++)
+                body.write(in.read());
+        }
+        else if ("chunked".equalsIgnoreCase(headers.get("Transfer-Encoding")))
+        {
+            int size;
+            while ((size = Integer.parseInt(HttpClient.readLine(in).trim(), 16)) > 0)
+            {
+                for (int i = 0; i < size; i++)
+                    body.write(in.read());
+                HttpClient.readLine(in);
+            }
+            HttpClient.readLine(in);
+        }
+        return body.toByteArray();
+    }
+}
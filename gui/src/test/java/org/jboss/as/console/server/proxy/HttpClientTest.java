@@ -0,0 +1,264 @@
+package org.jboss.as.console.server.proxy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+public class HttpClientTest {
+
+    private final ConnectionPool pool = new ConnectionPool();
+    private FakeUpstream upstream;
+
+    @After
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        if (upstream != null)
+            upstream.close();
+    }
+
+    @Test
+    public void testContentLengthBody() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                exchange.respond("200 OK", "hello");
+                return true;
+            }
+        });
+
+        HttpClient client = get("/");
+        assertEquals(200, client.getResponseCode());
+        assertEquals("hello", FakeUpstream.read(client.getInputStream()));
+    }
+
+    @Test
+    public void testChunkedBody() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                exchange.write("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                        + "5\r\nhello\r\n6;ext=1\r\n world\r\n0\r\nTrailer: x\r\n\r\n");
+                return true;
+            }
+        });
+
+        HttpClient client = get("/");
+        assertEquals(200, client.getResponseCode());
+        assertEquals("hello world", FakeUpstream.read(client.getInputStream()));
+
+        // the trailer has been consumed, the connection is still usable
+        assertEquals("hello world", FakeUpstream.read(get("/").getInputStream()));
+        assertEquals(1, upstream.getConnections());
+    }
+
+    @Test
+    public void testRequestBodies() throws Exception {
+        final StringBuffer received = new StringBuffer();
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                String framing = exchange.headers.containsKey("Content-Length") ? "length" : exchange.headers.get("Transfer-Encoding");
+                received.append(framing).append(':').append(new String(exchange.body, "UTF-8")).append(' ');
+                exchange.respond("200 OK", "");
+                return true;
+            }
+        });
+
+        byte[] payload = "read-resource".getBytes("UTF-8");
+        HttpClient fixed = new HttpClient(pool, null, -1, upstream.url("/"), null, XmlHttpProxy.POST, null);
+        FakeUpstream.read(fixed.doPost(new ByteArrayInputStream(payload), payload.length, "text/plain", null));
+
+        HttpClient chunked = new HttpClient(pool, null, -1, upstream.url("/"), null, XmlHttpProxy.POST, null);
+        FakeUpstream.read(chunked.doPost(new ByteArrayInputStream(payload), -1, "text/plain", null));
+
+        assertEquals("length:read-resource chunked:read-resource ", received.toString());
+    }
+
+    @Test
+    public void testConnectionReuse() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                exchange.respond("200 OK", "request " + exchange.request);
+                return true;
+            }
+        });
+
+        assertEquals("request 1", FakeUpstream.read(get("/").getInputStream()));
+        assertEquals("request 2", FakeUpstream.read(get("/").getInputStream()));
+        assertEquals(1, upstream.getConnections());
+    }
+
+    @Test
+    public void testConnectionCloseDiscardsConnection() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                exchange.respond("200 OK\r\nConnection: close", "bye");
+                return false;
+            }
+        });
+
+        assertEquals("bye", FakeUpstream.read(get("/").getInputStream()));
+        assertEquals("bye", FakeUpstream.read(get("/").getInputStream()));
+        assertEquals(2, upstream.getConnections());
+    }
+
+    @Test
+    public void testUnreadBodyDiscardsConnection() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                exchange.respond("200 OK", new byte[256 * 1024]);
+                return true;
+            }
+        });
+
+        // too large to be drained
+        get("/").getInputStream().close();
+        FakeUpstream.read(get("/").getInputStream());
+        assertEquals(2, upstream.getConnections());
+    }
+
+    @Test
+    public void testRetryWhenClosedBeforeStatus() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                // the server drops the kept-alive connection without responding
+                if (exchange.connection == 1 && exchange.request == 2)
+                    return false;
+                exchange.respond("200 OK", "ok");
+                return true;
+            }
+        });
+
+        assertEquals("ok", FakeUpstream.read(get("/").getInputStream()));
+
+        byte[] payload = "read-resource".getBytes("UTF-8");
+        HttpClient client = new HttpClient(pool, null, -1, upstream.url("/"), null, XmlHttpProxy.POST, null);
+        InputStream in = client.doPost(new ByteArrayInputStream(payload), payload.length, "text/plain", null);
+
+        assertEquals(200, client.getResponseCode());
+        assertEquals("ok", FakeUpstream.read(in));
+        assertEquals(2, upstream.getConnections());
+        assertEquals(3, upstream.getRequests());
+    }
+
+    @Test
+    public void testRetryWithStreamedBody() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                if (exchange.connection == 1 && exchange.request == 2)
+                    return false;
+                exchange.respond("200 OK", exchange.body);
+                return true;
+            }
+        });
+
+        assertEquals("", FakeUpstream.read(get("/").getInputStream()));
+
+        // like the request stream of a servlet
+        byte[] payload = "read-resource".getBytes("UTF-8");
+        HttpClient client = new HttpClient(pool, null, -1, upstream.url("/"), null, XmlHttpProxy.POST, null);
+        InputStream in = client.doPost(unmarkable(payload), payload.length, "text/plain", null);
+
+        assertEquals(200, client.getResponseCode());
+        assertEquals("read-resource", FakeUpstream.read(in));
+        assertEquals(3, upstream.getRequests());
+    }
+
+    @Test
+    public void testNoRetryOfLargeStreamedBody() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                if (exchange.connection == 1 && exchange.request == 2)
+                    return false;
+                exchange.respond("200 OK", "ok");
+                return true;
+            }
+        });
+
+        assertEquals("ok", FakeUpstream.read(get("/").getInputStream()));
+
+        byte[] payload = new byte[128 * 1024];
+        HttpClient client = new HttpClient(pool, null, -1, upstream.url("/"), null, XmlHttpProxy.POST, null);
+        assertNull(client.doPost(unmarkable(payload), payload.length, "application/octet-stream", null));
+        assertTrue(client.getFailure() instanceof HttpClient.ConnectionClosedException);
+        assertEquals(2, upstream.getRequests());
+    }
+
+    @Test
+    public void testNoRetryOnFreshConnection() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                return false;
+            }
+        });
+
+        HttpClient client = get("/");
+        assertNull(client.getInputStream());
+        assertEquals(-1, client.getResponseCode());
+        assertTrue(client.getFailure() instanceof HttpClient.ConnectionClosedException);
+        assertEquals(1, upstream.getRequests());
+    }
+
+    @Test
+    public void testNoRetryAfterPartialStatus() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                if (exchange.request == 2)
+                {
+                    // the server may have processed the request
+                    exchange.write("HTTP/1.1 2");
+                    return false;
+                }
+                exchange.respond("200 OK", "ok");
+                return true;
+            }
+        });
+
+        assertEquals("ok", FakeUpstream.read(get("/").getInputStream()));
+
+        HttpClient client = get("/");
+        assertNull(client.getInputStream());
+        assertNotNull(client.getFailure());
+        assertEquals(1, upstream.getConnections());
+        assertEquals(2, upstream.getRequests());
+    }
+
+    @Test
+    public void testNoRetryOnInvalidResponse() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                if (exchange.request == 2)
+                {
+                    exchange.write("garbage\r\n\r\n");
+                    return false;
+                }
+                exchange.respond("200 OK", "ok");
+                return true;
+            }
+        });
+
+        assertEquals("ok", FakeUpstream.read(get("/").getInputStream()));
+
+        HttpClient client = get("/");
+        assertNull(client.getInputStream());
+        assertFalse(client.getFailure() instanceof HttpClient.ConnectionClosedException);
+        assertEquals(1, upstream.getConnections());
+        assertEquals(2, upstream.getRequests());
+    }
+
+    private static InputStream unmarkable(byte[] content) {
+        return new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+    }
+
+    private HttpClient get(String path) throws IOException {
+        return new HttpClient(pool, null, -1, upstream.url(path), null, XmlHttpProxy.GET, null);
+    }
+}
@@ -0,0 +1,132 @@
+package org.jboss.as.console.server.proxy;
+
+import org.jboss.dmr.client.Base64;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.*;
+
+public class ResponseCompressionTest {
+
+    /**
+     * Records the headers and the body written to a response
+     */
+    private static class RecordingResponse implements InvocationHandler {
+        final Map<String, Object> headers = new HashMap<String, Object>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        HttpServletResponse create() {
+            return (HttpServletResponse) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, this);
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if ("setHeader".equals(name))
+                headers.put((String) args[0], args[1]);
+            else if ("setContentLength".equals(name))
+                headers.put("Content-Length", args[0]);
+            else if ("getOutputStream".equals(name))
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        body.write(b);
+                    }
+                };
+            return null;
+        }
+    }
+
+    @Test
+    public void testNegotiate() {
+        assertNull(ResponseCompression.negotiate(null));
+        assertNull(ResponseCompression.negotiate("identity"));
+        assertNull(ResponseCompression.negotiate("gzip;q=0, deflate;q=0"));
+        assertEquals("gzip", ResponseCompression.negotiate("gzip, deflate"));
+        assertEquals("gzip", ResponseCompression.negotiate("deflate, gzip"));
+        assertEquals("deflate", ResponseCompression.negotiate("deflate, gzip;q=0.5"));
+        assertEquals("deflate", ResponseCompression.negotiate("x-gzip, DEFLATE"));
+        assertEquals("gzip", ResponseCompression.negotiate("deflate;q=0.8 , gzip;q=0.8"));
+        assertNull(ResponseCompression.negotiate("gzip;q=invalid"));
+    }
+
+    @Test
+    public void testBelowThresholdIsNotCompressed() throws Exception {
+        RecordingResponse response = new RecordingResponse();
+        OutputStream out = new ResponseCompression(100).wrap(response.create(), ResponseCompression.GZIP);
+
+        byte[] payload = repeat("small", 20);
+        out.write(payload);
+        out.close();
+
+        assertNull(response.headers.get("Content-Encoding"));
+        assertEquals(100, response.headers.get("Content-Length"));
+        assertArrayEquals(payload, response.body.toByteArray());
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        RecordingResponse response = new RecordingResponse();
+        OutputStream out = new ResponseCompression(100).wrap(response.create(), ResponseCompression.GZIP);
+
+        byte[] payload = repeat("read-resource ", 100);
+        out.write(payload, 0, 50);
+        out.write(payload, 50, payload.length - 50);
+        out.close();
+
+        assertEquals("gzip", response.headers.get("Content-Encoding"));
+        assertNull(response.headers.get("Content-Length"));
+        assertTrue(response.body.size() < payload.length);
+        assertArrayEquals(payload, readAll(new GZIPInputStream(new ByteArrayInputStream(response.body.toByteArray()))));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        RecordingResponse response = new RecordingResponse();
+        OutputStream out = new ResponseCompression(100).wrap(response.create(), ResponseCompression.DEFLATE);
+
+        byte[] payload = repeat("read-resource ", 100);
+        for (byte b : payload)
+            out.write(b);
+        out.close();
+
+        assertEquals("deflate", response.headers.get("Content-Encoding"));
+        assertArrayEquals(payload, readAll(new InflaterInputStream(new ByteArrayInputStream(response.body.toByteArray()))));
+    }
+
+    @Test
+    public void testGzipFraming() throws Exception {
+        byte[] decoded = repeat("outcome => success ", 50);
+        byte[] framed = ResponseCompression.gzipFramed(Base64.encodeBytesToBytes(decoded));
+
+        byte[] gzipped = Base64.decode(framed, 0, framed.length, Base64.NO_OPTIONS);
+        assertArrayEquals(decoded, readAll(new GZIPInputStream(new ByteArrayInputStream(gzipped))));
+    }
+
+    private static byte[] repeat(String s, int times) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++)
+            sb.append(s);
+        return sb.toString().getBytes("UTF-8");
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        XmlHttpProxy.copy(in, bos);
+        return bos.toByteArray();
+    }
+}
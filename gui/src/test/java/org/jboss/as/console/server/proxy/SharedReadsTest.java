@@ -0,0 +1,143 @@
+package org.jboss.as.console.server.proxy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SharedReadsTest {
+
+    /**
+     * Counts the operations sent upstream. Each response carries its sequence number.
+     */
+    private static class CountingUpstream implements SharedReads.Upstream {
+        final AtomicInteger opened = new AtomicInteger();
+        final CountDownLatch proceed;
+        int status = 200;
+
+        CountingUpstream(CountDownLatch proceed) {
+            this.proceed = proceed;
+        }
+
+        public XmlHttpProxy.Response open() throws IOException {
+            int sequence = opened.incrementAndGet();
+            try {
+                proceed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted");
+            }
+            byte[] body = ("response " + sequence).getBytes("UTF-8");
+            return new XmlHttpProxy.Response(status, "application/dmr-encoded", null, new ByteArrayInputStream(body));
+        }
+    }
+
+    @Test
+    public void testConcurrentReadsShareOneUpstreamRequest() throws Exception {
+        final SharedReads reads = new SharedReads(10000);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final CountingUpstream upstream = new CountingUpstream(proceed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 8; i++)
+            {
+                results.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        XmlHttpProxy.Response response = reads.execute("read-resource", upstream);
+                        assertEquals(200, response.getStatus());
+                        return FakeUpstream.read(response.getBody());
+                    }
+                }));
+            }
+
+            // let the requests pile up behind the first one
+            Thread.sleep(200);
+            proceed.countDown();
+
+            for (Future<String> result : results)
+                assertEquals("response 1", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, upstream.opened.get());
+        assertEquals(1, reads.getFlightCount());
+    }
+
+    @Test
+    public void testResponseIsSharedWithinWindow() throws Exception {
+        SharedReads reads = new SharedReads(10000);
+        CountingUpstream upstream = new CountingUpstream(new CountDownLatch(0));
+
+        assertEquals("response 1", FakeUpstream.read(reads.execute("op", upstream).getBody()));
+        assertEquals("response 1", FakeUpstream.read(reads.execute("op", upstream).getBody()));
+        assertEquals("response 2", FakeUpstream.read(reads.execute("other", upstream).getBody()));
+        assertEquals(2, upstream.opened.get());
+    }
+
+    @Test
+    public void testResponseExpiresAfterWindow() throws Exception {
+        SharedReads reads = new SharedReads(50);
+        CountingUpstream upstream = new CountingUpstream(new CountDownLatch(0));
+
+        FakeUpstream.read(reads.execute("op", upstream).getBody());
+        Thread.sleep(100);
+        assertEquals("response 2", FakeUpstream.read(reads.execute("op", upstream).getBody()));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        SharedReads reads = new SharedReads(10000);
+        CountingUpstream upstream = new CountingUpstream(new CountDownLatch(0));
+
+        FakeUpstream.read(reads.execute("op", upstream).getBody());
+        reads.invalidate();
+        assertEquals("response 2", FakeUpstream.read(reads.execute("op", upstream).getBody()));
+    }
+
+    @Test
+    public void testErrorsAreNotRetained() throws Exception {
+        SharedReads reads = new SharedReads(10000);
+        CountingUpstream upstream = new CountingUpstream(new CountDownLatch(0));
+        upstream.status = 500;
+
+        assertEquals(500, reads.execute("op", upstream).getStatus());
+        assertEquals(500, reads.execute("op", upstream).getStatus());
+        assertEquals(2, upstream.opened.get());
+    }
+
+    @Test
+    public void testFailuresAreNotRetained() throws Exception {
+        SharedReads reads = new SharedReads(10000);
+        final AtomicInteger attempts = new AtomicInteger();
+        SharedReads.Upstream failing = new SharedReads.Upstream() {
+            public XmlHttpProxy.Response open() throws IOException {
+                attempts.incrementAndGet();
+                throw new IOException("unavailable");
+            }
+        };
+
+        for (int i = 0; i < 2; i++)
+        {
+            try {
+                reads.execute("op", failing);
+                fail("Failure not propagated");
+            } catch (IOException e) {
+                assertEquals("unavailable", e.getMessage());
+            }
+        }
+        assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,146 @@
+package org.jboss.as.console.server.proxy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class XmlHttpProxyTest {
+
+    private final XmlHttpProxy proxy = new XmlHttpProxy();
+    private FakeUpstream upstream;
+
+    @After
+    public void tearDown() throws IOException {
+        proxy.shutdown();
+        if (upstream != null)
+            upstream.close();
+    }
+
+    /**
+     * Concurrent requests through a shared proxy must not see each other's status or body.
+     */
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                String operation = new String(exchange.body, "UTF-8");
+                int status = 200 + Integer.parseInt(operation.substring(operation.lastIndexOf('-') + 1)) % 2;
+                exchange.respond(status + " OK\r\nContent-Type: application/dmr-encoded", "response to " + operation);
+                return true;
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 200; i++)
+            {
+                final String operation = "operation-" + i;
+                final int expectedStatus = 200 + i % 2;
+                results.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        byte[] body = operation.getBytes("UTF-8");
+                        XmlHttpProxy.Response response = proxy.open(upstream.url("/management"), null, XmlHttpProxy.POST,
+                                new ByteArrayInputStream(body), body.length, "application/dmr-encoded", null, null, null);
+                        try {
+                            assertEquals(expectedStatus, response.getStatus());
+                            assertEquals("application/dmr-encoded", response.getContentType());
+                            assertEquals("response to " + operation, FakeUpstream.read(response.getBody()));
+                        } finally {
+                            response.close();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> result : results)
+                result.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, upstream.getRequests());
+        assertTrue(upstream.getConnections() <= 16);
+    }
+
+    @Test
+    public void testCookiesAreKeptPerJar() throws Exception {
+        final Map<String, String> cookieHeaders = new ConcurrentHashMap<String, String>();
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                String path = exchange.requestLine.split(" ")[1];
+                String cookie = exchange.headers.get("Cookie");
+                cookieHeaders.put(path, cookie != null ? cookie : "none");
+
+                if (path.equals("/login"))
+                    exchange.respond("200 OK\r\nSet-Cookie: session=alice; Path=/", "");
+                else
+                    exchange.respond("200 OK", "");
+                return true;
+            }
+        });
+
+        Map<String, XmlHttpProxy.Cookie> alice = new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+        Map<String, XmlHttpProxy.Cookie> bob = new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+
+        get("/login", alice);
+        assertEquals("alice", alice.get("session").value);
+
+        get("/alice", alice);
+        get("/bob", bob);
+        assertEquals("session=alice", cookieHeaders.get("/alice"));
+        assertEquals("none", cookieHeaders.get("/bob"));
+        assertTrue(bob.isEmpty());
+    }
+
+    @Test
+    public void testAllCookiesAreSent() throws Exception {
+        final Map<String, String> cookieHeaders = new ConcurrentHashMap<String, String>();
+        upstream = new FakeUpstream(new FakeUpstream.Handler() {
+            public boolean handle(FakeUpstream.Exchange exchange) throws IOException {
+                String path = exchange.requestLine.split(" ")[1];
+                String cookie = exchange.headers.get("Cookie");
+                cookieHeaders.put(path, cookie != null ? cookie : "none");
+
+                if (path.startsWith("/set/"))
+                    exchange.respond("200 OK\r\nSet-Cookie: " + path.substring(5) + "; Path=/", "");
+                else
+                    exchange.respond("200 OK", "");
+                return true;
+            }
+        });
+
+        Map<String, XmlHttpProxy.Cookie> jar = new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+        get("/set/a=1", jar);
+        get("/set/b=2", jar);
+        get("/read", jar);
+
+        List<String> sent = Arrays.asList(cookieHeaders.get("/read").split("; "));
+        assertEquals(2, sent.size());
+        assertTrue(sent.contains("a=1"));
+        assertTrue(sent.contains("b=2"));
+    }
+
+    private void get(String path, Map<String, XmlHttpProxy.Cookie> jar) throws IOException {
+        XmlHttpProxy.Response response = proxy.open(upstream.url(path), new HashMap(), XmlHttpProxy.GET,
+                null, -1, null, null, null, null, jar);
+        FakeUpstream.read(response.getBody());
+        response.close();
+    }
+}
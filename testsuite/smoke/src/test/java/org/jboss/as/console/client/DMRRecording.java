@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client;
+
+import org.jboss.dmr.client.ModelNode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operations and the responses they received, in the order they've been executed.<p/>
+ *
+ * Recordings are stored as plain text, one exchange per line: the Base64 encoded operation,
+ * followed by a blank and the Base64 encoded response. Lines starting with '#' are ignored.<p/>
+ *
+ * An operation that has been executed several times (i.e. when polling) is replayed
+ * with the responses in the order they were recorded. The last response is repeated once they are used up.
+ */
+public class DMRRecording {
+
+    private final Map<String, List<String>> exchanges = new LinkedHashMap<String, List<String>>();
+    private final Map<String, Integer> replayed = new HashMap<String, Integer>();
+
+    public static DMRRecording load(File file) throws IOException {
+        DMRRecording recording = new DMRRecording();
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            int lineNumber = 0;
+            while((line = in.readLine()) != null)
+            {
+                lineNumber++;
+                line = line.trim();
+                if(line.length()==0 || line.startsWith("#"))
+                    continue;
+
+                int separator = line.indexOf(' ');
+                if(separator==-1)
+                    throw new IOException("Malformed exchange at " + file + ":" + lineNumber);
+
+                recording.add(line.substring(0, separator), line.substring(separator + 1).trim());
+            }
+        } finally {
+            in.close();
+        }
+        return recording;
+    }
+
+    public synchronized void save(File file) throws IOException {
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            out.write("# DMR recording, " + size() + " exchanges\n");
+            for(Map.Entry<String, List<String>> exchange : exchanges.entrySet())
+            {
+                for(String response : exchange.getValue())
+                    out.write(exchange.getKey() + " " + response + "\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    public void record(ModelNode operation, String responseText) {
+        add(keyFor(operation), responseText.replaceAll("\\s", ""));
+    }
+
+    private synchronized void add(String key, String responseText) {
+        List<String> responses = exchanges.get(key);
+        if(null==responses)
+        {
+            responses = new ArrayList<String>();
+            exchanges.put(key, responses);
+        }
+        responses.add(responseText);
+    }
+
+    /**
+     * @return the next recorded response to the operation, or null if it hasn't been recorded
+     */
+    public synchronized String replay(ModelNode operation) {
+        String key = keyFor(operation);
+        List<String> responses = exchanges.get(key);
+        if(null==responses)
+            return null;
+
+        Integer next = replayed.get(key);
+        int index = next!=null ? next : 0;
+        replayed.put(key, index + 1);
+        return responses.get(Math.min(index, responses.size() - 1));
+    }
+
+    /**
+     * Start over with the first recorded response for each operation.
+     */
+    public synchronized void rewind() {
+        replayed.clear();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for(List<String> responses : exchanges.values())
+            size += responses.size();
+        return size;
+    }
+
+    private static String keyFor(ModelNode operation) {
+        return operation.toBase64String().replaceAll("\\s", "");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRAction;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRResponse;
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecordReplayTest {
+
+    @Test
+    public void replayRecordedResponses() throws Exception {
+
+        RecordingDMRHandler recorder = new RecordingDMRHandler(new CountingHandler(), new DMRRecording());
+        ModelNode operation = readName();
+
+        recorder.execute(new DMRAction(operation), new ResultCapture());
+        recorder.execute(new DMRAction(operation), new ResultCapture());
+
+        File file = File.createTempFile("dmr-recording", ".txt");
+        file.deleteOnExit();
+        recorder.getRecording().save(file);
+
+        ReplayDMRHandler replay = new ReplayDMRHandler(DMRRecording.load(file));
+        assertEquals(1, replay(replay, readName()).get(RESULT).asInt());
+        assertEquals(2, replay(replay, readName()).get(RESULT).asInt());
+
+        // the last response is repeated
+        assertEquals(2, replay(replay, readName()).get(RESULT).asInt());
+    }
+
+    @Test
+    public void failUnknownOperations() throws Exception {
+
+        ReplayDMRHandler replay = new ReplayDMRHandler(new DMRRecording());
+        ResultCapture capture = new ResultCapture();
+        replay.execute(new DMRAction(readName()), capture);
+
+        assertTrue("Expected failure", capture.failure instanceof IllegalStateException);
+    }
+
+    @Test
+    public void delayResponses() throws Exception {
+
+        DMRRecording recording = new DMRRecording();
+        recording.record(readName(), response(1).toBase64String());
+
+        ReplayDMRHandler replay = new ReplayDMRHandler(recording);
+        replay.setLatency(50, 0);
+
+        long start = System.currentTimeMillis();
+        replay(replay, readName());
+        assertTrue("Response not delayed", System.currentTimeMillis() - start >= 50);
+    }
+
+    private static ModelNode replay(ReplayDMRHandler handler, ModelNode operation) {
+        ResultCapture capture = new ResultCapture();
+        handler.execute(new DMRAction(operation), capture);
+        assertTrue("No response", capture.result!=null);
+        return capture.result.get();
+    }
+
+    private static ModelNode readName() {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).setEmptyList();
+        operation.get(OP).set(READ_ATTRIBUTE_OPERATION);
+        operation.get(NAME).set("name");
+        return operation;
+    }
+
+    private static ModelNode response(int value) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).set(value);
+        return response;
+    }
+
+    /**
+     * Answers each invocation with an increasing counter
+     */
+    private static class CountingHandler implements ActionHandler<DMRAction, DMRResponse> {
+        private int count = 0;
+
+        @Override
+        public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+            callback.onSuccess(new DMRResponse(response(++count)));
+            return null;
+        }
+
+        @Override
+        public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+            return null;
+        }
+    }
+
+    private static class ResultCapture implements AsyncCallback<DMRResponse> {
+        DMRResponse result;
+        Throwable failure;
+
+        @Override
+        public void onFailure(Throwable caught) {
+            failure = caught;
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            this.result = result;
+        }
+    }
+}
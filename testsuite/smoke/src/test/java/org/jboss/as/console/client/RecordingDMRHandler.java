@@ -0,0 +1,65 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRAction;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRResponse;
+
+/**
+ * Records the responses of another handler, i.e. the {@link TestDMRHandler} talking to a live server.
+ */
+public class RecordingDMRHandler implements ActionHandler<DMRAction, DMRResponse> {
+
+    private final ActionHandler<DMRAction, DMRResponse> delegate;
+    private final DMRRecording recording;
+
+    public RecordingDMRHandler(ActionHandler<DMRAction, DMRResponse> delegate, DMRRecording recording) {
+        this.delegate = delegate;
+        this.recording = recording;
+    }
+
+    public DMRRecording getRecording() {
+        return recording;
+    }
+
+    @Override
+    public DispatchRequest execute(final DMRAction action, final AsyncCallback<DMRResponse> callback) {
+        return delegate.execute(action, new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                callback.onFailure(caught);
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                recording.record(action.getOperation(), result.getResponseText());
+                callback.onSuccess(result);
+            }
+        });
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        return delegate.undo(action, result, callback);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRAction;
+import org.jboss.as.console.client.shared.dispatch.impl.DMRResponse;
+
+import java.util.Random;
+
+/**
+ * Serves operations from a {@link DMRRecording}, so that stores and presenters can be
+ * exercised without a running server.<p/>
+ *
+ * Each response can be delayed to simulate the network. The delay is <code>latency</code>
+ * plus a random share of <code>jitter</code>, drawn from a seeded generator so that runs are repeatable.
+ * Like the {@link TestDMRHandler}, the callback is invoked before <code>execute()</code> returns.
+ */
+public class ReplayDMRHandler implements ActionHandler<DMRAction, DMRResponse> {
+
+    private static final String APPLICATION_DMR_ENCODED = "application/dmr-encoded";
+
+    private final DMRRecording recording;
+    private long latency = 0;
+    private long jitter = 0;
+    private Random random = new Random(0);
+
+    public ReplayDMRHandler(DMRRecording recording) {
+        this.recording = recording;
+    }
+
+    public void setLatency(long latency, long jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public DispatchRequest execute(DMRAction action, AsyncCallback<DMRResponse> callback) {
+
+        String responseText = recording.replay(action.getOperation());
+
+        try {
+            delay();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onFailure(e);
+            return DONE;
+        }
+
+        if(null==responseText)
+            callback.onFailure(new IllegalStateException("No recorded response for " + action.getOperation()));
+        else
+            callback.onSuccess(new DMRResponse(responseText, APPLICATION_DMR_ENCODED));
+
+        return DONE;
+    }
+
+    private void delay() throws InterruptedException {
+        long millis = latency;
+        if(jitter > 0)
+            millis += (long) (random.nextDouble() * jitter);
+        if(millis > 0)
+            Thread.sleep(millis);
+    }
+
+    @Override
+    public DispatchRequest undo(DMRAction action, DMRResponse result, AsyncCallback<Void> callback) {
+        throw new RuntimeException("Undo not implemented");
+    }
+
+    private static final DispatchRequest DONE = new DispatchRequest() {
+        @Override
+        public void cancel() {
+
+        }
+
+        @Override
+        public boolean isPending() {
+            return false;
+        }
+    };
+}
@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import org.jboss.as.console.client.shared.dispatch.Action;
+import org.jboss.as.console.client.shared.dispatch.ActionHandler;
+import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
+import org.jboss.as.console.client.shared.dispatch.DispatchRequest;
+import org.jboss.as.console.client.shared.dispatch.HandlerMapping;
+import org.jboss.as.console.client.shared.dispatch.Result;
+
+/**
+ * Passes actions straight to their handlers.<p/>
+ *
+ * The dispatch pipeline in <code>DispatchAsyncImpl</code> relies on the GWT
+ * scheduler, which isn't available outside the browser.
+ */
+public class TestDispatcher implements DispatchAsync {
+
+    private final HandlerMapping registry;
+
+    @Inject
+    public TestDispatcher(HandlerMapping registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <A extends Action<R>, R extends Result> DispatchRequest execute(A action, AsyncCallback<R> callback) {
+        return resolve(action).execute(action, callback);
+    }
+
+    @Override
+    public <A extends Action<R>, R extends Result> DispatchRequest undo(A action, R result, AsyncCallback<Void> callback) {
+        return resolve(action).undo(action, result, callback);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A extends Action<R>, R extends Result> ActionHandler<A, R> resolve(A action) {
+        ActionHandler<A, R> handler = registry.resolve(action);
+        if(null==handler)
+            throw new IllegalStateException("No handler for " + action.getType());
+        return handler;
+    }
+}
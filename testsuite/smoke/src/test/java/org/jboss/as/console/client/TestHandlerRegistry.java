@@ -24,19 +24,78 @@ import org.jboss.as.console.client.shared.dispatch.ActionHandler;
 import org.jboss.as.console.client.shared.dispatch.ActionType;
 import org.jboss.as.console.client.shared.dispatch.HandlerMapping;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
+ * DMR operations are executed against a live server by default.
+ * The following system properties change that:
+ *
+ * <ul>
+ *     <li><code>dmr.record=&lt;file&gt;</code>: record all exchanges and write them to the file on exit</li>
+ *     <li><code>dmr.replay=&lt;file&gt;</code>: serve operations from a recording, no server needed</li>
+ *     <li><code>dmr.latency</code>, <code>dmr.jitter</code>: delay replayed responses (ms)</li>
+ * </ul>
+ *
  * @author Heiko Braun
  * @date 4/12/11
  */
 public class TestHandlerRegistry implements HandlerMapping {
 
+    private static DMRRecording recording;
+
     private Map<ActionType, ActionHandler> registry = new HashMap<ActionType, ActionHandler>();
 
     public TestHandlerRegistry() {
-        register(ActionType.DMR, new TestDMRHandler());
+        register(ActionType.DMR, createDMRHandler());
+    }
+
+    private static ActionHandler createDMRHandler() {
+
+        String replayFile = System.getProperty("dmr.replay");
+        if(replayFile!=null)
+        {
+            ReplayDMRHandler handler = new ReplayDMRHandler(loadRecording(replayFile));
+            handler.setLatency(Long.getLong("dmr.latency", 0), Long.getLong("dmr.jitter", 0));
+            return handler;
+        }
+
+        String recordFile = System.getProperty("dmr.record");
+        if(recordFile!=null)
+            return new RecordingDMRHandler(new TestDMRHandler(), createRecording(recordFile));
+
+        return new TestDMRHandler();
+    }
+
+    private static DMRRecording loadRecording(String file) {
+        try {
+            return DMRRecording.load(new File(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load recording " + file, e);
+        }
+    }
+
+    /**
+     * All registries share one recording, which is written when the test JVM exits.
+     */
+    private static synchronized DMRRecording createRecording(final String file) {
+        if(null==recording)
+        {
+            recording = new DMRRecording();
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        recording.save(new File(file));
+                    } catch (IOException e) {
+                        System.out.println("Failed to write recording " + file + ": " + e.getMessage());
+                    }
+                }
+            });
+        }
+        return recording;
     }
 
     @Override
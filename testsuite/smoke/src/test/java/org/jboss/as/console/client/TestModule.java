@@ -32,7 +32,6 @@ import org.jboss.as.console.client.model.BeanFactoryImpl;
 import org.jboss.as.console.client.shared.BeanFactory;
 import org.jboss.as.console.client.shared.dispatch.DispatchAsync;
 import org.jboss.as.console.client.shared.dispatch.HandlerMapping;
-import org.jboss.as.console.client.shared.dispatch.impl.DispatchAsyncImpl;
 import org.jboss.as.console.client.shared.model.DeploymentStore;
 import org.jboss.as.console.client.shared.model.DeploymentStoreImpl;
 import org.jboss.as.console.client.shared.model.SubsystemStore;
@@ -52,7 +51,7 @@ public class TestModule extends AbstractModule {
     @Override
     protected void configure() {
 
-        bind(DispatchAsync.class).to(DispatchAsyncImpl.class).in(Singleton.class);
+        bind(DispatchAsync.class).to(TestDispatcher.class).in(Singleton.class);
         bind(HandlerMapping.class).to(TestHandlerRegistry.class).in(Singleton.class);
         bind(BeanFactory.class).to(BeanFactoryImpl.class).in(Singleton.class);
         bind(ApplicationProperties.class).to(ExecutionEnvironment.class).in(Singleton.class);
@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.shared.dispatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    private static final double DELTA = 0.0001;
+
+    private static void record(LatencyHistogram histogram, double millis, int times) {
+        for(int i=0; i<times; i++)
+            histogram.record(millis);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getSamples());
+        assertEquals(0, histogram.getPercentile(50), DELTA);
+        assertEquals(0, histogram.getMean(), DELTA);
+        assertEquals(0, histogram.getMin(), DELTA);
+        assertEquals(0, histogram.getMax(), DELTA);
+    }
+
+    @Test
+    public void testPercentileRank() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        record(histogram, 3, 90);
+        record(histogram, 40, 5);
+        record(histogram, 150, 4);
+        record(histogram, 700, 1);
+
+        assertEquals(100, histogram.getSamples());
+
+        // ranks 50, 95 and 99 are the last sample of their bucket
+        assertEquals(5, histogram.getPercentile(50), DELTA);
+        assertEquals(50, histogram.getPercentile(95), DELTA);
+        assertEquals(200, histogram.getPercentile(99), DELTA);
+
+        // one rank further belongs to the next bucket
+        assertEquals(50, histogram.getPercentile(90.5), DELTA);
+        assertEquals(200, histogram.getPercentile(95.5), DELTA);
+
+        // never more than the largest sample
+        assertEquals(700, histogram.getPercentile(99.5), DELTA);
+        assertEquals(700, histogram.getPercentile(100), DELTA);
+    }
+
+    @Test
+    public void testSmallSampleRank() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(150);
+
+        // the rank is rounded up and at least 1
+        assertEquals(5, histogram.getPercentile(0), DELTA);
+        assertEquals(5, histogram.getPercentile(50), DELTA);
+        assertEquals(150, histogram.getPercentile(51), DELTA);
+    }
+
+    @Test
+    public void testBucketBoundaries() throws Exception {
+        // the upper bound is part of the bucket
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(1000);
+        assertEquals(10, histogram.getPercentile(50), DELTA);
+
+        histogram = new LatencyHistogram();
+        histogram.record(10.5);
+        histogram.record(1000);
+        assertEquals(20, histogram.getPercentile(50), DELTA);
+
+        histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(1000);
+        assertEquals(1, histogram.getPercentile(50), DELTA);
+        assertEquals(1000, histogram.getPercentile(99), DELTA);
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(30000);
+        histogram.record(30001);
+        assertEquals(30000, histogram.getPercentile(50), DELTA);
+        assertEquals(30001, histogram.getPercentile(100), DELTA);
+
+        // samples above the last bucket are reported as the largest sample
+        histogram = new LatencyHistogram();
+        record(histogram, 1, 98);
+        histogram.record(45000);
+        histogram.record(60000);
+
+        assertEquals(1, histogram.getPercentile(95), DELTA);
+        assertEquals(60000, histogram.getPercentile(99), DELTA);
+        assertEquals(60000, histogram.getPercentile(100), DELTA);
+        assertEquals(60000, histogram.getMax(), DELTA);
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2);
+        histogram.record(4);
+        histogram.record(12);
+
+        assertEquals(3, histogram.getSamples());
+        assertEquals(18, histogram.getTotal(), DELTA);
+        assertEquals(6, histogram.getMean(), DELTA);
+        assertEquals(2, histogram.getMin(), DELTA);
+        assertEquals(12, histogram.getMax(), DELTA);
+    }
+}
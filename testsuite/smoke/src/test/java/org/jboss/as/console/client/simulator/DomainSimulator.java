@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.dmr.client.ModelNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * A stand-in for the HTTP management endpoint of a large domain.<p/>
+ *
+ * Accepts Base64 encoded operations (<code>application/dmr-encoded</code>) on <code>/management</code>
+ * and <code>/domain-api</code>, like AS7 does. Start it with
+ *
+ * <pre>
+ * java -Dsimulator.hosts=200 -Dsimulator.servers=20 ... DomainSimulator [port]
+ * </pre>
+ *
+ * and point the console (<code>gwt-proxy.properties</code>) or the smoke tests at it.
+ * See {@link SimulatedDomain.Scale} for the size parameters.
+ */
+public class DomainSimulator {
+
+    private static final String APPLICATION_DMR_ENCODED = "application/dmr-encoded";
+    private static final int DEFAULT_PORT = 9990;
+
+    private final OperationExecutor executor;
+    private HttpServer server;
+    private ExecutorService workers;
+
+    public DomainSimulator(SimulatedDomain.Scale scale) {
+        this.executor = new OperationExecutor(SimulatedDomain.build(scale));
+    }
+
+    public OperationExecutor getExecutor() {
+        return executor;
+    }
+
+    public void start(int port, int threads) throws IOException {
+        workers = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(workers);
+
+        HttpHandler handler = new ManagementHandler();
+        server.createContext("/management", handler);
+        server.createContext("/domain-api", handler);
+        server.start();
+    }
+
+    public void stop() {
+        if(server!=null)
+        {
+            server.stop(0);
+            workers.shutdown();
+            server = null;
+        }
+    }
+
+    private class ManagementHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if(!"POST".equals(exchange.getRequestMethod()))
+                {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+
+                ModelNode operation = ModelNode.fromBase64(read(exchange.getRequestBody()));
+                ModelNode response = executor.execute(operation);
+                byte[] payload = response.toBase64String().getBytes("US-ASCII");
+
+                boolean success = SUCCESS.equals(response.get(OUTCOME).asString());
+                exchange.getResponseHeaders().set("Content-Type", APPLICATION_DMR_ENCODED);
+                exchange.sendResponseHeaders(success ? 200 : 500, payload.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(payload);
+                out.close();
+
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                exchange.sendResponseHeaders(500, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private String read(InputStream in) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while((read = in.read(buffer)) != -1)
+                bytes.write(buffer, 0, read);
+            return new String(bytes.toByteArray(), "US-ASCII").trim();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SimulatedDomain.Scale scale = SimulatedDomain.Scale.fromSystemProperties();
+
+        long start = System.currentTimeMillis();
+        DomainSimulator simulator = new DomainSimulator(scale);
+        simulator.start(port, Integer.getInteger("simulator.threads", 16));
+
+        System.out.println("Simulating " + scale + " on port " + port
+                + " (built in " + (System.currentTimeMillis() - start) + " ms)");
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.simulator;
+
+import org.jboss.dmr.client.DispatchResult;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.SimpleDispatcher;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DomainSimulatorTest {
+
+    private final OperationExecutor executor = new OperationExecutor(
+            SimulatedDomain.build(new SimulatedDomain.Scale().hosts(20).serversPerHost(5)));
+
+    @Test
+    public void readChildren() {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).setEmptyList();
+        operation.get(OP).set(READ_CHILDREN_NAMES_OPERATION);
+        operation.get(CHILD_TYPE).set("host");
+
+        ModelNode response = executor.execute(operation);
+        assertEquals(SUCCESS, response.get(OUTCOME).asString());
+        assertEquals(20, response.get(RESULT).asList().size());
+        assertEquals("master", response.get(RESULT).get(0).asString());
+    }
+
+    @Test
+    public void wildcardRead() {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).add("host", "*");
+        operation.get(ADDRESS).add("server-config", "*");
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+
+        ModelNode response = executor.execute(operation);
+        assertEquals(SUCCESS, response.get(OUTCOME).asString());
+        assertEquals(100, response.get(RESULT).asList().size());
+
+        ModelNode first = response.get(RESULT).get(0);
+        assertEquals("master", first.get(ADDRESS).get(0).asProperty().getValue().asString());
+        assertTrue(first.get(RESULT).hasDefined("group"));
+    }
+
+    @Test
+    public void compositeMetrics() {
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+        composite.get(STEPS).add(metrics("memory"));
+        composite.get(STEPS).add(metrics("operating-system"));
+
+        ModelNode response = executor.execute(composite);
+        assertEquals(SUCCESS, response.get(OUTCOME).asString());
+        ModelNode heap = response.get(RESULT, "step-1", RESULT, "heap-memory-usage");
+        assertTrue(heap.get("used").asLong() <= heap.get("max").asLong());
+        assertEquals(8, response.get(RESULT, "step-2", RESULT, "available-processors").asInt());
+    }
+
+    @Test
+    public void failUnknownResources() {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).add("host", "unknown");
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+
+        assertEquals(FAILED, executor.execute(operation).get(OUTCOME).asString());
+    }
+
+    @Test
+    public void dispatchOverHttp() throws Exception {
+        DomainSimulator simulator = new DomainSimulator(new SimulatedDomain.Scale().hosts(2));
+        simulator.start(19990, 2);
+        try {
+            ModelNode operation = new ModelNode();
+            operation.get(ADDRESS).setEmptyList();
+            operation.get(OP).set(READ_ATTRIBUTE_OPERATION);
+            operation.get(NAME).set("release-codename");
+
+            DispatchResult result = new SimpleDispatcher("http://localhost:19990/management").execute(operation);
+            assertEquals(200, result.getResponseStatus());
+            assertEquals("Simulated", result.as().get(RESULT).asString());
+        } finally {
+            simulator.stop();
+        }
+    }
+
+    private static ModelNode metrics(String type) {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).add("host", "master");
+        operation.get(ADDRESS).add("server", "server-1");
+        operation.get(ADDRESS).add("core-service", "platform-mbean");
+        operation.get(ADDRESS).add("type", type);
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(INCLUDE_RUNTIME).set(true);
+        return operation;
+    }
+}
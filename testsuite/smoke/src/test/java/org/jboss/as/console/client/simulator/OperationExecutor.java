@@ -0,0 +1,292 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.simulator;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.Property;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Executes management operations against a tree of {@link Resource}s.<p/>
+ *
+ * Supports the generic read operations (including wildcard addresses), composites
+ * and simple writes. Reads run concurrently, writes are exclusive. Failed composite
+ * steps are reported, but writes of previous steps are not rolled back.
+ */
+public class OperationExecutor {
+
+    private static final String WILDCARD = "*";
+
+    private final Resource root;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public OperationExecutor(Resource root) {
+        this.root = root;
+    }
+
+    public ModelNode execute(ModelNode operation) {
+        boolean write = !isReadOnly(operation);
+        if(write)
+            lock.writeLock().lock();
+        else
+            lock.readLock().lock();
+
+        try {
+            return dispatch(operation);
+        } finally {
+            if(write)
+                lock.writeLock().unlock();
+            else
+                lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isReadOnly(ModelNode operation) {
+        String name = operation.get(OP).asString();
+        if(COMPOSITE.equals(name))
+        {
+            for(ModelNode step : operation.get(STEPS).asList())
+            {
+                if(!isReadOnly(step))
+                    return false;
+            }
+            return true;
+        }
+        return name.startsWith("read-");
+    }
+
+    private ModelNode dispatch(ModelNode operation) {
+        String name = operation.get(OP).asString();
+        if(COMPOSITE.equals(name))
+            return composite(operation);
+
+        List<Property> address = operation.hasDefined(ADDRESS) ?
+                toProperties(operation.get(ADDRESS)) : new ArrayList<Property>();
+
+        if(isWildcard(address))
+        {
+            if(!name.startsWith("read-"))
+                return failure("Wildcard addresses are only supported for read operations: " + name);
+
+            ModelNode results = new ModelNode().setEmptyList();
+            List<List<Property>> matches = new ArrayList<List<Property>>();
+            expand(root, address, 0, new ArrayList<Property>(), matches);
+            for(List<Property> match : matches)
+            {
+                ModelNode result = execute(operation, match, resolve(match));
+                result.get(ADDRESS).set(toModel(match));
+                results.add(result);
+            }
+            return success(results);
+        }
+
+        Resource resource = resolve(address);
+        if(null==resource && !ADD.equals(name))
+            return failure("No resource at " + toModel(address));
+
+        return execute(operation, address, resource);
+    }
+
+    private ModelNode execute(ModelNode operation, List<Property> address, Resource resource) {
+        String name = operation.get(OP).asString();
+        boolean includeRuntime = operation.hasDefined(INCLUDE_RUNTIME) && operation.get(INCLUDE_RUNTIME).asBoolean();
+        boolean recursive = operation.hasDefined(RECURSIVE) && operation.get(RECURSIVE).asBoolean();
+
+        if(READ_RESOURCE_OPERATION.equals(name))
+        {
+            return success(resource.toModel(recursive, includeRuntime));
+        }
+        else if(READ_ATTRIBUTE_OPERATION.equals(name))
+        {
+            ModelNode model = resource.toModel(false, true);
+            String attribute = operation.get(NAME).asString();
+            if(!model.has(attribute))
+                return failure("No attribute " + attribute + " at " + toModel(address));
+            return success(model.get(attribute));
+        }
+        else if(READ_CHILDREN_TYPES_OPERATION.equals(name))
+        {
+            ModelNode result = new ModelNode().setEmptyList();
+            for(String type : resource.getChildTypes())
+                result.add(type);
+            return success(result);
+        }
+        else if(READ_CHILDREN_NAMES_OPERATION.equals(name))
+        {
+            ModelNode result = new ModelNode().setEmptyList();
+            for(String child : resource.getChildren(operation.get(CHILD_TYPE).asString()).keySet())
+                result.add(child);
+            return success(result);
+        }
+        else if(READ_CHILDREN_RESOURCES_OPERATION.equals(name))
+        {
+            ModelNode result = new ModelNode().setEmptyObject();
+            Map<String, Resource> children = resource.getChildren(operation.get(CHILD_TYPE).asString());
+            for(Map.Entry<String, Resource> child : children.entrySet())
+                result.get(child.getKey()).set(child.getValue().toModel(recursive, includeRuntime));
+            return success(result);
+        }
+        else if(WRITE_ATTRIBUTE_OPERATION.equals(name))
+        {
+            resource.set(operation.get(NAME).asString(), operation.get(VALUE));
+            return success(new ModelNode());
+        }
+        else if("undefine-attribute".equals(name))
+        {
+            resource.getAttributes().get(operation.get(NAME).asString()).clear();
+            return success(new ModelNode());
+        }
+        else if(ADD.equals(name))
+        {
+            return add(operation, address);
+        }
+        else if(REMOVE.equals(name))
+        {
+            Property last = address.get(address.size() - 1);
+            resolve(address.subList(0, address.size() - 1)).removeChild(last.getName(), last.getValue().asString());
+            return success(new ModelNode());
+        }
+        else if("start".equals(name) || "stop".equals(name) || "restart".equals(name) || "reload".equals(name))
+        {
+            if(!resource.getAttributes().has("status"))
+                return failure("Operation " + name + " not supported at " + toModel(address));
+            resource.set("status", "stop".equals(name) ? "STOPPED" : "STARTED");
+            return success(new ModelNode().set(resource.getAttributes().get("status").asString()));
+        }
+
+        return failure("Operation " + name + " not supported by the simulator");
+    }
+
+    private ModelNode add(ModelNode operation, List<Property> address) {
+        if(address.isEmpty())
+            return failure("Cannot add the root resource");
+
+        Property last = address.get(address.size() - 1);
+        Resource parent = resolve(address.subList(0, address.size() - 1));
+        if(null==parent)
+            return failure("No parent resource for " + toModel(address));
+        if(parent.getChild(last.getName(), last.getValue().asString())!=null)
+            return failure("Duplicate resource " + toModel(address));
+
+        Resource child = parent.addChild(last.getName(), last.getValue().asString());
+        for(String key : operation.keys())
+        {
+            if(!OP.equals(key) && !ADDRESS.equals(key) && !"operation-headers".equals(key))
+                child.set(key, operation.get(key));
+        }
+        return success(new ModelNode());
+    }
+
+    private ModelNode composite(ModelNode operation) {
+        ModelNode result = new ModelNode().setEmptyObject();
+        boolean failed = false;
+        int index = 1;
+        for(ModelNode step : operation.get(STEPS).asList())
+        {
+            ModelNode stepResult = dispatch(step);
+            failed |= FAILED.equals(stepResult.get(OUTCOME).asString());
+            result.get("step-" + index++).set(stepResult);
+        }
+
+        ModelNode response = success(result);
+        if(failed)
+        {
+            response.get(OUTCOME).set(FAILED);
+            response.get(FAILURE_DESCRIPTION).set("Composite operation failed");
+        }
+        return response;
+    }
+
+    private Resource resolve(List<Property> address) {
+        Resource resource = root;
+        for(Property element : address)
+        {
+            resource = resource.getChild(element.getName(), element.getValue().asString());
+            if(null==resource)
+                return null;
+        }
+        return resource;
+    }
+
+    private static void expand(Resource resource, List<Property> address, int index,
+                               List<Property> resolved, List<List<Property>> matches) {
+        if(index==address.size())
+        {
+            matches.add(new ArrayList<Property>(resolved));
+            return;
+        }
+
+        Property element = address.get(index);
+        String value = element.getValue().asString();
+        for(Map.Entry<String, Resource> child : resource.getChildren(element.getName()).entrySet())
+        {
+            if(WILDCARD.equals(value) || value.equals(child.getKey()))
+            {
+                resolved.add(new Property(element.getName(), new ModelNode().set(child.getKey())));
+                expand(child.getValue(), address, index + 1, resolved, matches);
+                resolved.remove(resolved.size() - 1);
+            }
+        }
+    }
+
+    private static boolean isWildcard(List<Property> address) {
+        for(Property element : address)
+        {
+            if(WILDCARD.equals(element.getValue().asString()))
+                return true;
+        }
+        return false;
+    }
+
+    private static List<Property> toProperties(ModelNode address) {
+        List<Property> properties = new ArrayList<Property>();
+        for(ModelNode element : address.asList())
+            properties.add(element.asProperty());
+        return properties;
+    }
+
+    private static ModelNode toModel(List<Property> address) {
+        ModelNode model = new ModelNode().setEmptyList();
+        for(Property element : address)
+            model.add(element.getName(), element.getValue().asString());
+        return model;
+    }
+
+    private static ModelNode success(ModelNode result) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).set(result);
+        return response;
+    }
+
+    private static ModelNode failure(String description) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(FAILED);
+        response.get(FAILURE_DESCRIPTION).set(description);
+        return response;
+    }
+}
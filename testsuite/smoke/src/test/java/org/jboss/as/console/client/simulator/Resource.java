@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.simulator;
+
+import org.jboss.dmr.client.ModelNode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A node in the simulated management model.<p/>
+ *
+ * Attributes are plain values. Runtime attributes are computed on each read,
+ * which is how metrics change over time.
+ */
+public class Resource {
+
+    public interface RuntimeAttributes {
+        void resolve(ModelNode target);
+    }
+
+    private final ModelNode attributes = new ModelNode().setEmptyObject();
+    private final Map<String, Map<String, Resource>> children = new LinkedHashMap<String, Map<String, Resource>>();
+    private RuntimeAttributes runtime;
+
+    public ModelNode getAttributes() {
+        return attributes;
+    }
+
+    public Resource set(String name, String value) {
+        attributes.get(name).set(value);
+        return this;
+    }
+
+    public Resource set(String name, int value) {
+        attributes.get(name).set(value);
+        return this;
+    }
+
+    public Resource set(String name, long value) {
+        attributes.get(name).set(value);
+        return this;
+    }
+
+    public Resource set(String name, boolean value) {
+        attributes.get(name).set(value);
+        return this;
+    }
+
+    public Resource set(String name, ModelNode value) {
+        attributes.get(name).set(value);
+        return this;
+    }
+
+    public void setRuntimeAttributes(RuntimeAttributes runtime) {
+        this.runtime = runtime;
+    }
+
+    /**
+     * Register a child type without children, so that it shows up in the model.
+     */
+    public Resource declareChildType(String type) {
+        if(!children.containsKey(type))
+            children.put(type, new LinkedHashMap<String, Resource>());
+        return this;
+    }
+
+    public Resource addChild(String type, String name) {
+        declareChildType(type);
+        Resource child = new Resource();
+        children.get(type).put(name, child);
+        return child;
+    }
+
+    public Resource getChild(String type, String name) {
+        Map<String, Resource> named = children.get(type);
+        return named!=null ? named.get(name) : null;
+    }
+
+    public Resource removeChild(String type, String name) {
+        Map<String, Resource> named = children.get(type);
+        return named!=null ? named.remove(name) : null;
+    }
+
+    public Map<String, Resource> getChildren(String type) {
+        Map<String, Resource> named = children.get(type);
+        return named!=null ? named : Collections.<String, Resource>emptyMap();
+    }
+
+    public Set<String> getChildTypes() {
+        return children.keySet();
+    }
+
+    /**
+     * Render this resource the way <code>read-resource</code> does.
+     * Without recursion, children are listed by name with undefined values.
+     */
+    public ModelNode toModel(boolean recursive, boolean includeRuntime) {
+        ModelNode model = new ModelNode().setEmptyObject();
+        for(String name : attributes.keys())
+            model.get(name).set(attributes.get(name));
+
+        if(includeRuntime && runtime!=null)
+            runtime.resolve(model);
+
+        for(Map.Entry<String, Map<String, Resource>> type : children.entrySet())
+        {
+            ModelNode typeModel = model.get(type.getKey());
+            for(Map.Entry<String, Resource> child : type.getValue().entrySet())
+            {
+                if(recursive)
+                    typeModel.get(child.getKey()).set(child.getValue().toModel(true, includeRuntime));
+                else
+                    typeModel.get(child.getKey());
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.simulator;
+
+import org.jboss.dmr.client.ModelNode;
+
+import java.math.BigDecimal;
+
+/**
+ * Generates the management model of a domain at a given scale.<p/>
+ *
+ * The model is deterministic for a given {@link Scale}: names, assignments and
+ * server states only depend on their index. The platform MBean metrics of running
+ * servers change with the wall clock.
+ */
+public class SimulatedDomain {
+
+    private static final String[] PROFILES = {"default", "ha", "full", "full-ha"};
+    private static final String[] SOCKET_BINDING_GROUPS = {"standard-sockets", "ha-sockets", "full-sockets", "full-ha-sockets"};
+
+    private static final long MB = 1024 * 1024;
+
+    public static class Scale {
+        int hosts = 10;
+        int serversPerHost = 10;
+        int serverGroups = 10;
+        int datasources = 50;
+        int queues = 100;
+        int topics = 20;
+        int deployments = 50;
+
+        public Scale hosts(int hosts) {
+            this.hosts = hosts;
+            return this;
+        }
+
+        public Scale serversPerHost(int serversPerHost) {
+            this.serversPerHost = serversPerHost;
+            return this;
+        }
+
+        public Scale serverGroups(int serverGroups) {
+            this.serverGroups = serverGroups;
+            return this;
+        }
+
+        public Scale datasources(int datasources) {
+            this.datasources = datasources;
+            return this;
+        }
+
+        public Scale queues(int queues) {
+            this.queues = queues;
+            return this;
+        }
+
+        public Scale topics(int topics) {
+            this.topics = topics;
+            return this;
+        }
+
+        public Scale deployments(int deployments) {
+            this.deployments = deployments;
+            return this;
+        }
+
+        /**
+         * Override the defaults with <code>simulator.hosts</code>, <code>simulator.servers</code>, etc.
+         */
+        public static Scale fromSystemProperties() {
+            Scale scale = new Scale();
+            scale.hosts = Integer.getInteger("simulator.hosts", scale.hosts);
+            scale.serversPerHost = Integer.getInteger("simulator.servers", scale.serversPerHost);
+            scale.serverGroups = Integer.getInteger("simulator.groups", scale.serverGroups);
+            scale.datasources = Integer.getInteger("simulator.datasources", scale.datasources);
+            scale.queues = Integer.getInteger("simulator.queues", scale.queues);
+            scale.topics = Integer.getInteger("simulator.topics", scale.topics);
+            scale.deployments = Integer.getInteger("simulator.deployments", scale.deployments);
+            return scale;
+        }
+
+        @Override
+        public String toString() {
+            return hosts + " hosts, " + serversPerHost + " servers per host, " + serverGroups + " server groups, "
+                    + datasources + " datasources, " + queues + " queues, " + topics + " topics, "
+                    + deployments + " deployments";
+        }
+    }
+
+    public static Resource build(Scale scale) {
+        Resource root = new Resource()
+                .set("name", "Domain")
+                .set("release-version", "7.1.0.Alpha1-SNAPSHOT")
+                .set("release-codename", "Simulated")
+                .set("management-major-version", 1)
+                .set("management-minor-version", 0);
+
+        for(int i=0; i<PROFILES.length; i++)
+            buildProfile(root.addChild("profile", PROFILES[i]).set("name", PROFILES[i]), scale);
+
+        for(int i=0; i<SOCKET_BINDING_GROUPS.length; i++)
+            buildSocketBindingGroup(root.addChild("socket-binding-group", SOCKET_BINDING_GROUPS[i]), SOCKET_BINDING_GROUPS[i]);
+
+        for(int i=1; i<=scale.deployments; i++)
+        {
+            String name = deploymentName(i);
+            root.addChild("deployment", name)
+                    .set("name", name)
+                    .set("runtime-name", name);
+        }
+
+        root.declareChildType("server-group");
+        for(int i=1; i<=scale.serverGroups; i++)
+            buildServerGroup(root.addChild("server-group", groupName(i)), i, scale);
+
+        root.declareChildType("host");
+        for(int i=1; i<=scale.hosts; i++)
+        {
+            String name = i==1 ? "master" : "host-" + i;
+            buildHost(root.addChild("host", name).set("name", name).set("master", i==1), i, scale);
+        }
+
+        return root;
+    }
+
+    private static void buildProfile(Resource profile, Scale scale) {
+
+        Resource datasources = profile.addChild("subsystem", "datasources");
+        datasources.declareChildType("xa-data-source");
+        datasources.addChild("jdbc-driver", "h2")
+                .set("driver-name", "h2")
+                .set("driver-module-name", "com.h2database.h2");
+
+        for(int i=1; i<=scale.datasources; i++)
+        {
+            String name = "DataSource" + i;
+            datasources.addChild("data-source", name)
+                    .set("jndi-name", "java:jboss/datasources/" + name)
+                    .set("pool-name", name)
+                    .set("connection-url", "jdbc:h2:mem:ds" + i + ";DB_CLOSE_DELAY=-1")
+                    .set("driver-name", "h2")
+                    .set("user-name", "sa")
+                    .set("password", "sa")
+                    .set("enabled", i % 10 != 0)
+                    .set("use-ccm", true)
+                    .set("min-pool-size", 0)
+                    .set("max-pool-size", 20)
+                    .set("pool-prefill", false)
+                    .set("pool-use-strict-min", false);
+        }
+
+        Resource messaging = profile.addChild("subsystem", "messaging").addChild("hornetq-server", "default");
+        messaging.addChild("connection-factory", "InVmConnectionFactory")
+                .set("connector", new ModelNode().set("in-vm", new ModelNode()))
+                .set("entries", new ModelNode().add("java:/ConnectionFactory"));
+
+        for(int i=1; i<=scale.queues; i++)
+        {
+            messaging.addChild("jms-queue", "queue" + i)
+                    .set("entries", new ModelNode().add("queue/queue" + i))
+                    .set("durable", i % 2 == 0);
+        }
+
+        for(int i=1; i<=scale.topics; i++)
+        {
+            messaging.addChild("jms-topic", "topic" + i)
+                    .set("entries", new ModelNode().add("topic/topic" + i));
+        }
+    }
+
+    private static void buildSocketBindingGroup(Resource group, String name) {
+        group.set("name", name).set("default-interface", "public");
+        String[] bindings = {"http", "https", "jndi", "jmx-connector-registry", "jmx-connector-server", "osgi-http", "remoting", "txn-recovery-environment", "txn-status-manager"};
+        for(int i=0; i<bindings.length; i++)
+        {
+            group.addChild("socket-binding", bindings[i])
+                    .set("name", bindings[i])
+                    .set("port", 8080 + i);
+        }
+    }
+
+    private static void buildServerGroup(Resource group, int index, Scale scale) {
+        group.set("profile", PROFILES[index % PROFILES.length])
+                .set("socket-binding-group", SOCKET_BINDING_GROUPS[index % SOCKET_BINDING_GROUPS.length]);
+
+        group.addChild("jvm", "default")
+                .set("heap-size", "64m")
+                .set("max-heap-size", "512m");
+
+        group.declareChildType("system-property");
+
+        // spread the deployments across the groups
+        for(int i=index; i<=scale.deployments; i+=scale.serverGroups)
+        {
+            String name = deploymentName(i);
+            group.addChild("deployment", name)
+                    .set("name", name)
+                    .set("runtime-name", name)
+                    .set("enabled", true);
+        }
+    }
+
+    private static void buildHost(Resource host, int hostIndex, Scale scale) {
+
+        host.addChild("jvm", "default")
+                .set("heap-size", "64m")
+                .set("max-heap-size", "256m");
+
+        host.addChild("interface", "public")
+                .set("name", "public")
+                .set("inet-address", "127.0.0.1");
+
+        for(int i=1; i<=scale.serversPerHost; i++)
+        {
+            String name = "server-" + i;
+            boolean started = (hostIndex + i) % 10 != 0;
+            int group = ((hostIndex - 1) * scale.serversPerHost + i - 1) % scale.serverGroups + 1;
+
+            Resource config = host.addChild("server-config", name)
+                    .set("name", name)
+                    .set("group", groupName(group))
+                    .set("auto-start", started)
+                    .set("socket-binding-port-offset", (i - 1) * 100)
+                    .set("status", started ? "STARTED" : "STOPPED");
+            config.declareChildType("jvm");
+            config.declareChildType("system-property");
+
+            if(started)
+                buildServer(host.addChild("server", name).set("name", name).set("server-state", "running"), hostIndex * 1000 + i);
+        }
+    }
+
+    private static void buildServer(Resource server, final int seed) {
+        Resource platform = server.addChild("core-service", "platform-mbean");
+
+        final long startTime = System.currentTimeMillis() - seed * 1000L;
+
+        platform.addChild("type", "memory").setRuntimeAttributes(new Resource.RuntimeAttributes() {
+            @Override
+            public void resolve(ModelNode target) {
+                target.get("heap-memory-usage").set(memoryUsage(64 * MB, 512 * MB, wave(seed, 60)));
+                target.get("non-heap-memory-usage").set(memoryUsage(24 * MB, 304 * MB, wave(seed, 600)));
+                target.get("object-pending-finalization-count").set(0);
+            }
+        });
+
+        platform.addChild("type", "threading").setRuntimeAttributes(new Resource.RuntimeAttributes() {
+            @Override
+            public void resolve(ModelNode target) {
+                long uptime = System.currentTimeMillis() - startTime;
+                target.get("thread-count").set(40 + (int) (60 * wave(seed, 45)));
+                target.get("peak-thread-count").set(100);
+                target.get("daemon-thread-count").set(20 + (int) (30 * wave(seed, 45)));
+                target.get("total-started-thread-count").set(100 + uptime / 10000);
+            }
+        });
+
+        platform.addChild("type", "runtime")
+                .set("name", seed + "@localhost")
+                .set("vm-name", "Java HotSpot(TM) 64-Bit Server VM")
+                .set("vm-vendor", "Sun Microsystems Inc.")
+                .set("vm-version", "20.1-b02")
+                .set("spec-version", "1.0")
+                .set("start-time", startTime)
+                .setRuntimeAttributes(new Resource.RuntimeAttributes() {
+                    @Override
+                    public void resolve(ModelNode target) {
+                        target.get("uptime").set(System.currentTimeMillis() - startTime);
+                    }
+                });
+
+        // DOUBLE values can't be encoded outside the browser, load averages are sent as BIG_DECIMAL
+        platform.addChild("type", "operating-system")
+                .set("name", "Linux")
+                .set("arch", "amd64")
+                .set("version", "2.6.38")
+                .set("available-processors", 8)
+                .setRuntimeAttributes(new Resource.RuntimeAttributes() {
+                    @Override
+                    public void resolve(ModelNode target) {
+                        target.get("system-load-average").set(
+                                new BigDecimal(4 * wave(seed, 120)).setScale(2, BigDecimal.ROUND_HALF_UP));
+                    }
+                });
+    }
+
+    private static ModelNode memoryUsage(long init, long max, double load) {
+        long used = init + (long) ((max - init) * load * 0.8);
+        ModelNode usage = new ModelNode();
+        usage.get("init").set(init);
+        usage.get("used").set(used);
+        usage.get("committed").set(Math.max(used, max / 2));
+        usage.get("max").set(max);
+        return usage;
+    }
+
+    /**
+     * @return a value between 0 and 1 that oscillates with the given period (seconds)
+     */
+    private static double wave(int seed, int period) {
+        double seconds = System.currentTimeMillis() / 1000d + seed;
+        return (Math.sin(2 * Math.PI * seconds / period) + 1) / 2;
+    }
+
+    private static String groupName(int index) {
+        return index==1 ? "main-server-group" : "server-group-" + index;
+    }
+
+    private static String deploymentName(int index) {
+        return "application-" + index + ".war";
+    }
+}
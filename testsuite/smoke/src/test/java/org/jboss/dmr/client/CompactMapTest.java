@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactMapTest {
+
+    private static List<String> keys(ModelNode node) {
+        return new ArrayList<String>(node.keys());
+    }
+
+    @Test
+    public void testOrderAcrossThreshold() throws Exception {
+        ModelNode node = new ModelNode();
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < CompactMap.THRESHOLD * 2; i++) {
+            node.get("key-" + i).set(i);
+            expected.add("key-" + i);
+            assertEquals(expected, keys(node));
+        }
+        assertEquals(5, node.get("key-5").asInt());
+
+        ModelNode decoded = ModelNode.fromBase64(node.toBase64String());
+        assertEquals(node, decoded);
+        assertEquals(expected, keys(decoded));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        ModelNode node = new ModelNode();
+        node.get("a").set(1);
+        node.get("b").set(2);
+        node.get("c").set(3);
+
+        node.remove("b");
+        assertFalse(node.has("b"));
+        assertEquals(2, node.keys().size());
+
+        Iterator<String> iterator = node.keys().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals("c", iterator.next());
+        assertFalse(iterator.hasNext());
+
+        assertTrue(node.has("c"));
+        assertFalse(node.has("a"));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.dmr.client.ModelDescriptionConstants.NAME;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class CopyOnWriteTest {
+
+    private static ModelNode prototype() {
+        ModelNode prototype = new ModelNode();
+        prototype.get(ADDRESS).add("subsystem", "datasources").add("data-source", "ExampleDS");
+        prototype.get(OP).set("write-attribute");
+        prototype.protect();
+        return prototype;
+    }
+
+    @Test
+    public void testCloneOfProtectedIsWritable() throws Exception {
+        ModelNode prototype = prototype();
+
+        ModelNode step = prototype.clone();
+        step.get(NAME).set("min-pool-size");
+        step.get(ADDRESS).add("foo", "bar");
+        step.get(ADDRESS).get(0).set("profile", "default");
+
+        assertEquals("min-pool-size", step.get(NAME).asString());
+        assertEquals(3, step.get(ADDRESS).asList().size());
+        assertEquals("profile", step.get(ADDRESS).get(0).asProperty().getName());
+
+        // the prototype is unaffected
+        assertFalse(prototype.has(NAME));
+        assertEquals(2, prototype.get(ADDRESS).asList().size());
+        assertEquals("subsystem", prototype.get(ADDRESS).get(0).asProperty().getName());
+    }
+
+    @Test
+    public void testPrototypeStaysProtected() throws Exception {
+        ModelNode prototype = prototype();
+        prototype.clone().get(NAME).set("x");
+        try {
+            prototype.get(ADDRESS).add("foo", "bar");
+            fail("protected node was modified");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSetFromProtected() throws Exception {
+        ModelNode address = prototype().get(ADDRESS);
+
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).set(address);
+        ModelNode nested = operation.clone();
+        operation.get(ADDRESS).add("foo", "bar");
+        nested.get(ADDRESS).add("baz", "qux");
+
+        assertEquals(3, operation.get(ADDRESS).asList().size());
+        assertEquals("foo", operation.get(ADDRESS).get(2).asProperty().getName());
+        assertEquals("baz", nested.get(ADDRESS).get(2).asProperty().getName());
+        assertEquals(2, address.asList().size());
+        assertEquals(address.toBase64String(), prototype().get(ADDRESS).toBase64String());
+    }
+
+    @Test
+    public void testListCloneIsIndependent() throws Exception {
+        ModelNode list = new ModelNode();
+        list.add().get("name").set("a");
+
+        ModelNode clone = list.clone();
+        clone.get(0).get("name").set("b");
+
+        assertEquals("a", list.get(0).get("name").asString());
+    }
+}
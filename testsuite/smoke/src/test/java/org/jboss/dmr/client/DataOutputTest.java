@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.dmr.client.ModelDescriptionConstants.COMPOSITE;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OP;
+import static org.jboss.dmr.client.ModelDescriptionConstants.STEPS;
+import static org.junit.Assert.assertEquals;
+
+public class DataOutputTest {
+
+    private static ModelNode composite(int numSteps) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(COMPOSITE);
+        operation.get(ADDRESS).setEmptyList();
+        for (int i = 0; i < numSteps; i++) {
+            ModelNode step = new ModelNode();
+            step.get(OP).set("write-attribute");
+            step.get(ADDRESS).add("subsystem", "datasources").add("xa-data-source", "ds-" + i);
+            step.get("name").set("min-pool-size");
+            step.get("value").set(i);
+            operation.get(STEPS).add(step);
+        }
+        return operation;
+    }
+
+    @Test
+    public void testLargeComposite() throws Exception {
+        ModelNode operation = composite(500);
+
+        ModelNode reverse = ModelNode.fromBase64(operation.toBase64String());
+        assertEquals(operation, reverse);
+        assertEquals(500, reverse.get(STEPS).asList().size());
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        DataOutput out = new DataOutput();
+
+        String large = composite(100).toBase64String(out);
+        String small = composite(1).toBase64String(out);
+
+        assertEquals(composite(1).toBase64String(), small);
+        assertEquals(composite(100), ModelNode.fromBase64(large));
+    }
+
+    @Test
+    public void testUTF() throws Exception {
+        String[] values = {"", "standalone", "caf\u00e9", "\u65e5\u672c\u8a9e", "jndi-\u00fc-\u20ac-end", "\ud83d\ude00"};
+        for (String value : values) {
+            DataOutput out = new DataOutput();
+            out.writeUTF(value);
+            out.writeUTF("tail");
+
+            DataInput in = new DataInput(out.getBytes());
+            assertEquals(value, in.readUTF());
+            assertEquals("tail", in.readUTF());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashCodeTest {
+
+    private static ModelNode operation(String name) {
+        ModelNode operation = new ModelNode();
+        operation.get(ADDRESS).add("subsystem", "datasources").add("data-source", name);
+        operation.get(OP).set("read-resource");
+        operation.protect();
+        return operation;
+    }
+
+    @Test
+    public void testProtectedAsKey() throws Exception {
+        Map<ModelNode, String> cache = new HashMap<ModelNode, String>();
+        cache.put(operation("ExampleDS"), "a");
+        cache.put(operation("OtherDS"), "b");
+
+        assertEquals("a", cache.get(operation("ExampleDS")));
+        assertEquals("b", cache.get(operation("OtherDS")));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEquality() throws Exception {
+        ModelNode a = operation("ExampleDS");
+        ModelNode b = operation("ExampleDS");
+        ModelNode unprotected = a.clone();
+
+        assertEquals(a.hashCode(), b.hashCode());
+        assertTrue(a.equals(b));
+        assertTrue(a.equals(unprotected));
+        assertEquals(a.hashCode(), unprotected.hashCode());
+
+        unprotected.get(OP).set("read-attribute");
+        assertFalse(a.equals(unprotected));
+        assertFalse(a.equals(operation("OtherDS")));
+    }
+}
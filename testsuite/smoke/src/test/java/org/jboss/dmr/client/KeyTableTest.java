@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class KeyTableTest {
+
+    private static ModelNode datasources(int count) {
+        ModelNode result = new ModelNode();
+        for (int i = 0; i < count; i++) {
+            ModelNode ds = result.get("ds-" + i);
+            ds.get("jndi-name").set("java:/ds-" + i);
+            ds.get("min-pool-size").set(i);
+            ds.get("caf\u00e9").set(true);
+        }
+        return result;
+    }
+
+    @Test
+    public void testRepeatedKeysAreShared() throws Exception {
+        ModelNode original = datasources(10);
+        ModelNode decoded = ModelNode.fromBase64(original.toBase64String());
+
+        assertEquals(original, decoded);
+
+        Iterator<String> first = decoded.get("ds-0").keys().iterator();
+        Iterator<String> other = decoded.get("ds-9").keys().iterator();
+        assertSame(first.next(), other.next());
+        assertSame(first.next(), other.next());
+        // non-ASCII keys are decoded, but not interned
+        assertEquals(first.next(), other.next());
+    }
+
+    @Test
+    public void testSharedTable() throws Exception {
+        String encoded = datasources(1).toBase64String();
+        ModelNode.setSharedKeyTable(true);
+        try {
+            ModelNode a = ModelNode.fromBase64(encoded);
+            ModelNode b = ModelNode.fromBase64(encoded, true);
+            assertSame(a.get("ds-0").keys().iterator().next(), b.get("ds-0").keys().iterator().next());
+        } finally {
+            ModelNode.setSharedKeyTable(false);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ADDRESS;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+import static org.junit.Assert.assertEquals;
+
+public class LazyDecodingTest {
+
+    private static String serverConfigs(int count) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set("success");
+        for (int i = 0; i < count; i++) {
+            ModelNode server = response.get(RESULT).get("server-" + i);
+            server.get("name").set("server-" + i);
+            server.get("group").set("main-server-group");
+            server.get("auto-start").set(i % 2 == 0);
+            server.get("socket-binding-port-offset").set(i * 100);
+            server.get(ADDRESS).add("host", "master").add("server-config", "server-" + i);
+        }
+        return response.toBase64String();
+    }
+
+    @Test
+    public void testLazyEqualsEager() throws Exception {
+        String base64 = serverConfigs(20);
+
+        ModelNode eager = ModelNode.fromBase64(base64);
+        ModelNode lazy = ModelNode.fromBase64(base64, true);
+
+        assertEquals(eager, lazy);
+        assertEquals(eager.toString(), lazy.toString());
+    }
+
+    @Test
+    public void testPartialAccess() throws Exception {
+        String base64 = serverConfigs(20);
+
+        ModelNode lazy = ModelNode.fromBase64(base64, true);
+        assertEquals("server-7", lazy.get(RESULT).get("server-7").get("name").asString());
+        assertEquals(700, lazy.get(RESULT).get("server-7").get("socket-binding-port-offset").asInt());
+        assertEquals(20, lazy.get(RESULT).keys().size());
+
+        // untouched subtrees are written back unchanged
+        assertEquals(base64, lazy.toBase64String());
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        ModelNode lazy = ModelNode.fromBase64(serverConfigs(3), true);
+
+        ModelNode clone = lazy.get(RESULT).clone();
+        clone.get("server-1").get("name").set("changed");
+
+        assertEquals("server-1", lazy.get(RESULT).get("server-1").get("name").asString());
+        assertEquals("changed", clone.get("server-1").get("name").asString());
+    }
+}
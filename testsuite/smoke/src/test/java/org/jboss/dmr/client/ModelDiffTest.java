@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ModelDiffTest {
+
+    private static ModelNode bundles() {
+        ModelNode bundles = new ModelNode();
+        for (int i = 0; i < 5; i++) {
+            ModelNode bundle = bundles.get("bundle-" + i);
+            bundle.get("id").set((long) i);
+            bundle.get("state").set("ACTIVE");
+            bundle.get("startlevel").set(1);
+        }
+        return bundles;
+    }
+
+    @Test
+    public void testDiff() throws Exception {
+        ModelNode from = bundles();
+        ModelNode to = bundles();
+        to.get("bundle-1", "state").set("RESOLVED");
+        to.remove("bundle-3");
+        to.get("bundle-5", "id").set(5L);
+
+        ModelDiff diff = ModelDiff.compute(from, to);
+        assertEquals(3, diff.getChanges().size());
+
+        List<ModelDiff.Change> changed = diff.getChanges(ModelDiff.Kind.CHANGED);
+        assertEquals(1, changed.size());
+        assertEquals("bundle-1/state", changed.get(0).getPath().toString());
+        assertEquals("RESOLVED", changed.get(0).getValue().asString());
+
+        assertEquals("bundle-3", diff.getChanges(ModelDiff.Kind.REMOVED).get(0).getPath().toString());
+        assertEquals("bundle-5", diff.getChanges(ModelDiff.Kind.ADDED).get(0).getPath().toString());
+
+        assertEquals(to, diff.apply(from.clone()));
+    }
+
+    @Test
+    public void testNoChanges() throws Exception {
+        assertTrue(ModelDiff.compute(bundles(), bundles()).isEmpty());
+
+        ModelNode list = new ModelNode();
+        list.add("a");
+        ModelDiff diff = ModelDiff.compute(bundles(), list);
+        assertEquals(1, diff.getChanges().size());
+        assertEquals(list, diff.apply(bundles()));
+    }
+}
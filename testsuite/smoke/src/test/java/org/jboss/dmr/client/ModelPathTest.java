@@ -0,0 +1,56 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelPathTest {
+
+    @Test
+    public void testResolve() throws Exception {
+        ModelNode memory = new ModelNode();
+        memory.get("heap-memory-usage", "used").set(1024L);
+
+        ModelPath path = ModelPath.compile("heap-memory-usage/used");
+        assertEquals(2, path.size());
+        assertEquals(1024L, path.resolve(memory).asLong());
+        assertTrue(path.isDefined(memory));
+        assertEquals(path, ModelPath.of("heap-memory-usage", "used"));
+    }
+
+    @Test
+    public void testMissHasNoSideEffects() throws Exception {
+        ModelNode memory = new ModelNode();
+        memory.get("heap-memory-usage", "used").set(1024L);
+        String before = memory.toString();
+
+        assertSame(ModelPath.UNDEFINED, ModelPath.compile("heap-memory-usage/max").resolve(memory));
+        assertSame(ModelPath.UNDEFINED, ModelPath.compile("non-heap-memory-usage/used").resolve(memory));
+        assertSame(ModelPath.UNDEFINED, ModelPath.compile("heap-memory-usage/used/value").resolve(memory));
+        assertFalse(ModelPath.UNDEFINED.isDefined());
+
+        assertEquals(before, memory.toString());
+    }
+}